@@ -1,18 +1,23 @@
 package raspberry.scheduler;
 
-import raspberry.scheduler.algorithm.bnb.BNB;
-import raspberry.scheduler.algorithm.bnb.BNBParallel;
+import raspberry.scheduler.algorithm.Algorithm;
+import raspberry.scheduler.algorithm.common.MemoryBudget;
 import raspberry.scheduler.algorithm.common.OutputSchedule;
+import raspberry.scheduler.algorithm.decomposition.ComponentSolver;
+import raspberry.scheduler.algorithm.reduction.GraphReducer;
 import raspberry.scheduler.cli.CLIConfig;
 import raspberry.scheduler.cli.CLIParser;
 import raspberry.scheduler.cli.exception.ParserException;
 import raspberry.scheduler.graph.IGraph;
+import raspberry.scheduler.io.BinaryWriter;
 import raspberry.scheduler.io.GraphReader;
 import raspberry.scheduler.io.Logger;
 import raspberry.scheduler.io.Writer;
+import raspberry.scheduler.io.exceptions.InvalidFormatException;
 import raspberry.scheduler.app.*;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 
 /**
  * Entry to the program. Responsible for passing commands to each main component.
@@ -26,29 +31,44 @@ public class Main {
             CLIConfig CLIConfig = CLIParser.parser(inputs);
             GraphReader reader = new GraphReader(CLIConfig.getDotFile());
 
+            if (CLIConfig.getConvert()) {
+                new BinaryWriter(CLIConfig.getOutputFile(), reader.read()).write();
+                System.out.println("Binary graph written to " + CLIConfig.getOutputFile());
+                return;
+            }
+
             // Start visualisation if appropriate argument is given.
             if (CLIConfig.getVisualise()) {
                 startVisualisation(CLIConfig, reader);
             } else {
                 IGraph graph = reader.read();
                 if (COLLECT_STATS_ENABLE) {_startTime = System.nanoTime();}
-                if (CLIConfig.getNumCores()>1) {
-                    BNBParallel bnb = new BNBParallel(graph, CLIConfig.getNumProcessors(), Integer.MAX_VALUE,CLIConfig.getNumCores());
-                    OutputSchedule outputSchedule = bnb.findPath();
-                    if (COLLECT_STATS_ENABLE) {Logger.log(CLIConfig, _startTime, System.nanoTime());}
-                    Writer writer = new Writer(CLIConfig.getOutputFile(), graph, outputSchedule);
-                    writer.write();
-                } else {
-                    BNB bnb = new BNB(graph, CLIConfig.getNumProcessors(), Integer.MAX_VALUE);
-                    OutputSchedule outputSchedule = bnb.findPath();
-                    if (COLLECT_STATS_ENABLE) {Logger.log(CLIConfig, _startTime, System.nanoTime());}
-                    Writer writer = new Writer(CLIConfig.getOutputFile(), graph, outputSchedule);
-                    writer.write();
+                GraphReducer reducer = new GraphReducer(graph);
+                IGraph reduced = reducer.reduce();
+                int numProcessors = Algorithm.getProcessorBound(reduced, CLIConfig.getNumProcessors());
+                if (numProcessors < CLIConfig.getNumProcessors()) {
+                    System.out.println("At most " + numProcessors + " processors can be used at once, "
+                            + "scheduling on " + numProcessors + " processors");
                 }
+                // components are solved separately, a single component is solved by BNB
+                ComponentSolver solver = new ComponentSolver(reduced, numProcessors, CLIConfig.getNumCores());
+                // the output must be optimal, the whole graph is searched if the components miss the lower bound
+                solver.setJointSearch(true);
+                if (CLIConfig.getMemoryBudget() != raspberry.scheduler.cli.CLIConfig.NO_MEMORY_BUDGET) {
+                    solver.setMemoryBudget(MemoryBudget.ofMegabytes(CLIConfig.getMemoryBudget()));
+                }
+                OutputSchedule outputSchedule = reducer.expand(solver.findPath());
+                if (COLLECT_STATS_ENABLE) {Logger.log(CLIConfig, _startTime, System.nanoTime());}
+                Writer writer = new Writer(CLIConfig.getOutputFile(), graph, outputSchedule);
+                writer.write();
             }
-        } catch (IOException | ParserException e) {
+        } catch (IOException | ParserException | InvalidFormatException e) {
             System.out.println(e.getMessage());
             System.exit(1);
+        } catch (UncheckedIOException e) {
+            // read failures other than a missing file
+            System.out.println(e.getCause().getMessage());
+            System.exit(1);
         }
     }
 
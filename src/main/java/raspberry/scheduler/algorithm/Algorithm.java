@@ -1,15 +1,17 @@
 package raspberry.scheduler.algorithm;
 
+import raspberry.scheduler.algorithm.common.MemoryBudget;
 import raspberry.scheduler.algorithm.common.OutputSchedule;
 import raspberry.scheduler.algorithm.common.Schedule;
+import raspberry.scheduler.algorithm.common.ScheduleState;
 import raspberry.scheduler.graph.IEdge;
 import raspberry.scheduler.graph.IGraph;
 import raspberry.scheduler.graph.INode;
-import raspberry.scheduler.graph.exceptions.EdgeDoesNotExistException;
+import raspberry.scheduler.graph.util.GraphWidth;
+import raspberry.scheduler.graph.util.IdenticalTaskTable;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.Hashtable;
-import java.util.List;
 
 /**
  * Represent the scheduling algorithm
@@ -19,6 +21,7 @@ public abstract class Algorithm {
     private IGraph _graph;
     private Hashtable<String, Integer> _heuristicTable;
     private int _maxCriticalPath;
+    private MemoryBudget _memoryBudget;
 
     public Algorithm(IGraph graph) {
         _graph = graph;
@@ -33,6 +36,8 @@ public abstract class Algorithm {
 
     /**
      * Computes the earliest time we can schedule a task in a specific processor.
+     * Schedules that keep a state only read the incoming edges of the task,
+     * other schedules are walked back to the first task.
      *
      * @param parentSchedule   : parent schedule of this partial schedule.
      * @param processorId      : the specific processor we want to schedule task into.
@@ -40,6 +45,11 @@ public abstract class Algorithm {
      * @return Integer : representing the earliest time. (start time)
      */
     public int calculateEarliestStartTime(Schedule parentSchedule, int processorId, INode nodeToBeSchedule) {
+        if (parentSchedule != null && parentSchedule.getState() != null) {
+            ScheduleState state = parentSchedule.getState();
+            return state.getContext().getEarliestStartTime(state, processorId, _graph.getIndex(nodeToBeSchedule));
+        }
+
         // Find last finish parent node
         // Find last finish time for current processor id.
         Schedule last_processorId_use = null; //last time processor with "processorId" was used.
@@ -61,22 +71,13 @@ public abstract class Algorithm {
 
         cParentSchedule = parentSchedule;
         while (cParentSchedule != null) {
-            // for edges in current parent scheduled node
-            INode last_scheduled_node = cParentSchedule.getNode();
-            for (IEdge edge : _graph.getOutgoingEdges(last_scheduled_node.getName())) {
-
-                // if edge points to  === childNode
-                if (edge.getChild() == nodeToBeSchedule && cParentSchedule.getPid() != processorId) {
-                    //last_parent_processor[ cParentSchedule.p_id ] = true;
-                    try {
-                        int communicationWeight = _graph.getEdgeWeight(cParentSchedule.getNode(), nodeToBeSchedule);
-                        //  finished_time_of_last_parent  <
-                        if (finished_time_of_last_parent < (cParentSchedule.getFinishTime() + communicationWeight)) {
-                            finished_time_of_last_parent = cParentSchedule.getFinishTime() + communicationWeight;
-                        }
-                    } catch (EdgeDoesNotExistException e) {
-                        System.out.println(e.getMessage());
-                    }
+            // if current parent scheduled node has an edge pointing to === childNode
+            if (cParentSchedule.getPid() != processorId) {
+                int communicationWeight = _graph.getCommunicationCost(cParentSchedule.getNode(), nodeToBeSchedule);
+                //  finished_time_of_last_parent  <
+                if (communicationWeight != IGraph.NO_EDGE
+                        && finished_time_of_last_parent < (cParentSchedule.getFinishTime() + communicationWeight)) {
+                    finished_time_of_last_parent = cParentSchedule.getFinishTime() + communicationWeight;
                 }
             }
             cParentSchedule = cParentSchedule.getParent();
@@ -85,39 +86,47 @@ public abstract class Algorithm {
     }
 
     /**
-     * Creates initial outDegree table for the graph.
+     * Get the number of processors worth searching. A schedule never uses more processors
+     * than there are tasks. Without communication costs it also never needs more than the
+     * width of the graph: tasks running at the same time form an antichain, so the tasks of
+     * any schedule can be moved onto that many processors without changing their start times.
+     * With communication costs moving a task can delay its children, so the width is not used.
      *
-     * @return : Hashtable : Key : Node
-     * Value : Integer representing number of outDegree edges.
+     * @param graph         : graph to solve
+     * @param numProcessors : number of processors allowed
+     * @return Integer : number of processors to search, at most numProcessors
      */
-    public Hashtable<INode, Integer> getRootTable() {
-        Hashtable<INode, Integer> tmp = new Hashtable<INode, Integer>();
-        for (INode i : _graph.getAllNodes()) {
-            tmp.put(i, 0);
-        }
-        for (INode i : _graph.getAllNodes()) {
-            for (IEdge j : _graph.getOutgoingEdges(i.getName())) {
-                tmp.replace(j.getChild(), tmp.get(j.getChild()) + 1);
+    public static int getProcessorBound(IGraph graph, int numProcessors) {
+        int bound = Math.min(numProcessors, Math.max(1, graph.getNumNodes()));
+        for (INode node : graph.getAllNodes()) {
+            for (IEdge edge : graph.getOutgoingEdges(node)) {
+                if (edge.getWeight() != 0) {
+                    return bound;
+                }
             }
         }
-        return tmp;
+        return Math.min(bound, new GraphWidth(graph).getWidth());
     }
 
     /**
-     * Creates outDegree table for child node.
+     * Get the tasks that can be scheduled next: the ready tasks of the state that, if they have
+     * identical tasks, come after the last scheduled task of their class. Scheduling identical
+     * tasks in any other order only gives permutations of the same schedules, so they are not generated.
      *
-     * @param parentTable : parent schedule's outDegree table.
-     * @param x           : Node :that was just scheduled
-     * @return : Hashtable : Key : Node
-     * Value : Integer representing number of outDegree edges.
+     * @param state : partial schedule
+     * @return List : tasks that can be scheduled next, in the order of the ready list
      */
-    public Hashtable<INode, Integer> getChildTable(Hashtable<INode, Integer> parentTable, INode x) {
-        Hashtable<INode, Integer> tmp = new Hashtable<INode, Integer>(parentTable);
-        tmp.remove(x);
-        for (IEdge i : _graph.getOutgoingEdges(x.getName())) {
-            tmp.replace(i.getChild(), tmp.get(i.getChild()) - 1);
+    public ArrayList<INode> getFreeNodes(ScheduleState state) {
+        IdenticalTaskTable identicalTasks = _graph.getIdenticalTaskTable();
+        ArrayList<INode> freeNodes = new ArrayList<INode>(state.getNumReady());
+        for (int i = 0; i < state.getNumReady(); i++) {
+            int index = state.getReadyTask(i);
+            int previous = identicalTasks.getPrevious(index);
+            if (previous == IdenticalTaskTable.NONE || state.isScheduled(previous)) {
+                freeNodes.add(_graph.getNodeByIndex(index));
+            }
         }
-        return tmp;
+        return freeNodes;
     }
 
     /**
@@ -125,36 +134,18 @@ public abstract class Algorithm {
      * Also find the maximum critical path cost of the graph.
      * where key : String <- task's name.
      * value : int <- maximum path cost.
+     * The path costs are read from the graph's critical path weight table,
+     * which is computed once per graph in linear time.
      */
     public void getH() {
+        Hashtable<INode, Integer> criticalPathTable = _graph.getCriticalPathWeightTable();
         _heuristicTable = new Hashtable<String, Integer>();
+        _maxCriticalPath = 0;
         for (INode i : _graph.getAllNodes()) {
-            _heuristicTable.put(i.getName(), getHRecursive(i));
-        }
-        _maxCriticalPath = Collections.max(_heuristicTable.values());
-    }
-
-    /**
-     * Recursive call child node to get the cost. Get the maximum cost path and return.
-     *
-     * @param n : INode : task that we are trying to find the heuristic weight.
-     * @return integer : Maximum value of n's child path.
-     */
-    public int getHRecursive(INode n) {
-        List<IEdge> e = _graph.getOutgoingEdges(n.getName());
-        if (e.size() == 0) {
-            return 0;
-        } else if (e.size() == 1) {
-            return getHRecursive(e.get(0).getChild()) + e.get(0).getChild().getValue();
-        }
-        int max = 0;
-        for (IEdge i : e) {
-            int justCost = getHRecursive(i.getChild()) + i.getChild().getValue();
-            if (max < justCost) {
-                max = justCost;
-            }
+            int hVal = criticalPathTable.get(i);
+            _heuristicTable.put(i.getName(), hVal);
+            _maxCriticalPath = Math.max(hVal, _maxCriticalPath);
         }
-        return max;
     }
 
     /**
@@ -173,4 +164,33 @@ public abstract class Algorithm {
         return _maxCriticalPath;
     }
 
+    /**
+     * Set the number of bytes the search may hold. Engines that reach it degrade instead of
+     * running out of memory: they evict visited schedules, compress their stored states or fall
+     * back to a search that stores nothing.
+     * @param memoryBudget budget of the search
+     */
+    public void setMemoryBudget(MemoryBudget memoryBudget) {
+        _memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Returns the memory budget, {@link MemoryBudget#getDefault()} if none is set
+     * @return memory budget
+     */
+    public MemoryBudget getMemoryBudget() {
+        if (_memoryBudget == null) {
+            _memoryBudget = MemoryBudget.getDefault();
+        }
+        return _memoryBudget;
+    }
+
+    /**
+     * Estimate the bytes held in the open list, closed list and visited tables of the search
+     * @return estimated number of bytes, 0 for engines that store no schedules
+     */
+    public long getEstimatedMemory() {
+        return 0;
+    }
+
 }
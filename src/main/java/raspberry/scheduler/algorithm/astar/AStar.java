@@ -3,7 +3,9 @@ package raspberry.scheduler.algorithm.astar;
 import raspberry.scheduler.algorithm.common.*;
 import raspberry.scheduler.app.visualisation.model.AlgoStats;
 import raspberry.scheduler.algorithm.Algorithm;
+import raspberry.scheduler.algorithm.bnb.InPlaceBNB;
 import raspberry.scheduler.graph.*;
+import raspberry.scheduler.graph.util.RankTable;
 
 import java.util.*;
 
@@ -17,11 +19,13 @@ public class AStar extends Algorithm {
     private IGraph _graph;
     int _numP;
     int _numNode;
-    PriorityQueue<ScheduleAStar> _pq;
-    Hashtable<Integer, ArrayList<ScheduleAStar>> _visited;
+    OpenList _pq;
+    Hashtable<Long, ArrayList<ScheduleAStar>> _visited;
     private AlgoStats _algoStats;
     int _upperBound;
 
+    ScheduleContext _context;
+
     private EquivalenceChecker _equivalenceChecker;
     private FixOrderChecker _fixOrderChecker;
 
@@ -29,11 +33,16 @@ public class AStar extends Algorithm {
     private int duplicate = 0; // Duplicate counter, Used for debugging purposes.
     private int duplicateBySwap = 0; // Duplicate counter, Used for debugging purposes.
     private int fixOrderCount = 0; // Duplicate counter, Used for debugging purposes.
+    private int lazyReinsertCount = 0; // Lazily evaluated schedules put back with a larger f
+    private int partialRequeueCount = 0; // Partially expanded schedules put back
 
     // configuration 
     private final boolean DUPLICATE_ENABLE = true;
     private final boolean UPPERBOUND_ENABLE = true;
     private final boolean FIX_ORDER_ENABLE = true;
+    private boolean _lazyHeuristic = false;
+    private boolean _partialExpansion = false;
+    private int _nextTotal; // smallest f value of the children left out of a partial expansion
 
     /**
      * Constructor for A*
@@ -44,15 +53,16 @@ public class AStar extends Algorithm {
     public AStar(IGraph graphToSolve, int numProcessors, int upperBound) {
         super(graphToSolve);
         _graph = graphToSolve;
-        _pq = new PriorityQueue<ScheduleAStar>();
-        _visited = new Hashtable<Integer, ArrayList<ScheduleAStar>>();
-        _numP = numProcessors;
+        _pq = new HeapOpenList();
+        _visited = new Hashtable<Long, ArrayList<ScheduleAStar>>();
+        _numP = getProcessorBound(graphToSolve, numProcessors);
         _numNode = _graph.getNumNodes();
         _algoStats = AlgoStats.getInstance();
         _upperBound = upperBound;
+        _context = new ScheduleContext(_graph, _numP);
 
         // checker
-        _equivalenceChecker = new EquivalenceChecker(_graph, numProcessors, this);
+        _equivalenceChecker = new EquivalenceChecker(_graph, _numP, this);
         _fixOrderChecker = new FixOrderChecker(_graph);
     }
 
@@ -61,6 +71,66 @@ public class AStar extends Algorithm {
         _graph = graphToSolve;
     }
 
+    /**
+     * Enable lazy heuristic evaluation: children are opened with a cheap lower bound, the f value
+     * of their parent or the critical path of their task, and the full heuristic is only computed
+     * once a child reaches the top of the open list. A child whose f value rises is put back.
+     * Both bounds are admissible, so the schedule found is still optimal.
+     * @param lazyHeuristic : True to defer the heuristic of children
+     */
+    public void setLazyHeuristic(boolean lazyHeuristic) {
+        _lazyHeuristic = lazyHeuristic;
+    }
+
+    /**
+     * Returns the number of lazily evaluated schedules put back into the open list during the
+     * search, see {@link #setLazyHeuristic(boolean)}
+     * @return number of schedules put back
+     */
+    public int getNumLazyReinserts() {
+        return lazyReinsertCount;
+    }
+
+    /**
+     * Enable partial expansion: expanding a schedule only opens the children whose f value equals
+     * the stored f value of the schedule, or is smaller on its first expansion. The schedule goes
+     * back into the open list with the smallest f value of the children left out, which are
+     * opened when it reaches the top again. Children are generated again on every expansion, but
+     * those that would never be polled before the search ends never take space in the open list.
+     * Children get the full heuristic even with {@link #setLazyHeuristic(boolean)}, the f value
+     * decides the expansion they belong to.
+     * @param partialExpansion : True to expand schedules partially
+     */
+    public void setPartialExpansion(boolean partialExpansion) {
+        _partialExpansion = partialExpansion;
+    }
+
+    /**
+     * Returns the number of partially expanded schedules put back into the open list during the
+     * search, see {@link #setPartialExpansion(boolean)}
+     * @return number of schedules put back
+     */
+    public int getNumPartialRequeues() {
+        return partialRequeueCount;
+    }
+
+    /**
+     * Returns the graph being solved
+     * @return graph
+     */
+    protected IGraph getGraph() {
+        return _graph;
+    }
+
+    /**
+     * Select the open list, by default a {@link HeapOpenList}. An {@link IndexedOpenList} also
+     * takes the place of the closed list. Must be called before the search starts.
+     * @param openList : empty open list
+     */
+    public void setOpenList(OpenList openList) {
+        _pq = openList;
+    }
+
     /**
      * Compute the optimal scheduling
      * @return OutputSchedule : the optimal path/scheduling.
@@ -70,34 +140,33 @@ public class AStar extends Algorithm {
 
         getH(); //Computes critical path
 
-        Hashtable<INode, Integer> rootTable = getRootTable();
-
-        for (INode node : rootTable.keySet()) {
-            if (rootTable.get(node) == 0) {
-
-                ScheduleAStar newSchedule = new ScheduleAStar(
-                        new ScheduledTask(1,node, 0),
-                        getChildTable(rootTable, node)
-                );
-
-                // note can't use drt here
-                newSchedule.addHeuristic(
-                        Collections.max(Arrays.asList(
-                                h(newSchedule),
-                                h1(getChildTable(rootTable, node), newSchedule)
-                        ))
-                );
-
-                _pq.add(newSchedule);
-            }
+        for (INode node : getFreeNodes(new ScheduleState(_context))) {
+            ScheduleAStar newSchedule = new ScheduleAStar(
+                    new ScheduledTask(1,node, 0),
+                    _context
+            );
+
+            // note can't use drt here
+            newSchedule.addHeuristic(
+                    Collections.max(Arrays.asList(
+                            h(newSchedule),
+                            h1(newSchedule)
+                    ))
+            );
+
+            _pq.add(newSchedule);
         }
 
         ScheduleAStar cSchedule;
+        MemoryBudget memoryBudget = getMemoryBudget();
         _algoStats.setIterations(0);
         _algoStats.setIsFinish(false);
       //  System.out.println(_observable.getIterations());
         while (true) {
             //System.out.printf("PQ SIZE: %d\n", _pq.size());
+            if (memoryBudget.isExceeded(getEstimatedMemory())) {
+                return searchDepthFirst();
+            }
             _algoStats.increment();
             //System.out.println(_observable.getIterations());
 
@@ -107,20 +176,35 @@ public class AStar extends Algorithm {
             }
 
             cSchedule = _pq.poll();
-
+            if (cSchedule.isHeuristicDeferred()) {
+                // the full heuristic is only computed for schedules that reach the top of the open list
+                int total = cSchedule.getTotal();
+                cSchedule.addHeuristic(Math.max(cSchedule.getH(), getFullHeuristic(cSchedule)));
+                if (cSchedule.getTotal() > total) {
+                    lazyReinsertCount++;
+                    if (!UPPERBOUND_ENABLE || cSchedule.getTotal() <= _upperBound) {
+                        _pq.requeue(cSchedule);
+                    }
+                    continue;
+                }
+            }
 
             Solution cScheduleSolution = new Solution(cSchedule, _numP);
             _algoStats.setSolution(cScheduleSolution);
-            ArrayList<ScheduleAStar> listVisitedForSize = _visited.get(cSchedule.getHash());
-            if (listVisitedForSize != null && isIrrelevantDuplicate(listVisitedForSize, cSchedule)) {
-                duplicate++;
-                continue;
-            } else {
-                if (listVisitedForSize == null) {
-                    listVisitedForSize = new ArrayList<ScheduleAStar>();
-                    _visited.put(cSchedule.getHash(), listVisitedForSize);
+            // an open list that detects duplicates keeps the closed schedules itself, _visited stays empty.
+            // a partially expanded schedule is already closed
+            if (!_pq.detectsDuplicates() && !cSchedule.isPartiallyExpanded()) {
+                ArrayList<ScheduleAStar> listVisitedForSize = _visited.get(cSchedule.getHash());
+                if (listVisitedForSize != null && isIrrelevantDuplicate(listVisitedForSize, cSchedule)) {
+                    duplicate++;
+                    continue;
+                } else {
+                    if (listVisitedForSize == null) {
+                        listVisitedForSize = new ArrayList<ScheduleAStar>();
+                        _visited.put(cSchedule.getHash(), listVisitedForSize);
+                    }
+                    listVisitedForSize.add(cSchedule);
                 }
-                listVisitedForSize.add(cSchedule);
             }
 
             // Return if all task is scheduled
@@ -128,7 +212,6 @@ public class AStar extends Algorithm {
                 break;
             }
 
-            Hashtable<INode, Integer> cTable = cSchedule._inDegreeTable;
             // Find the next empty processor. (
             int currentMaxPid = cSchedule.getMaxPid();
             int pidBound;
@@ -138,12 +221,8 @@ public class AStar extends Algorithm {
                 pidBound = currentMaxPid + 1;
             }
 
-            ArrayList<INode> freeNodes = new ArrayList<INode>();
-            for (INode node : cTable.keySet()) {
-                if (cTable.get(node) == 0) {
-                    freeNodes.add(node);
-                }
-            }
+            ArrayList<INode> freeNodes = getFreeNodes(cSchedule.getState());
+            _nextTotal = Integer.MAX_VALUE;
 
             if (FIX_ORDER_ENABLE && _fixOrderChecker.check(freeNodes, cSchedule) &&
                     _fixOrderChecker.getFixOrder(freeNodes,cSchedule) != null){
@@ -152,20 +231,14 @@ public class AStar extends Algorithm {
                 fixOrderCount++;
                 for (int pid = 1; pid <= pidBound; pid++) {
                     int start = calculateEarliestStartTime(cSchedule, pid, node);
-                    Hashtable<INode, Integer> newTable = getChildTable(cTable, node);
                     ScheduleAStar newSchedule = new ScheduleAStar(
                             cSchedule,
-                            new ScheduledTask(pid, node, start),
-                            newTable);
-
-                    newSchedule.addHeuristic(
-                            Collections.max(Arrays.asList(
-                                    dataReadyTimeHeuristic(newSchedule),
-                                    h(newSchedule),
-                                    h1(newTable, newSchedule)
-                            ))
-                    );
-                    _pq.add(newSchedule);
+                            new ScheduledTask(pid, node, start));
+
+                    addChildHeuristic(cSchedule, newSchedule);
+                    if (_partialExpansion && isLeftOut(cSchedule, newSchedule)) {
+                        continue;
+                    }
                     if (!UPPERBOUND_ENABLE || newSchedule.getTotal() <= _upperBound) {
                         ArrayList<ScheduleAStar> listVisitedForSizeV2 = _visited.get(newSchedule.getHash());
                         if (listVisitedForSizeV2 != null && isIrrelevantDuplicate(listVisitedForSizeV2, newSchedule)) {
@@ -179,19 +252,14 @@ public class AStar extends Algorithm {
                 for (INode node : freeNodes) {
                     for (int pid = 1; pid <= pidBound; pid++) {
                         int start = calculateEarliestStartTime(cSchedule, pid, node);
-                        Hashtable<INode, Integer> newTable = getChildTable(cTable, node);
                         ScheduleAStar newSchedule = new ScheduleAStar(
                                 cSchedule,
-                                new ScheduledTask(pid, node, start),
-                                newTable);
+                                new ScheduledTask(pid, node, start));
 
-                        newSchedule.addHeuristic(
-                                Collections.max(Arrays.asList(
-                                        dataReadyTimeHeuristic(newSchedule),
-                                        h(newSchedule),
-                                        h1(newTable, newSchedule)
-                                ))
-                        );
+                        addChildHeuristic(cSchedule, newSchedule);
+                        if (_partialExpansion && isLeftOut(cSchedule, newSchedule)) {
+                            continue;
+                        }
 
                         if (!UPPERBOUND_ENABLE || newSchedule.getTotal() <= _upperBound) {
                             ArrayList<ScheduleAStar> listVisitedForSizeV2 = _visited.get(newSchedule.getHash());
@@ -206,6 +274,13 @@ public class AStar extends Algorithm {
                     }
                 }
             }
+
+            if (_partialExpansion && _nextTotal != Integer.MAX_VALUE) {
+                // back in the open list for the children left out
+                cSchedule.setPartiallyExpanded(_nextTotal);
+                _pq.requeue(cSchedule);
+                partialRequeueCount++;
+            }
         }
 
         System.out.printf("PQ SIZE: %d\n", _pq.size());
@@ -219,6 +294,84 @@ public class AStar extends Algorithm {
         return new Solution(cSchedule, _numP);
     }
 
+    /**
+     * Estimate the bytes held in the open list and the closed list. Closed schedules are also
+     * the ancestors of the open ones, so evicting them would free little: once the budget is
+     * reached the search carries on depth first instead, see {@link #searchDepthFirst()}.
+     * @return estimated number of bytes
+     */
+    @Override
+    public long getEstimatedMemory() {
+        if (_pq == null || _visited == null) {
+            return 0;
+        }
+        long scheduleBytes = MemoryBudget.scheduleBytes(_numNode, _numP);
+        return _pq.size() * (MemoryBudget.REFERENCE + scheduleBytes)
+                + ((long) _visited.size() + _pq.getNumClosed())
+                * (MemoryBudget.TABLE_ENTRY + MemoryBudget.REFERENCE + scheduleBytes);
+    }
+
+    /**
+     * Drop the open and closed lists and find the optimal schedule with {@link InPlaceBNB} under
+     * the same upper bound. It only stores the visited signatures, and evicts them on its own
+     * when it reaches the budget.
+     * @return OutputSchedule : the optimal path/scheduling, null if there is none within the upper bound
+     */
+    OutputSchedule searchDepthFirst() {
+        _pq.clear();
+        _visited.clear();
+        InPlaceBNB bnb = new InPlaceBNB(_graph, _numP, _upperBound);
+        bnb.setMemoryBudget(getMemoryBudget());
+        return bnb.findPath();
+    }
+
+    /**
+     * Add the heuristic of a child schedule, see {@link #setLazyHeuristic(boolean)}.
+     * Every completion of the child completes its parent, so the f value of the parent bounds the child.
+     *
+     * @param parent : schedule that was expanded
+     * @param child  : new child schedule
+     */
+    void addChildHeuristic(ScheduleAStar parent, ScheduleAStar child) {
+        if (_lazyHeuristic && !_partialExpansion) {
+            int criticalPath = child.getFinishTime() + getHeuristicTable().get(child.getNode().getName());
+            child.deferHeuristic(Math.max(parent.getTotal(), criticalPath) - child.getFinishTime());
+        } else {
+            child.addHeuristic(getFullHeuristic(child));
+        }
+    }
+
+    /**
+     * Partial expansion, see {@link #setPartialExpansion(boolean)}. Children with a larger f value than
+     * the stored f value of the parent are left to a later expansion, and children with a smaller one
+     * were opened by an earlier expansion.
+     *
+     * @param parent : schedule that is expanded
+     * @param child  : new child schedule, with its heuristic
+     * @return True : if the child is not opened in this expansion
+     */
+    private boolean isLeftOut(ScheduleAStar parent, ScheduleAStar child) {
+        if (child.getTotal() > parent.getTotal()) {
+            if (!UPPERBOUND_ENABLE || child.getTotal() <= _upperBound) {
+                _nextTotal = Math.min(_nextTotal, child.getTotal());
+            }
+            return true;
+        }
+        return parent.isPartiallyExpanded() && child.getTotal() < parent.getTotal();
+    }
+
+    /**
+     * @param cSchedule : schedule of which we are trying to find heuristic cost for.
+     * @return integer : largest of the data ready time, critical path and load balance heuristics
+     */
+    int getFullHeuristic(ScheduleAStar cSchedule) {
+        return Collections.max(Arrays.asList(
+                dataReadyTimeHeuristic(cSchedule),
+                h(cSchedule),
+                h1(cSchedule)
+        ));
+    }
+
     /**
      * This is the heuristic that uses the data ready time of free task
      * the heuristic is the earliest star time in all processor plus to compute time of the task  + the
@@ -229,30 +382,25 @@ public class AStar extends Algorithm {
      * @return heuristic value h(schedule)
      */
     public int dataReadyTimeHeuristic(ScheduleAStar cSchedule){
-        Hashtable<INode, Integer> finishTime = new Hashtable<>();
-        Hashtable<INode, Integer> criticalPathTable = _graph.getCriticalPathWeightTable();
+        RankTable ranks = _graph.getRankTable();
+        ScheduleState state = cSchedule.getState();
 
         // get all free task
-        Hashtable<INode, Integer> cTable = cSchedule.getInDegreeTable();
-        ArrayList<INode> freeNodes = new ArrayList<INode>();
-        for (INode node : cTable.keySet()) {
-            if (cTable.get(node) == 0) {
-                freeNodes.add(node);
-            }
-        }
-        if (freeNodes.size() == 0){
+        if (state.getNumReady() == 0){
             return 0;
         }
 
         // finish time = min DRT for every processor + critical path weight
-        freeNodes.forEach( (node) ->{
+        int maxFinishTime = 0;
+        for (int i = 0; i < state.getNumReady(); i++) {
+            int index = state.getReadyTask(i);
             int minStartTime = Integer.MAX_VALUE;
             for (int pid = 1; pid <= _numP; pid++) {
-                minStartTime = Math.min(minStartTime, calculateEarliestStartTime(cSchedule, pid, node));
+                minStartTime = Math.min(minStartTime, _context.getEarliestStartTime(state, pid, index));
             }
-            finishTime.put(node, minStartTime + node.getValue() + criticalPathTable.get(node));
-        });
-        return Math.max(0, Collections.max(finishTime.values()) - cSchedule.getFinishTime());
+            maxFinishTime = Math.max(maxFinishTime, minStartTime + ranks.getStaticLevel(index));
+        }
+        return Math.max(0, maxFinishTime - cSchedule.getFinishTime());
 
     }
 
@@ -266,10 +414,14 @@ public class AStar extends Algorithm {
      * @return integer : represeting the heuristic cost
      */
     public int h(ScheduleAStar cSchedule) {
+        ScheduleState state = cSchedule.getState();
         int max = 0;
-        for (String s : cSchedule.getLastForEachProcessor().values()) {
-            int tmp = super.getHeuristicTable().get(s) + cSchedule.getScheduling().get(s).get(1) +
-                    _graph.getNode(s).getValue();
+        for (int pid = 1; pid <= _numP; pid++) {
+            int last = state.getLastTask(pid);
+            if (last == ScheduleState.UNSCHEDULED) {
+                continue;
+            }
+            int tmp = super.getHeuristicTable().get(_context.getNode(last).getName()) + state.getFinishTime(last);
             if (tmp > max) {
                 max = tmp;
             }
@@ -280,19 +432,16 @@ public class AStar extends Algorithm {
     /**
      * Find the best case scheduling where all task are evenly spread out throughout the different processors.
      *
-     * @param x         : Hashtable representing the outDegree table. (All the tasks in the table has not been scheduled yet)
-     * @param cSchedule : current schedule . Used to find the last task which was scheduled for each processor.
+     * @param cSchedule : current schedule . Used to find the finish time of each processor and the unscheduled work.
      * @return Integer : Representing the best case scheduling.
      */
-    public int h1(Hashtable<INode, Integer> x, ScheduleAStar cSchedule) {
+    public int h1(ScheduleAStar cSchedule) {
+        ScheduleState state = cSchedule.getState();
         int sum = 0;
-        for (String s : cSchedule.getLastForEachProcessor().values()) {
-            sum += cSchedule.getScheduling().get(s).get(1) +
-                    _graph.getNode(s).getValue();
-        }
-        for (INode i : x.keySet()) {
-            sum += i.getValue();
+        for (int pid = 1; pid <= _numP; pid++) {
+            sum += state.getProcessorFinishTime(pid);
         }
+        sum += state.getRemainingWork();
         return sum / _numP - cSchedule.getFinishTime();
     }
 
@@ -313,7 +462,7 @@ public class AStar extends Algorithm {
         if (!DUPLICATE_ENABLE) return false;
         for (ScheduleAStar s : scheduleList) {
             if ( s.equals3(cSchedule) ){
-                if ( s.getTotal() > cSchedule.getTotal()) {
+                if ( s.getBaseTotal() > cSchedule.getTotal()) {
                     return false;
                 }else{
                     return true;
@@ -3,10 +3,10 @@ package raspberry.scheduler.algorithm.astar;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Hashtable;
 import java.util.concurrent.*;
 
 import raspberry.scheduler.algorithm.common.OutputSchedule;
+import raspberry.scheduler.algorithm.common.ScheduleState;
 import raspberry.scheduler.algorithm.common.ScheduledTask;
 import raspberry.scheduler.algorithm.common.Solution;
 import raspberry.scheduler.app.visualisation.model.AlgoStats;
@@ -22,7 +22,7 @@ public class AStarParallel extends AStar {
     private ThreadPoolExecutor _threadPool = null;
     private AlgoStats _algoStats;
     // concurren tlist of subschedule for threadpool to run
-    private ConcurrentLinkedQueue<Hashtable<ScheduleAStar, Hashtable<INode, Integer>>> _subSchedules;
+    private ConcurrentLinkedQueue<ScheduleAStar> _subSchedules;
 
 
     /**
@@ -35,7 +35,7 @@ public class AStarParallel extends AStar {
     public AStarParallel(IGraph graphToSolve, int numProcessors, int numCores) {
         super(graphToSolve, numProcessors, Integer.MAX_VALUE);
         initialiseThreadPool(numCores);
-        _subSchedules = new ConcurrentLinkedQueue<Hashtable<ScheduleAStar, Hashtable<INode, Integer>>>();
+        _subSchedules = new ConcurrentLinkedQueue<ScheduleAStar>();
         _algoStats = AlgoStats.getInstance();
     }
 
@@ -49,7 +49,7 @@ public class AStarParallel extends AStar {
     public AStarParallel(IGraph graphToSolve, int numProcessors, int upperbound, int numCores) {
         super(graphToSolve, numProcessors,upperbound);
         initialiseThreadPool(numCores);
-        _subSchedules = new ConcurrentLinkedQueue<Hashtable<ScheduleAStar, Hashtable<INode, Integer>>>();
+        _subSchedules = new ConcurrentLinkedQueue<ScheduleAStar>();
         _algoStats = AlgoStats.getInstance();
     }
 
@@ -74,23 +74,17 @@ public class AStarParallel extends AStar {
     public OutputSchedule findPath() {
 
         getH();
-        Hashtable<ScheduleAStar, Hashtable<INode, Integer>> master = new Hashtable<ScheduleAStar, Hashtable<INode, Integer>>();
-        Hashtable<INode, Integer> rootTable = this.getRootTable();
-
-        for (INode node : rootTable.keySet()) {
-            if (rootTable.get(node) == 0) {
-                ScheduleAStar newSchedule = new ScheduleAStar(
-                        new ScheduledTask(1,node, 0),
-                        getChildTable(rootTable, node)
-                );
-                newSchedule.addHeuristic(
-                        Collections.max(Arrays.asList(
-                                h(newSchedule),
-                                h1(getChildTable(rootTable, node), newSchedule)
-                        )));
-                master.put(newSchedule, getChildTable(rootTable, node));
-                _pq.add(newSchedule);
-            }
+        for (INode node : getFreeNodes(new ScheduleState(_context))) {
+            ScheduleAStar newSchedule = new ScheduleAStar(
+                    new ScheduledTask(1,node, 0),
+                    _context
+            );
+            newSchedule.addHeuristic(
+                    Collections.max(Arrays.asList(
+                            h(newSchedule),
+                            h1(newSchedule)
+                    )));
+            _pq.add(newSchedule);
         }
 
         ScheduleAStar cSchedule;
@@ -120,9 +114,6 @@ public class AStarParallel extends AStar {
             if (cSchedule.getSize() == _numNode) {
                 break;
             }
-            Hashtable<INode, Integer> cTable = master.get(cSchedule);
-            master.remove(cSchedule);
-
             // Find the next empty processor. (
             int currentMaxPid = cSchedule.getMaxPid();
             int pidBound;
@@ -131,22 +122,12 @@ public class AStarParallel extends AStar {
             } else {
                 pidBound = currentMaxPid + 1;
             }
-            int count = 0;
-            for (INode node : cTable.keySet()) {
-                if (cTable.get(node) == 0) {
-                    for (int j = 1; j <= pidBound; j++) {
-                        count++;
-                    }
-                }
-            }
+            ArrayList<INode> freeNodes = getFreeNodes(cSchedule.getState());
+            CountDownLatch latch = new CountDownLatch(freeNodes.size() * pidBound);
 
-            CountDownLatch latch = new CountDownLatch(count);
-
-            for (INode node : cTable.keySet()) {
-                if (cTable.get(node) == 0) {
-                    for (int pid = 1; pid <= pidBound; pid++) {
-                        createSubSchedules(cSchedule, pid, node, cTable, latch);
-                    }
+            for (INode node : freeNodes) {
+                for (int pid = 1; pid <= pidBound; pid++) {
+                    createSubSchedules(cSchedule, pid, node, latch);
                 }
             }
             try {
@@ -155,11 +136,8 @@ public class AStarParallel extends AStar {
                 System.out.println(e.getMessage());
             }
 
-            for (Hashtable<ScheduleAStar, Hashtable<INode, Integer>> subScheduleTables : _subSchedules) {
-                for (ScheduleAStar subSchedule : subScheduleTables.keySet()) {
-                    master.put(subSchedule, subScheduleTables.get(subSchedule));
-                    _pq.add(subSchedule);
-                }
+            for (ScheduleAStar subSchedule : _subSchedules) {
+                _pq.add(subSchedule);
             }
             _subSchedules.clear();
         }
@@ -173,32 +151,27 @@ public class AStarParallel extends AStar {
      * @param cSchedule : parent schedule
      * @param pid : processor id
      * @param node : node/task to be scheduled
-     * @param cTable : indegree table
      * @param latch : latch. (to check if the thread has finished its job)
      */
-    public void createSubSchedules(ScheduleAStar cSchedule, int pid, INode node, Hashtable<INode, Integer> cTable, CountDownLatch latch) {
+    public void createSubSchedules(ScheduleAStar cSchedule, int pid, INode node, CountDownLatch latch) {
         _threadPool.submit(() -> {
             int start = calculateEarliestStartTime(cSchedule, pid, node);
-            Hashtable<INode, Integer> newTable = getChildTable(cTable, node);
 
             ScheduleAStar newSchedule = new ScheduleAStar(
                     cSchedule,
-                    new ScheduledTask(pid, node, start),
-                    newTable);
+                    new ScheduledTask(pid, node, start));
 
             newSchedule.addHeuristic(
                     Collections.max(Arrays.asList(
                             h(newSchedule),
-                            h1(newTable, newSchedule)
+                            h1(newSchedule)
                     )));
             if (newSchedule.getTotal() <= _upperBound){
                 ArrayList<ScheduleAStar> listVisitedForSizeV2 = _visited.get(newSchedule.getHash());
                 if (listVisitedForSizeV2 != null && isIrrelevantDuplicate(listVisitedForSizeV2, newSchedule)) {
                     //Duplicate
                 }else{
-                    Hashtable<ScheduleAStar, Hashtable<INode, Integer>> subSchedule = new Hashtable<ScheduleAStar, Hashtable<INode, Integer>>();
-                    subSchedule.put(newSchedule, newTable);
-                    _subSchedules.add(subSchedule);
+                    _subSchedules.add(newSchedule);
                 }
             }
             latch.countDown();
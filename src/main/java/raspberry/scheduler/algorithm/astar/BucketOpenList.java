@@ -0,0 +1,203 @@
+package raspberry.scheduler.algorithm.astar;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Open list on buckets: f values are small non negative integers, so every f value gets its own
+ * bucket, an array indexed by f. Adding and polling a schedule cost O(1) apart from moving the
+ * smallest f value forward, which only ever goes past each bucket once between two schedules of a
+ * smaller f value. No schedules are compared.
+ *
+ * Schedules of the same f value are polled in the order of the {@link TieBreak}. Depth and h tie
+ * breaking split every bucket again by depth or by finish time, and poll the last schedule added
+ * to a slot first.
+ *
+ * The bucket array only grows up to {@link #DIRECT_LIMIT}, larger f values go to a sorted map so
+ * a single huge value does not allocate a huge array. Buckets are dropped once they are empty.
+ * @author Takahiro
+ */
+public class BucketOpenList implements OpenList {
+
+    /**
+     * Order of the schedules with the same f value
+     */
+    public enum TieBreak {
+        /** first added first */
+        FIFO,
+        /** last added first */
+        LIFO,
+        /** most tasks scheduled first, the closest to a complete schedule */
+        DEPTH,
+        /** smallest heuristic first, the latest finish time since f is the finish time plus h */
+        H
+    }
+
+    private static final int INITIAL_CAPACITY = 64;
+    static final int DIRECT_LIMIT = 1 << 16;
+
+    private final TieBreak _tieBreak;
+    private Bucket[] _buckets;
+    private TreeMap<Integer, Bucket> _overflow;   // buckets of f values from DIRECT_LIMIT on
+    private int _minF;          // smallest f value in _buckets
+    private int _directSize;    // number of schedules in _buckets
+    private int _size;
+
+    /**
+     * Class constructor
+     * @param tieBreak order of the schedules with the same f value
+     */
+    public BucketOpenList(TieBreak tieBreak) {
+        _tieBreak = tieBreak;
+        _buckets = new Bucket[INITIAL_CAPACITY];
+        _overflow = new TreeMap<Integer, Bucket>();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws IllegalArgumentException if the f value is negative
+     */
+    @Override
+    public void add(ScheduleAStar schedule) {
+        int f = schedule.getTotal();
+        if (f < 0) {
+            throw new IllegalArgumentException("Bucket open list needs f values of at least 0");
+        }
+        if (f >= DIRECT_LIMIT) {
+            Bucket bucket = _overflow.get(f);
+            if (bucket == null) {
+                bucket = new Bucket();
+                _overflow.put(f, bucket);
+            }
+            bucket.add(schedule, getKey(schedule));
+            _size++;
+            return;
+        }
+        if (f >= _buckets.length) {
+            _buckets = Arrays.copyOf(_buckets, Math.min(DIRECT_LIMIT, Math.max(f + 1, _buckets.length * 2)));
+        }
+        Bucket bucket = _buckets[f];
+        if (bucket == null) {
+            bucket = new Bucket();
+            _buckets[f] = bucket;
+        }
+        bucket.add(schedule, getKey(schedule));
+        if (_directSize == 0 || f < _minF) {
+            _minF = f;
+        }
+        _directSize++;
+        _size++;
+    }
+
+    @Override
+    public ScheduleAStar poll() {
+        if (_size == 0) {
+            return null;
+        }
+        _size--;
+        if (_directSize == 0) {
+            // every f value in the overflow is larger than the ones in the array
+            Map.Entry<Integer, Bucket> entry = _overflow.firstEntry();
+            ScheduleAStar schedule = entry.getValue().poll(_tieBreak == TieBreak.FIFO);
+            if (entry.getValue().isEmpty()) {
+                _overflow.remove(entry.getKey());
+            }
+            return schedule;
+        }
+        while (_buckets[_minF] == null) {
+            _minF++;
+        }
+        _directSize--;
+        Bucket bucket = _buckets[_minF];
+        ScheduleAStar schedule = bucket.poll(_tieBreak == TieBreak.FIFO);
+        if (bucket.isEmpty()) {
+            _buckets[_minF] = null;
+        }
+        return schedule;
+    }
+
+    @Override
+    public int size() {
+        return _size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return _size == 0;
+    }
+
+    @Override
+    public void clear() {
+        _buckets = new Bucket[INITIAL_CAPACITY];
+        _overflow.clear();
+        _directSize = 0;
+        _size = 0;
+    }
+
+    @Override
+    public OpenList create() {
+        return new BucketOpenList(_tieBreak);
+    }
+
+    /**
+     * Slot of a schedule in its bucket, larger slots are polled first
+     */
+    private int getKey(ScheduleAStar schedule) {
+        switch (_tieBreak) {
+            case DEPTH:
+                return schedule.getSize();
+            case H:
+                return schedule.getTotal() - schedule.getH();
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Schedules of one f value, in slots by tie breaking key. Only the keys in use have a slot,
+     * kept in a sorted map. The slot of the largest key is cached, so adding to it and polling
+     * only touch the map when a key appears or a slot empties.
+     */
+    private static class Bucket {
+        private final TreeMap<Integer, ArrayDeque<ScheduleAStar>> _slots =
+                new TreeMap<Integer, ArrayDeque<ScheduleAStar>>();
+        private ArrayDeque<ScheduleAStar> _top;   // slot of the largest key, null if empty
+        private int _topKey;
+        private int _size;
+
+        void add(ScheduleAStar schedule, int key) {
+            ArrayDeque<ScheduleAStar> slot = _top;
+            if (slot == null || key != _topKey) {
+                slot = _slots.get(key);
+                if (slot == null) {
+                    slot = new ArrayDeque<ScheduleAStar>();
+                    _slots.put(key, slot);
+                }
+                if (_top == null || key > _topKey) {
+                    _top = slot;
+                    _topKey = key;
+                }
+            }
+            slot.addLast(schedule);
+            _size++;
+        }
+
+        ScheduleAStar poll(boolean fifo) {
+            ScheduleAStar schedule = fifo ? _top.pollFirst() : _top.pollLast();
+            _size--;
+            if (_top.isEmpty()) {
+                _slots.remove(_topKey);
+                Map.Entry<Integer, ArrayDeque<ScheduleAStar>> entry = _slots.lastEntry();
+                _top = entry == null ? null : entry.getValue();
+                _topKey = entry == null ? 0 : entry.getKey();
+            }
+            return schedule;
+        }
+
+        boolean isEmpty() {
+            return _size == 0;
+        }
+    }
+}
@@ -0,0 +1,484 @@
+package raspberry.scheduler.algorithm.astar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import raspberry.scheduler.algorithm.common.EquivalenceChecker;
+import raspberry.scheduler.algorithm.common.FixOrderChecker;
+import raspberry.scheduler.algorithm.common.MemoryBudget;
+import raspberry.scheduler.algorithm.common.OutputSchedule;
+import raspberry.scheduler.algorithm.common.ScheduleState;
+import raspberry.scheduler.algorithm.common.ScheduledTask;
+import raspberry.scheduler.algorithm.common.Solution;
+import raspberry.scheduler.app.visualisation.model.AlgoStats;
+import raspberry.scheduler.graph.IGraph;
+import raspberry.scheduler.graph.INode;
+
+/**
+ * Implementation of A star with parallelization, hash distributed (HDA*).
+ * Every thread runs a worker that owns a part of the search space: the schedules whose state hash
+ * maps to it. A worker keeps its own open list and closed list, and nothing else is shared. The
+ * children it generates are sent to their owners in batches, through lock free mailboxes, so
+ * duplicates always meet at the same worker.
+ *
+ * Workers expand schedules in their own f order, so a complete schedule is not known to be optimal
+ * when it is found. It becomes the incumbent, and schedules with an f value no smaller are pruned.
+ * The search ends once the incumbent is no larger than the smallest f value of every worker: every
+ * worker has pruned or expanded all of its schedules and no batch is on its way.
+ *
+ * The open list set with {@link #setOpenList(OpenList)} goes to the first worker, the others get
+ * an empty one of the same kind, see {@link OpenList#create()}. A worker that fails stops all the
+ * others, and its exception is thrown by {@link #findPath()}.
+ *
+ * @author Takahiro
+ */
+public class HashDistributedAStar extends AStar {
+    // schedules sent to a worker in one message
+    private static final int BATCH_SIZE = 64;
+    // number of expansions after which a worker sends its batches even if they are not full
+    private static final int FLUSH_INTERVAL = 16;
+    // longest time an idle worker parks before it checks again if the search is over
+    private static final long PARK_NANOS = 1000000;
+
+    private AlgoStats _algoStats;
+    private int _numCores;
+
+    private Worker[] _workers;
+    // active workers plus batches sent and not received yet, the search is over when it reaches 0
+    private AtomicLong _work;
+    private volatile int _incumbentTotal;
+    private ScheduleAStar _incumbent;
+    private volatile boolean _stopped;
+    private volatile boolean _memoryExceeded;
+    private AtomicReference<Throwable> _failure;
+    private int[] _numExpanded;
+
+    /**
+     * Constructor for A*
+     *
+     * @param graphToSolve  : graph to solve (graph represents the task and dependencies)
+     * @param numProcessors : number of processor we can use to schedule tasks.
+     * @param numCores : number of cores / threads
+     */
+    public HashDistributedAStar(IGraph graphToSolve, int numProcessors, int numCores) {
+        this(graphToSolve, numProcessors, Integer.MAX_VALUE, numCores);
+    }
+
+    /**
+     *  Constructor for A* with upper bound
+     * @param graphToSolve : graph to solve (graph represents the task and dependencies)
+     * @param numProcessors : number of processor we can use to schedule tasks.
+     * @param upperbound : upper bound. (found from creating a valid solution)
+     * @param numCores : number of cores / threads
+     */
+    public HashDistributedAStar(IGraph graphToSolve, int numProcessors, int upperbound, int numCores) {
+        super(graphToSolve, numProcessors, upperbound);
+        _numCores = Math.max(1, numCores);
+        _algoStats = AlgoStats.getInstance();
+    }
+
+    /**
+     * Compute the optimal scheduling
+     *
+     * @return OutputSchedule : the optimal path/scheduling, null if there is none within the upper bound
+     */
+    @Override
+    public OutputSchedule findPath() {
+        getH();
+        // the graph tables are built once here, before the workers share them
+        getGraph().getRankTable();
+        getGraph().getIdenticalTaskTable();
+
+        _workers = new Worker[_numCores];
+        MemoryBudget memoryBudget = getMemoryBudget().split(_numCores);
+        for (int i = 0; i < _numCores; i++) {
+            _workers[i] = new Worker(i == 0 ? _pq : _pq.create(), memoryBudget);
+        }
+        _work = new AtomicLong(_numCores);
+        _incumbentTotal = Integer.MAX_VALUE;
+        _incumbent = null;
+        _stopped = false;
+        _memoryExceeded = false;
+        _failure = new AtomicReference<Throwable>();
+        _algoStats.setIterations(0);
+        _algoStats.setIsFinish(false);
+
+        for (INode node : getFreeNodes(new ScheduleState(_context))) {
+            ScheduleAStar newSchedule = new ScheduleAStar(
+                    new ScheduledTask(1,node, 0),
+                    _context
+            );
+            // note can't use drt here
+            newSchedule.addHeuristic(
+                    Collections.max(Arrays.asList(
+                            h(newSchedule),
+                            h1(newSchedule)
+                    )));
+            if (newSchedule.getSize() == _numNode) {
+                offerSolution(newSchedule);
+            } else {
+                _workers[getOwner(newSchedule)]._openList.add(newSchedule);
+            }
+        }
+
+        // the calling thread runs the first worker
+        ExecutorService threadPool = Executors.newFixedThreadPool(Math.max(1, _numCores - 1));
+        CountDownLatch latch = new CountDownLatch(_numCores - 1);
+        for (int i = 1; i < _numCores; i++) {
+            Worker worker = _workers[i];
+            threadPool.execute(() -> {
+                try {
+                    worker.run();
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        _workers[0].run();
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stop(e);
+        }
+        threadPool.shutdownNow();
+
+        _numExpanded = new int[_numCores];
+        for (int i = 0; i < _numCores; i++) {
+            _numExpanded[i] = _workers[i]._numExpanded;
+        }
+        _workers = null;
+        _pq.clear();
+
+        Throwable failure = _failure.get();
+        if (failure != null) {
+            _algoStats.setIsFinish(true);
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            throw new IllegalStateException("Parallel A* was stopped", failure);
+        }
+        if (_memoryExceeded) {
+            // the incumbent bounds the depth first search, which only looks for a shorter schedule
+            _upperBound = Math.min(_upperBound, _incumbentTotal);
+            OutputSchedule output = searchDepthFirst();
+            if (output != null || _incumbent == null) {
+                return output;
+            }
+        }
+        _algoStats.setIsFinish(true);
+        if (_incumbent == null) {
+            return null;
+        }
+        _algoStats.setSolution(new Solution(_incumbent, _numP));
+        return new Solution(_incumbent, _numP);
+    }
+
+    /**
+     * Estimate the bytes held in the open lists and the closed lists of all the workers,
+     * see {@link AStar#getEstimatedMemory()}
+     * @return estimated number of bytes
+     */
+    @Override
+    public long getEstimatedMemory() {
+        Worker[] workers = _workers;
+        if (workers == null) {
+            return 0;
+        }
+        long bytes = 0;
+        for (Worker worker : workers) {
+            bytes += worker.getEstimatedMemory();
+        }
+        return bytes;
+    }
+
+    /**
+     * @return number of schedules every worker expanded in the last search
+     */
+    int[] getNumExpanded() {
+        return _numExpanded;
+    }
+
+    /**
+     * @param schedule : schedule
+     * @return index of the worker that owns the state of the schedule
+     */
+    private int getOwner(ScheduleAStar schedule) {
+        long hash = schedule.getHash();
+        // the zobrist hash is already uniform, fold the high bits in so every bit counts
+        int folded = (int) (hash ^ (hash >>> 32));
+        return (folded & Integer.MAX_VALUE) % _numCores;
+    }
+
+    /**
+     * @param total : f value of a schedule
+     * @return True : if a schedule with this f value may still beat the incumbent
+     */
+    private boolean isPromising(int total) {
+        return total < _incumbentTotal && total <= _upperBound;
+    }
+
+    /**
+     * Keep a complete schedule as the incumbent if it is the shortest found so far
+     * @param schedule : complete schedule
+     */
+    private synchronized void offerSolution(ScheduleAStar schedule) {
+        int finishTime = schedule.getState().getOverallFinishTime();
+        if (finishTime < _incumbentTotal) {
+            _incumbent = schedule;
+            _incumbentTotal = finishTime;
+            _algoStats.setSolution(new Solution(schedule, _numP));
+        }
+    }
+
+    /**
+     * Stop every worker after one of them failed
+     * @param failure : exception of the worker, only the first one is kept
+     */
+    private void stop(Throwable failure) {
+        _failure.compareAndSet(null, failure);
+        _stopped = true;
+        wakeAll();
+    }
+
+    /**
+     * Unpark every waiting worker so it sees the search is over
+     */
+    private void wakeAll() {
+        for (Worker worker : _workers) {
+            LockSupport.unpark(worker._thread);
+        }
+    }
+
+    /**
+     * Search of the schedules owned by one thread
+     */
+    private class Worker {
+        private final OpenList _openList;
+        private final HashMap<Long, ArrayList<ScheduleAStar>> _visited;
+        private final ConcurrentLinkedQueue<List<ScheduleAStar>> _mailbox;
+        private final List<List<ScheduleAStar>> _outgoing;   // batch being filled for every worker
+        private final EquivalenceChecker _equivalenceChecker;
+        private final FixOrderChecker _fixOrderChecker;
+        private final MemoryBudget _memoryBudget;
+        private final long _scheduleBytes;
+        private volatile Thread _thread;
+        private int _sinceFlush;
+        private int _numExpanded;
+
+        Worker(OpenList openList, MemoryBudget memoryBudget) {
+            _openList = openList;
+            _visited = new HashMap<Long, ArrayList<ScheduleAStar>>();
+            _mailbox = new ConcurrentLinkedQueue<List<ScheduleAStar>>();
+            _outgoing = new ArrayList<List<ScheduleAStar>>(_numCores);
+            for (int i = 0; i < _numCores; i++) {
+                _outgoing.add(new ArrayList<ScheduleAStar>(BATCH_SIZE));
+            }
+            _equivalenceChecker = new EquivalenceChecker(getGraph(), _numP, HashDistributedAStar.this);
+            _fixOrderChecker = new FixOrderChecker(getGraph());
+            _memoryBudget = memoryBudget;
+            _scheduleBytes = MemoryBudget.scheduleBytes(_numNode, _numP);
+        }
+
+        /**
+         * Run the worker on the current thread, a failure stops the whole search
+         */
+        void run() {
+            _thread = Thread.currentThread();
+            try {
+                search();
+            } catch (Throwable e) {
+                stop(e);
+            }
+        }
+
+        /**
+         * Expand the schedules of the worker until the search is over
+         */
+        private void search() {
+            while (!_stopped) {
+                receive();
+                if (_memoryBudget.isExceeded(getEstimatedMemory())) {
+                    _memoryExceeded = true;
+                    _stopped = true;
+                    wakeAll();
+                    break;
+                }
+                ScheduleAStar cSchedule = _openList.poll();
+                if (cSchedule == null) {
+                    flush();
+                    if (!waitForWork()) {
+                        break;
+                    }
+                    continue;
+                }
+                if (!isPromising(cSchedule.getTotal()) || isClosedDuplicate(cSchedule)) {
+                    continue;
+                }
+                _algoStats.increment();
+                _numExpanded++;
+                expand(cSchedule);
+                if (++_sinceFlush >= FLUSH_INTERVAL) {
+                    flush();
+                }
+            }
+        }
+
+        /**
+         * Generate the children of a schedule and send each one to its owner
+         * @param cSchedule : schedule to expand
+         */
+        private void expand(ScheduleAStar cSchedule) {
+            int pidBound = Math.min(cSchedule.getMaxPid() + 1, _numP);
+            ArrayList<INode> freeNodes = getFreeNodes(cSchedule.getState());
+
+            List<INode> fixOrder = _fixOrderChecker.check(freeNodes, cSchedule)
+                    ? _fixOrderChecker.getFixOrder(freeNodes, cSchedule) : null;
+            if (fixOrder != null) {
+                // only the first task of a fixed order needs to be tried
+                freeNodes = new ArrayList<INode>(fixOrder.subList(0, 1));
+            }
+            for (INode node : freeNodes) {
+                for (int pid = 1; pid <= pidBound; pid++) {
+                    int start = calculateEarliestStartTime(cSchedule, pid, node);
+                    ScheduleAStar newSchedule = new ScheduleAStar(
+                            cSchedule,
+                            new ScheduledTask(pid, node, start));
+                    newSchedule.addHeuristic(getFullHeuristic(newSchedule));
+
+                    if (newSchedule.getSize() == _numNode) {
+                        offerSolution(newSchedule);
+                    } else if (isPromising(newSchedule.getTotal())
+                            && (fixOrder != null || !_equivalenceChecker.checkDuplicateBySwap(newSchedule))) {
+                        send(newSchedule);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Add a schedule to the batch of its owner, the batch is sent once full
+         * @param schedule : new schedule
+         */
+        private void send(ScheduleAStar schedule) {
+            int owner = getOwner(schedule);
+            List<ScheduleAStar> batch = _outgoing.get(owner);
+            batch.add(schedule);
+            if (batch.size() >= BATCH_SIZE) {
+                post(owner);
+            }
+        }
+
+        /**
+         * Send every batch that is not empty
+         */
+        private void flush() {
+            for (int i = 0; i < _numCores; i++) {
+                if (!_outgoing.get(i).isEmpty()) {
+                    post(i);
+                }
+            }
+            _sinceFlush = 0;
+        }
+
+        private void post(int owner) {
+            // counted before it can be received, so the work never drops to 0 with a batch on its way
+            _work.incrementAndGet();
+            Worker receiver = _workers[owner];
+            receiver._mailbox.add(_outgoing.get(owner));
+            LockSupport.unpark(receiver._thread);
+            _outgoing.set(owner, new ArrayList<ScheduleAStar>(BATCH_SIZE));
+        }
+
+        /**
+         * Move the received schedules into the open list
+         */
+        private void receive() {
+            List<ScheduleAStar> batch;
+            while ((batch = _mailbox.poll()) != null) {
+                for (ScheduleAStar schedule : batch) {
+                    if (isPromising(schedule.getTotal()) && !isVisitedDuplicate(schedule)) {
+                        _openList.add(schedule);
+                    }
+                }
+                _work.decrementAndGet();
+            }
+        }
+
+        /**
+         * Park until a batch arrives while the worker has nothing to expand. Senders unpark the
+         * worker, the wait is also bounded in case the worker was not parked yet.
+         * @return True : if a batch arrived, False : if the search is over
+         */
+        private boolean waitForWork() {
+            if (_work.decrementAndGet() == 0) {
+                // last active worker and no batch on its way
+                wakeAll();
+                return false;
+            }
+            while (!_stopped) {
+                if (!_mailbox.isEmpty()) {
+                    // the batch is still counted, so the work is not 0 yet
+                    _work.incrementAndGet();
+                    return true;
+                }
+                if (_work.get() == 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+            return false;
+        }
+
+        /**
+         * @param schedule : received schedule
+         * @return True : if a closed duplicate makes the schedule irrelevant
+         */
+        private boolean isVisitedDuplicate(ScheduleAStar schedule) {
+            if (_openList.detectsDuplicates()) {
+                return false;
+            }
+            ArrayList<ScheduleAStar> listVisitedForSize = _visited.get(schedule.getHash());
+            return listVisitedForSize != null && isIrrelevantDuplicate(listVisitedForSize, schedule);
+        }
+
+        /**
+         * Close a polled schedule, see {@link AStar#findPath()}
+         * @param cSchedule : polled schedule
+         * @return True : if a closed duplicate makes the schedule irrelevant
+         */
+        private boolean isClosedDuplicate(ScheduleAStar cSchedule) {
+            if (_openList.detectsDuplicates()) {
+                return false;
+            }
+            ArrayList<ScheduleAStar> listVisitedForSize = _visited.get(cSchedule.getHash());
+            if (listVisitedForSize != null && isIrrelevantDuplicate(listVisitedForSize, cSchedule)) {
+                return true;
+            }
+            if (listVisitedForSize == null) {
+                listVisitedForSize = new ArrayList<ScheduleAStar>();
+                _visited.put(cSchedule.getHash(), listVisitedForSize);
+            }
+            listVisitedForSize.add(cSchedule);
+            return false;
+        }
+
+        long getEstimatedMemory() {
+            return _openList.size() * (MemoryBudget.REFERENCE + _scheduleBytes)
+                    + ((long) _visited.size() + _openList.getNumClosed())
+                    * (MemoryBudget.TABLE_ENTRY + MemoryBudget.REFERENCE + _scheduleBytes);
+        }
+    }
+}
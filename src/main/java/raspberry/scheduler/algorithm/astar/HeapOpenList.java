@@ -0,0 +1,42 @@
+package raspberry.scheduler.algorithm.astar;
+
+import java.util.PriorityQueue;
+
+/**
+ * Open list on a binary heap, {@link java.util.PriorityQueue} ordered by
+ * {@link ScheduleAStar#compareTo(ScheduleAStar)}. Ties come out in no particular order.
+ * @author Takahiro
+ */
+public class HeapOpenList implements OpenList {
+    private final PriorityQueue<ScheduleAStar> _pq = new PriorityQueue<ScheduleAStar>();
+
+    @Override
+    public void add(ScheduleAStar schedule) {
+        _pq.add(schedule);
+    }
+
+    @Override
+    public ScheduleAStar poll() {
+        return _pq.poll();
+    }
+
+    @Override
+    public int size() {
+        return _pq.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return _pq.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        _pq.clear();
+    }
+
+    @Override
+    public OpenList create() {
+        return new HeapOpenList();
+    }
+}
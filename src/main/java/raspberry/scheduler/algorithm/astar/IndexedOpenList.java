@@ -0,0 +1,252 @@
+package raspberry.scheduler.algorithm.astar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Open list and closed list in one: every distinct state, up to the numbering of the processors,
+ * has a single entry in a table keyed by the state hash. An entry is open while it is in the heap
+ * and closed once polled, the schedule is never copied from one list to the other.
+ *
+ * Adding a duplicate of an entry with an f value no larger drops it. A duplicate with a smaller
+ * f value takes over the entry: an open entry is moved up the heap (decrease key) and a closed
+ * entry is reopened. So the heap never holds two copies of the same state.
+ *
+ * Schedules of the same f value are polled deepest first.
+ * @author Takahiro
+ */
+public class IndexedOpenList implements OpenList {
+    private static final int CLOSED = -1;
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private HashMap<Long, ArrayList<Entry>> _table;
+    private Entry[] _heap;
+    private int _size;
+    private int _numClosed;
+
+    // debug and optimization
+    private int _numDuplicates = 0;  // added schedules dropped
+    private int _numDecreased = 0;   // open entries that got a smaller f value
+    private int _numReopened = 0;    // closed entries that got a smaller f value
+
+    /**
+     * Class constructor
+     */
+    public IndexedOpenList() {
+        clear();
+    }
+
+    @Override
+    public void add(ScheduleAStar schedule) {
+        int f = schedule.getTotal();
+        ArrayList<Entry> entries = _table.get(schedule.getHash());
+        if (entries == null) {
+            entries = new ArrayList<Entry>(1);
+            _table.put(schedule.getHash(), entries);
+        } else {
+            for (Entry entry : entries) {
+                if (!entry._schedule.getState().isDuplicate(schedule.getState())) {
+                    continue;
+                }
+                // a partially expanded schedule still opens every child of the state, from its base total
+                if (entry._schedule.getBaseTotal() <= f) {
+                    _numDuplicates++;
+                    return;
+                }
+                entry._schedule = schedule;
+                entry._f = f;
+                if (entry._index == CLOSED) {
+                    _numClosed--;
+                    _numReopened++;
+                    push(entry);
+                } else {
+                    _numDecreased++;
+                    siftUp(entry._index, entry);
+                }
+                return;
+            }
+        }
+        Entry entry = new Entry(schedule, f);
+        entries.add(entry);
+        push(entry);
+    }
+
+    /**
+     * Reopens the entry of a polled schedule with its new f value. Adding it again would drop it,
+     * its closed entry still has the old smaller f value.
+     * @param schedule schedule with its new heuristic
+     */
+    @Override
+    public void requeue(ScheduleAStar schedule) {
+        ArrayList<Entry> entries = _table.get(schedule.getHash());
+        if (entries != null) {
+            for (Entry entry : entries) {
+                if (entry._schedule == schedule && entry._index == CLOSED) {
+                    entry._f = schedule.getTotal();
+                    _numClosed--;
+                    push(entry);
+                    return;
+                }
+            }
+        }
+        add(schedule);
+    }
+
+    /**
+     * Retrieves and removes a schedule with the smallest f value, which becomes closed
+     * @return schedule, null if there is no open schedule
+     */
+    @Override
+    public ScheduleAStar poll() {
+        if (_size == 0) {
+            return null;
+        }
+        Entry first = _heap[0];
+        Entry last = _heap[--_size];
+        _heap[_size] = null;
+        if (_size > 0) {
+            siftDown(0, last);
+        }
+        first._index = CLOSED;
+        _numClosed++;
+        return first._schedule;
+    }
+
+    /**
+     * @return number of open schedules
+     */
+    @Override
+    public int size() {
+        return _size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return _size == 0;
+    }
+
+    /**
+     * Removes every open and closed schedule
+     */
+    @Override
+    public void clear() {
+        _table = new HashMap<Long, ArrayList<Entry>>();
+        _heap = new Entry[INITIAL_CAPACITY];
+        _size = 0;
+        _numClosed = 0;
+    }
+
+    @Override
+    public OpenList create() {
+        return new IndexedOpenList();
+    }
+
+    @Override
+    public boolean detectsDuplicates() {
+        return true;
+    }
+
+    @Override
+    public int getNumClosed() {
+        return _numClosed;
+    }
+
+    /**
+     * @return number of added schedules dropped as duplicates
+     */
+    public int getNumDuplicates() {
+        return _numDuplicates;
+    }
+
+    /**
+     * @return number of times an open schedule was replaced by a duplicate with a smaller f value
+     */
+    public int getNumDecreased() {
+        return _numDecreased;
+    }
+
+    /**
+     * @return number of times a closed schedule was reopened by a duplicate with a smaller f value
+     */
+    public int getNumReopened() {
+        return _numReopened;
+    }
+
+    /* ------------------------------
+     *  Binary heap of the open entries
+     *
+     * ------------------------------
+     */
+
+    private void push(Entry entry) {
+        if (_size == _heap.length) {
+            _heap = Arrays.copyOf(_heap, _size * 2);
+        }
+        siftUp(_size++, entry);
+    }
+
+    /**
+     * Move an entry up from a position until its parent comes before it
+     */
+    private void siftUp(int i, Entry entry) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!isBefore(entry, _heap[parent])) {
+                break;
+            }
+            place(i, _heap[parent]);
+            i = parent;
+        }
+        place(i, entry);
+    }
+
+    /**
+     * Move an entry down from a position until its children come after it
+     */
+    private void siftDown(int i, Entry entry) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= _size) {
+                break;
+            }
+            if (child + 1 < _size && isBefore(_heap[child + 1], _heap[child])) {
+                child++;
+            }
+            if (!isBefore(_heap[child], entry)) {
+                break;
+            }
+            place(i, _heap[child]);
+            i = child;
+        }
+        place(i, entry);
+    }
+
+    private void place(int i, Entry entry) {
+        _heap[i] = entry;
+        entry._index = i;
+    }
+
+    /**
+     * Order of the heap: smaller f value first, and on ties the deeper schedule
+     */
+    private static boolean isBefore(Entry entry1, Entry entry2) {
+        return entry1._f < entry2._f
+                || (entry1._f == entry2._f && entry1._schedule.getSize() > entry2._schedule.getSize());
+    }
+
+    /**
+     * Distinct state: its best schedule so far, the f value of that schedule and its position
+     * in the heap, {@link #CLOSED} once polled
+     */
+    private static class Entry {
+        private ScheduleAStar _schedule;
+        private int _f;
+        private int _index;
+
+        Entry(ScheduleAStar schedule, int f) {
+            _schedule = schedule;
+            _f = f;
+        }
+    }
+}
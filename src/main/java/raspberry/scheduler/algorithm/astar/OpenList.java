@@ -0,0 +1,67 @@
+package raspberry.scheduler.algorithm.astar;
+
+/**
+ * Open list of an A star search: the schedules waiting to be expanded, polled smallest f value
+ * (total) first. Schedules with the same f value come out in an order set by the implementation.
+ * @author Takahiro
+ */
+public interface OpenList {
+
+    /**
+     * Inserts a schedule
+     * @param schedule schedule with its heuristic added
+     */
+    void add(ScheduleAStar schedule);
+
+    /**
+     * Retrieves and removes a schedule with the smallest f value
+     * @return schedule, null if the open list is empty
+     */
+    ScheduleAStar poll();
+
+    /**
+     * @return number of schedules
+     */
+    int size();
+
+    /**
+     * @return true if there is no schedule
+     */
+    boolean isEmpty();
+
+    /**
+     * Removes every schedule
+     */
+    void clear();
+
+    /**
+     * Creates an empty open list of the same kind, polling schedules in the same order
+     * @return new open list
+     */
+    OpenList create();
+
+    /**
+     * Inserts a polled schedule again after its f value rose
+     * @param schedule schedule with its new heuristic
+     */
+    default void requeue(ScheduleAStar schedule) {
+        add(schedule);
+    }
+
+    /**
+     * Open lists that detect duplicates keep the polled schedules as closed, and drop added
+     * schedules that duplicate an open or closed one with no larger f value. The search then
+     * needs no closed list of its own.
+     * @return true if the open list detects duplicates
+     */
+    default boolean detectsDuplicates() {
+        return false;
+    }
+
+    /**
+     * @return number of closed schedules kept, 0 if the open list does not detect duplicates
+     */
+    default int getNumClosed() {
+        return 0;
+    }
+}
@@ -5,6 +5,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 import raspberry.scheduler.algorithm.common.Schedule;
+import raspberry.scheduler.algorithm.common.ScheduleContext;
+import raspberry.scheduler.algorithm.common.ScheduleState;
 import raspberry.scheduler.algorithm.common.ScheduledTask;
 import raspberry.scheduler.algorithm.util.TableGenerator;
 import raspberry.scheduler.graph.INode;
@@ -20,29 +22,21 @@ public class ScheduleAStar extends Schedule implements Comparable<ScheduleAStar>
 
     private int _h; // h: Heuristic weight
     private int _total; // t: Total weight
+    private boolean _heuristicDeferred; // h is only a cheap lower bound, the full heuristic is not computed yet
+    private boolean _partiallyExpanded; // some children are opened, the total is the f value of the next ones
 
-
-    private Hashtable<String, List<Integer>> _scheduling; // partial schedule.
-    private Hashtable<Integer, String> _lastForEachProcessor; //the last task schedule, for each processor.
     private int _maxPid; //The largest pid currently used to schedule
-    public Hashtable<INode, Integer> _inDegreeTable;
 
     /**
      * Constructor for ScheduleAstar.
      * @param scheduledTask : scheduledtask
-     * @param inDegreeTable : Indegree table ( Represents node and number of parent still not scheduled )
+     * @param context : data shared by every schedule of the search
      */
-    public ScheduleAStar(ScheduledTask scheduledTask, Hashtable<INode, Integer> inDegreeTable) {
-        super(scheduledTask);
-        _inDegreeTable = inDegreeTable;
+    public ScheduleAStar(ScheduledTask scheduledTask, ScheduleContext context) {
+        super(scheduledTask, new ScheduleState(context).schedule(scheduledTask));
         _h = 0;
         _total = super.getScheduledTask().getFinishTime() + _h;
-        _scheduling = new Hashtable<String, List<Integer>>();
-        _lastForEachProcessor = new Hashtable<Integer, String>();
         _maxPid = scheduledTask.getProcessorID();
-        _scheduling.put(scheduledTask.getTask().getName(), Arrays.asList(scheduledTask.getProcessorID(),
-                scheduledTask.getStartTime()));
-        _lastForEachProcessor.put(scheduledTask.getProcessorID(), scheduledTask.getTask().getName());
     }
 
     /**
@@ -54,47 +48,25 @@ public class ScheduleAStar extends Schedule implements Comparable<ScheduleAStar>
      * @param processorId    : id of a processor a node is being scheduled
      * @deprecated
      */
-    public ScheduleAStar(int startTime, ScheduleAStar parentSchedule, INode node, int processorId, Hashtable<INode, Integer> inDegreeTable) {
-        super(parentSchedule, new ScheduledTask(processorId, node, startTime));
-        _h = 0;
-        _total = super.getScheduledTask().getFinishTime() + _h;
-        _inDegreeTable = inDegreeTable;
-
-        if (processorId > super.getParent().getMaxPid()) {
-            _maxPid = processorId;
-        } else {
-            _maxPid = super.getParent().getMaxPid();
-        }
-
-        _scheduling = (Hashtable<String, List<Integer>>) ((ScheduleAStar) super.getParent()).getScheduling().clone();
-        _lastForEachProcessor = (Hashtable<Integer, String>) ((ScheduleAStar) super.getParent()).getLastForEachProcessor().clone();
-
-        _scheduling.put(node.getName(), Arrays.asList(processorId, startTime));
-        _lastForEachProcessor.put(processorId, node.getName());
+    public ScheduleAStar(int startTime, ScheduleAStar parentSchedule, INode node, int processorId) {
+        this(parentSchedule, new ScheduledTask(processorId, node, startTime));
     }
 
     /**
      * Constructor for partial schedule
      * @param parentSchedule
      * @param scheduledTask
-     * @param inDegreeTable
      */
-    public ScheduleAStar(ScheduleAStar parentSchedule, ScheduledTask scheduledTask, Hashtable<INode, Integer> inDegreeTable) {
-        super(parentSchedule, scheduledTask);
+    public ScheduleAStar(ScheduleAStar parentSchedule, ScheduledTask scheduledTask) {
+        super(parentSchedule, scheduledTask, parentSchedule.getState().schedule(scheduledTask));
         _h = 0;
         _total = super.getScheduledTask().getFinishTime() + _h;
-        _inDegreeTable = inDegreeTable;
 
         if (scheduledTask.getProcessorID() > super.getParent().getMaxPid()) {
             _maxPid = scheduledTask.getProcessorID();
         } else {
             _maxPid = super.getParent().getMaxPid();
         }
-        _scheduling = (Hashtable<String, List<Integer>>) ((ScheduleAStar) super.getParent()).getScheduling().clone();
-        _lastForEachProcessor = (Hashtable<Integer, String>) ((ScheduleAStar) super.getParent()).getLastForEachProcessor().clone();
-
-        _scheduling.put(scheduledTask.getTask().getName(), Arrays.asList(scheduledTask.getProcessorID(), scheduledTask.getStartTime()));
-        _lastForEachProcessor.put(scheduledTask.getProcessorID(), scheduledTask.getTask().getName());
     }
 
 
@@ -108,6 +80,43 @@ public class ScheduleAStar extends Schedule implements Comparable<ScheduleAStar>
     public void addHeuristic(int h) {
         _h = h;
         _total = super.getScheduledTask().getFinishTime() + _h;
+        _heuristicDeferred = false;
+    }
+
+    /**
+     * Adds a cheap lower bound of the heuristic, the full heuristic is computed later
+     * with {@link #addHeuristic(int)}
+     *
+     * @param h : lower bound of the heuristic cost
+     */
+    public void deferHeuristic(int h) {
+        addHeuristic(h);
+        _heuristicDeferred = true;
+    }
+
+    /**
+     * @return True : if the heuristic is only a cheap lower bound so far
+     */
+    public boolean isHeuristicDeferred() {
+        return _heuristicDeferred;
+    }
+
+    /**
+     * Marks the schedule as partially expanded, it is back in the open list for its remaining children
+     * with a total raised to the f value of the next ones. The heuristic is kept.
+     *
+     * @param total : smallest f value of the children left out
+     */
+    public void setPartiallyExpanded(int total) {
+        _total = total;
+        _partiallyExpanded = true;
+    }
+
+    /**
+     * @return True : if some children of the schedule are already opened
+     */
+    public boolean isPartiallyExpanded() {
+        return _partiallyExpanded;
     }
 
     /**
@@ -134,64 +143,7 @@ public class ScheduleAStar extends Schedule implements Comparable<ScheduleAStar>
 
     /**
      * Check if two Schedule instance is the same. (this is for detecting duplicate scheduling)
-     *
-     * @param otherSchedule : the other schedule instance we are comparing to.
-     * @return Boolean : True : if its the same.
-     * False: if its different.
-     */
-    public boolean equals2(Object otherSchedule) {
-        if (otherSchedule == this) {
-            return true;
-        } else if (!(otherSchedule instanceof ScheduleAStar)) {
-            return false;
-        } else {
-            ScheduleAStar schedule = (ScheduleAStar) otherSchedule;
-            if (this.getSize() != schedule.getSize()) {
-                return false;
-            } else if (this.getMaxPid() != schedule.getMaxPid()) {
-                return false;
-            } else {
-                // Group by pid. Compare match
-                Hashtable<String, List<Integer>> scheduling2 = schedule.getScheduling();
-
-                Hashtable<Integer, Hashtable<String, Integer>> hash4scheduling = new Hashtable<Integer, Hashtable<String, Integer>>();
-                Hashtable<Integer, Hashtable<String, Integer>> hash4scheduling2 = new Hashtable<Integer, Hashtable<String, Integer>>();
-
-                for (String s : _scheduling.keySet()) {
-                    Hashtable<String, Integer> tmp = hash4scheduling.get(_scheduling.get(s).get(0)); //get(0) gets pid
-                    if (tmp == null) {
-                        tmp = new Hashtable<String, Integer>();
-                    }
-                    tmp.put(s, _scheduling.get(s).get(1));
-                    hash4scheduling.put(_scheduling.get(s).get(0), tmp);
-                }
-                for (String s : scheduling2.keySet()) {
-                    Hashtable<String, Integer> tmp = hash4scheduling2.get(scheduling2.get(s).get(0)); //get(0) gets pid
-                    if (tmp == null) {
-                        tmp = new Hashtable<String, Integer>();
-                    }
-                    tmp.put(s, scheduling2.get(s).get(1));
-                    hash4scheduling2.put(scheduling2.get(s).get(0), tmp);
-                }
-                for (Hashtable<String, Integer> i : hash4scheduling.values()) {
-                    Boolean foundMatch = false;
-                    for (Hashtable<String, Integer> j : hash4scheduling2.values()) {
-                        if (i.equals(j)) {
-                            foundMatch = true;
-                            break;
-                        }
-                    }
-                    if (!foundMatch) {
-                        return false;
-                    }
-                }
-            }
-            return true;
-        }
-    }
-
-    /**
-     * Check if two Schedule instance is the same. (this is for detecting duplicate scheduling)
+     * Same tasks at the same start times, grouped onto the processors the same way.
      *
      * @param otherSchedule : Schedule we are comparing against.
      * @return true if its the same. false if it is not the same schedule.
@@ -208,22 +160,7 @@ public class ScheduleAStar extends Schedule implements Comparable<ScheduleAStar>
             } else if (this.getMaxPid() != schedule.getMaxPid()) {
                 return false;
             } else {
-                Set<List<Integer>> hash4scheduling = new HashSet<List<Integer>>();
-                Set<List<Integer>> hash4scheduling2 = new HashSet<List<Integer>>();
-
-                ArrayList<ScheduledTask> scheduledTasks = new ArrayList<ScheduledTask>();
-                this.forEach(cSchedule -> scheduledTasks.add(cSchedule.getScheduledTask()));
-
-                ArrayList<ScheduledTask> scheduledTasks2 = new ArrayList<ScheduledTask>();
-                schedule.forEach(cSchedule -> scheduledTasks2.add(cSchedule.getScheduledTask()));
-
-                for (ScheduledTask task : scheduledTasks) {
-                    hash4scheduling.add(Arrays.asList(task.getName().hashCode(), task.getStartTime()));
-                }
-                for (ScheduledTask task : scheduledTasks2) {
-                    hash4scheduling2.add(Arrays.asList(task.getName().hashCode(), task.getStartTime()));
-                }
-                return hash4scheduling.equals(hash4scheduling2);
+                return getState().isDuplicate(schedule.getState());
             }
         }
     }
@@ -235,19 +172,12 @@ public class ScheduleAStar extends Schedule implements Comparable<ScheduleAStar>
      * v1 : perfect hash function that gurantees almost no collision & it is calculated using all variable contained in this class.
      * v2 : hash function that produce some what unique hash value depending on the "scheduling" hashtable.
      * )
-     * This function is v2.
+     * This function is v2. It is kept up to date as tasks are scheduled, so it costs nothing to get.
      *
-     * @return int : representing the hash value of "scheduling" hashtable.
+     * @return long : representing the hash value of the start times of the scheduled tasks.
      */
-    public int getHash() {
-        final int prime = 17;
-        int value = 0;
-        for (String i : _scheduling.keySet()) {
-            value = prime * value + (_scheduling.get(i).get(1));
-            value = prime * value + (i.hashCode());
-        }
-        value = prime * value + (super.getSize());
-        return value;
+    public long getHash() {
+        return getState().getHash();
     }
 
     /*
@@ -262,6 +192,15 @@ public class ScheduleAStar extends Schedule implements Comparable<ScheduleAStar>
         return _h;
     }
 
+    /**
+     * get the finish time plus the heuristic, the total before a partial expansion raised it
+     *
+     * @return base total weight
+     */
+    public int getBaseTotal() {
+        return super.getScheduledTask().getFinishTime() + _h;
+    }
+
     /**
      * get Total weight
      *
@@ -322,25 +261,6 @@ public class ScheduleAStar extends Schedule implements Comparable<ScheduleAStar>
     }
 
 
-    /**
-     * get _scheduling the partial schedule
-     *
-     * @return _scheduling the partial schedule
-     */
-    public Hashtable<String, List<Integer>> getScheduling() {
-        return _scheduling;
-    }
-
-
-    /**
-     * lastForEachProcessor the last task schedule, for each processor.
-     *
-     * @return _lastForEachProcessor the last task schedule, for each processor.
-     */
-    public Hashtable<Integer, String> getLastForEachProcessor() {
-        return _lastForEachProcessor;
-    }
-
     /**
      * get max pid The largest pid currently used to schedule
      *
@@ -358,14 +278,6 @@ public class ScheduleAStar extends Schedule implements Comparable<ScheduleAStar>
         return super.getSize();
     }
 
-    public Hashtable<INode, Integer> getInDegreeTable(){
-        return _inDegreeTable;
-    }
-
-    public int getTaskStartTime(String taskName) {
-        return _scheduling.get(taskName).get(1);
-    }
-
 
     /**
      * Display the name and the path of the current mbSchedule
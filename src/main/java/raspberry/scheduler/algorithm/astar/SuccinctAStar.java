@@ -0,0 +1,539 @@
+package raspberry.scheduler.algorithm.astar;
+
+import raspberry.scheduler.algorithm.Algorithm;
+import raspberry.scheduler.algorithm.bnb.InPlaceBNB;
+import raspberry.scheduler.algorithm.common.*;
+import raspberry.scheduler.app.visualisation.model.AlgoStats;
+import raspberry.scheduler.graph.IGraph;
+import raspberry.scheduler.graph.util.IdenticalTaskTable;
+import raspberry.scheduler.graph.util.RankTable;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of A star algorithm that stores every state succinctly: the id of its parent
+ * state and one packed long holding the task it schedules, its processor, its start time and
+ * the f value of the state. The open list is a heap of state ids and the closed list a table
+ * of hash and state id, so a stored state costs a few bytes instead of a whole
+ * {@link ScheduleAStar}. The schedule of a state is rebuilt when it is expanded, by replaying
+ * its chain on a {@link MutableScheduleState} from the deepest state it shares with the
+ * previously expanded one.
+ * Searches and prunes the same way as {@link AStar}. When the stored states reach the memory
+ * budget, the states that are neither open nor the ancestor of an open state are dropped, and if
+ * that frees too little the search carries on depth first.
+ *
+ * @author Takahiro
+ */
+public class SuccinctAStar extends Algorithm {
+
+    // bits of a packed move, from the lowest: task, processor, start time, and the f value in the rest
+    private static final int TASK_BITS = 12;
+    private static final int PID_BITS = 8;
+    private static final int TIME_BITS = 22;
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private IGraph _graph;
+    int _numP;
+    int _numNode;
+    int _upperBound;
+    ScheduleContext _context;
+    private AlgoStats _algoStats;
+    private EquivalenceChecker _equivalenceChecker;
+    private FixOrderChecker _fixOrderChecker;
+    private IdenticalTaskTable _identicalTasks;
+    private RankTable _ranks;
+    private int[] _heuristics;
+
+    // stored states by id: parent id and packed move
+    private int[] _parents;
+    private long[] _moves;
+    private int _numStates;
+
+    // open list, binary heap of state ids with the smallest f value first
+    private int[] _open;
+    private int _openSize;
+
+    // closed list, open addressing table of hash and state id, states with the same hash take several slots
+    private long[] _closedHashes;
+    private int[] _closedStates;
+    private int _numClosed;
+
+    // schedule of the state being expanded, and the id of its state at every depth
+    private MutableScheduleState _state;
+    private int[] _path;
+    // scratch space: chain of a state, free tasks, and the schedule of a closed state
+    private int[] _chain;
+    private int[] _candidates;
+    private int[] _otherStartTimes;
+    private int[] _otherProcessors;
+    private MemoryBudget _memoryBudget;
+
+    /**
+     * Constructor for succinct A*
+     *
+     * @param graphToSolve  : graph to solve (graph represents the task and dependencies)
+     * @param numProcessors : number of processor we can use to schedule tasks.
+     * @param upperBound    : states with a larger f value are not stored
+     * @throws IllegalArgumentException if the graph does not fit in the packed moves
+     */
+    public SuccinctAStar(IGraph graphToSolve, int numProcessors, int upperBound) {
+        super(graphToSolve);
+        _graph = graphToSolve;
+        _numP = getProcessorBound(graphToSolve, numProcessors);
+        _numNode = _graph.getNumNodes();
+        _algoStats = AlgoStats.getInstance();
+        _upperBound = upperBound;
+        _context = new ScheduleContext(_graph, _numP);
+        _equivalenceChecker = new EquivalenceChecker(_graph, _numP, this);
+        _fixOrderChecker = new FixOrderChecker(_graph);
+        _identicalTasks = _graph.getIdenticalTaskTable();
+
+        // no start time or f value is more than twice the length of the longest possible schedule
+        long length = _context.getTotalWork();
+        for (int i = 0; i < _numNode; i++) {
+            for (int cost : _context.getChildCosts(i)) {
+                length += cost;
+            }
+        }
+        if (_numNode > 1 << TASK_BITS || _numP >= 1 << PID_BITS || 2 * length >= 1 << TIME_BITS) {
+            throw new IllegalArgumentException("Graph is too large for the succinct A* encoding");
+        }
+    }
+
+    /**
+     * Compute the optimal scheduling
+     * @return OutputSchedule : the optimal path/scheduling.
+     */
+    @Override
+    public OutputSchedule findPath() {
+        getH();
+        _heuristics = new int[_numNode];
+        for (int i = 0; i < _numNode; i++) {
+            _heuristics[i] = getHeuristicTable().get(_context.getNode(i).getName());
+        }
+        _ranks = _graph.getRankTable();
+
+        _parents = new int[INITIAL_CAPACITY];
+        _moves = new long[INITIAL_CAPACITY];
+        _numStates = 0;
+        _open = new int[INITIAL_CAPACITY];
+        _openSize = 0;
+        _closedHashes = new long[INITIAL_CAPACITY];
+        _closedStates = new int[INITIAL_CAPACITY];
+        Arrays.fill(_closedStates, NONE);
+        _numClosed = 0;
+        _state = new MutableScheduleState(_context);
+        _path = new int[_numNode];
+        _chain = new int[_numNode];
+        _candidates = new int[_numNode];
+        _otherStartTimes = new int[_numNode];
+        _otherProcessors = new int[_numNode];
+        _memoryBudget = getMemoryBudget();
+
+        int numCandidates = getFreeTasks(_candidates);
+        for (int i = 0; i < numCandidates; i++) {
+            _state.place(_candidates[i], 1, 0);
+            // note can't use drt here
+            int f = computeF(false);
+            if (f <= _upperBound) {
+                addState(NONE, _candidates[i], 1, 0, f);
+            }
+            _state.undo();
+        }
+
+        _algoStats.setIterations(0);
+        _algoStats.setIsFinish(false);
+        int cState;
+        while (true) {
+            if (_memoryBudget.isExceeded(getEstimatedMemory())) {
+                compact();
+                // carry on depth first rather than compacting again and again
+                if (_memoryBudget.isExceeded(2 * getEstimatedMemory())) {
+                    return searchDepthFirst();
+                }
+            }
+            _algoStats.increment();
+            if (_openSize == 0) {
+                return null;
+            }
+
+            cState = poll();
+            moveTo(cState);
+            if (isIrrelevantDuplicate(getF(cState))) {
+                continue;
+            }
+            addClosed(cState);
+
+            // Return if all task is scheduled
+            if (_state.getSize() == _numNode) {
+                break;
+            }
+            expand(cState);
+        }
+
+        _algoStats.setIsFinish(true);
+        Solution solution = new Solution(getSchedule(), _numP);
+        _algoStats.setSolution(solution);
+        return solution;
+    }
+
+    /**
+     * Estimate the bytes held in the stored states, the open list and the closed list, from the
+     * length of their arrays
+     * @return estimated number of bytes
+     */
+    @Override
+    public long getEstimatedMemory() {
+        if (_moves == null) {
+            return 0;
+        }
+        return MemoryBudget.intArray(_parents.length) + MemoryBudget.longArray(_moves.length)
+                + MemoryBudget.intArray(_open.length)
+                + MemoryBudget.longArray(_closedHashes.length) + MemoryBudget.intArray(_closedStates.length);
+    }
+
+    /**
+     * Drop the stored states and find the optimal schedule with {@link InPlaceBNB} under the
+     * same upper bound, see {@link AStar#searchDepthFirst()}
+     * @return OutputSchedule : the optimal path/scheduling, null if there is none within the upper bound
+     */
+    private OutputSchedule searchDepthFirst() {
+        _parents = null;
+        _moves = null;
+        _open = null;
+        _closedHashes = null;
+        _closedStates = null;
+        InPlaceBNB bnb = new InPlaceBNB(_graph, _numP, _upperBound);
+        bnb.setMemoryBudget(_memoryBudget);
+        return bnb.findPath();
+    }
+
+    /**
+     * Store every child of the current schedule that is not pruned
+     * @param cState id of the current schedule
+     */
+    private void expand(int cState) {
+        int numCandidates = getFreeTasks(_candidates);
+        boolean fixedOrder = _fixOrderChecker.check(_candidates, numCandidates, _state)
+                && _fixOrderChecker.sortFixOrder(_candidates, numCandidates, _state);
+        if (fixedOrder) {
+            // only the first task of a fixed order needs to be tried
+            numCandidates = Math.min(numCandidates, 1);
+        }
+        int pidBound = Math.min(_state.getMaxPid() + 1, _numP);
+
+        for (int i = 0; i < numCandidates; i++) {
+            int task = _candidates[i];
+            for (int pid = 1; pid <= pidBound; pid++) {
+                int start = _context.getEarliestStartTime(_state, pid, task);
+                _state.place(task, pid, start);
+                int f = computeF(true);
+                if (f <= _upperBound && !isIrrelevantDuplicate(f)
+                        && (fixedOrder || !_equivalenceChecker.checkDuplicateBySwap(_state))) {
+                    addState(cState, task, pid, start, f);
+                }
+                _state.undo();
+            }
+        }
+    }
+
+    /**
+     * Get the tasks that can be scheduled next, see {@link #getFreeNodes(ScheduleState)}
+     * @param buffer buffer to write the topological indices of the tasks to
+     * @return number of tasks
+     */
+    private int getFreeTasks(int[] buffer) {
+        int numTasks = 0;
+        for (int i = 0; i < _state.getNumReady(); i++) {
+            int index = _state.getReadyTask(i);
+            int previous = _identicalTasks.getPrevious(index);
+            if (previous == IdenticalTaskTable.NONE || _state.isScheduled(previous)) {
+                buffer[numTasks++] = index;
+            }
+        }
+        return numTasks;
+    }
+
+    /**
+     * Compute the f value of the current schedule: the finish time of its last task plus the
+     * largest of the heuristics of {@link AStar}
+     * @param dataReadyTime True : if the data ready time heuristic is used
+     * @return f value
+     */
+    private int computeF(boolean dataReadyTime) {
+        int f = _state.getFinishTime(_state.getLastPlacedTask());
+
+        // critical path from the last task of every processor
+        int sum = 0;
+        for (int pid = 1; pid <= _numP; pid++) {
+            int last = _state.getLastTask(pid);
+            if (last != ScheduleState.UNSCHEDULED) {
+                f = Math.max(f, _heuristics[last] + _state.getFinishTime(last));
+            }
+            sum += _state.getProcessorFinishTime(pid);
+        }
+
+        // remaining work evenly spread over the processors
+        f = Math.max(f, (sum + _state.getRemainingWork()) / _numP);
+
+        // earliest start of every free task plus its critical path
+        if (dataReadyTime) {
+            for (int i = 0; i < _state.getNumReady(); i++) {
+                int index = _state.getReadyTask(i);
+                int minStartTime = Integer.MAX_VALUE;
+                for (int pid = 1; pid <= _numP; pid++) {
+                    minStartTime = Math.min(minStartTime, _context.getEarliestStartTime(_state, pid, index));
+                }
+                f = Math.max(f, minStartTime + _ranks.getStaticLevel(index));
+            }
+        }
+        return f;
+    }
+
+    /**
+     * Find out if a closed schedule is the same as the current one with an f value no larger,
+     * see {@link AStar#isIrrelevantDuplicate(java.util.ArrayList, ScheduleAStar)}
+     * @param f f value of the current schedule
+     * @return True : if the current schedule does not need to be opened
+     */
+    private boolean isIrrelevantDuplicate(int f) {
+        long hash = _state.getHash();
+        int mask = _closedStates.length - 1;
+        for (int slot = getSlot(hash, mask); _closedStates[slot] != NONE; slot = (slot + 1) & mask) {
+            if (_closedHashes[slot] != hash) {
+                continue;
+            }
+            int other = _closedStates[slot];
+            Arrays.fill(_otherProcessors, ScheduleState.UNSCHEDULED);
+            for (int s = other; s != NONE; s = _parents[s]) {
+                _otherProcessors[getTask(s)] = getPid(s);
+                _otherStartTimes[getTask(s)] = getStartTime(s);
+            }
+            if (_state.isDuplicate(_otherStartTimes, _otherProcessors)) {
+                return getF(other) <= f;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add a state to the closed list, the current schedule must be its schedule
+     * @param state id of the state
+     */
+    private void addClosed(int state) {
+        if (2 * (_numClosed + 1) > _closedStates.length) {
+            long[] hashes = _closedHashes;
+            int[] states = _closedStates;
+            _closedHashes = new long[hashes.length * 2];
+            _closedStates = new int[states.length * 2];
+            Arrays.fill(_closedStates, NONE);
+            for (int i = 0; i < states.length; i++) {
+                if (states[i] != NONE) {
+                    putClosed(hashes[i], states[i]);
+                }
+            }
+        }
+        putClosed(_state.getHash(), state);
+        _numClosed++;
+    }
+
+    /**
+     * Drop the stored states that are neither open nor the ancestor of an open state, and shrink
+     * the arrays to fit. The states keep their order, so parents still come before their
+     * children and ties in the open list are broken the same way. Closed states that are dropped
+     * leave the closed list, which only prunes. The current schedule is undone, the next state
+     * expanded is replayed from the start.
+     */
+    private void compact() {
+        // new id of every kept state
+        int[] ids = new int[_numStates];
+        Arrays.fill(ids, NONE);
+        for (int i = 0; i < _openSize; i++) {
+            for (int s = _open[i]; s != NONE && ids[s] == NONE; s = _parents[s]) {
+                ids[s] = 0;
+            }
+        }
+        int numKept = 0;
+        for (int s = 0; s < _numStates; s++) {
+            if (ids[s] != NONE) {
+                int parent = _parents[s];
+                ids[s] = numKept;
+                _parents[numKept] = parent == NONE ? NONE : ids[parent];
+                _moves[numKept] = _moves[s];
+                numKept++;
+            }
+        }
+        _numStates = numKept;
+        _parents = Arrays.copyOf(_parents, getCapacity(numKept));
+        _moves = Arrays.copyOf(_moves, getCapacity(numKept));
+        for (int i = 0; i < _openSize; i++) {
+            _open[i] = ids[_open[i]];
+        }
+        _open = Arrays.copyOf(_open, getCapacity(_openSize));
+
+        long[] hashes = _closedHashes;
+        int[] states = _closedStates;
+        _numClosed = 0;
+        for (int state : states) {
+            if (state != NONE && ids[state] != NONE) {
+                _numClosed++;
+            }
+        }
+        _closedHashes = new long[getCapacity(2 * _numClosed)];
+        _closedStates = new int[_closedHashes.length];
+        Arrays.fill(_closedStates, NONE);
+        for (int i = 0; i < states.length; i++) {
+            if (states[i] != NONE && ids[states[i]] != NONE) {
+                putClosed(hashes[i], ids[states[i]]);
+            }
+        }
+
+        while (_state.getSize() > 0) {
+            _state.undo();
+        }
+    }
+
+    /**
+     * @return smallest power of two above the size, at least {@link #INITIAL_CAPACITY}
+     */
+    private static int getCapacity(int size) {
+        return Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, size)) << 1);
+    }
+
+    private void putClosed(long hash, int state) {
+        int mask = _closedStates.length - 1;
+        int slot = getSlot(hash, mask);
+        while (_closedStates[slot] != NONE) {
+            slot = (slot + 1) & mask;
+        }
+        _closedHashes[slot] = hash;
+        _closedStates[slot] = state;
+    }
+
+    private static int getSlot(long hash, int mask) {
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * Rebuild the schedule of a state, undoing the current schedule back to the deepest state
+     * both share and replaying the rest of the chain
+     * @param state id of the state
+     */
+    private void moveTo(int state) {
+        int depth = 0;
+        for (int s = state; s != NONE; s = _parents[s]) {
+            _chain[depth++] = s;
+        }
+        int common = 0;
+        while (common < _state.getSize() && common < depth && _path[common] == _chain[depth - 1 - common]) {
+            common++;
+        }
+        while (_state.getSize() > common) {
+            _state.undo();
+        }
+        for (int k = common; k < depth; k++) {
+            int s = _chain[depth - 1 - k];
+            _state.place(getTask(s), getPid(s), getStartTime(s));
+            _path[k] = s;
+        }
+    }
+
+    /**
+     * Build the current schedule as a linked list
+     * @return schedule, with its state
+     */
+    private ScheduleAStar getSchedule() {
+        ScheduleAStar schedule = new ScheduleAStar(new ScheduledTask(getPid(_path[0]),
+                _context.getNode(getTask(_path[0])), getStartTime(_path[0])), _context);
+        for (int k = 1; k < _state.getSize(); k++) {
+            schedule = new ScheduleAStar(schedule, new ScheduledTask(getPid(_path[k]),
+                    _context.getNode(getTask(_path[k])), getStartTime(_path[k])));
+        }
+        return schedule;
+    }
+
+    /* ------------------------------
+     *  Stored states and open list
+     *
+     * ------------------------------
+     */
+
+    /**
+     * Store a state and add it to the open list
+     */
+    private void addState(int parent, int task, int pid, int start, int f) {
+        if (_numStates == _moves.length) {
+            _parents = Arrays.copyOf(_parents, _numStates * 2);
+            _moves = Arrays.copyOf(_moves, _numStates * 2);
+        }
+        _parents[_numStates] = parent;
+        _moves[_numStates] = task
+                | ((long) pid << TASK_BITS)
+                | ((long) start << (TASK_BITS + PID_BITS))
+                | ((long) f << (TASK_BITS + PID_BITS + TIME_BITS));
+        push(_numStates++);
+    }
+
+    private int getTask(int state) {
+        return (int) (_moves[state] & ((1 << TASK_BITS) - 1));
+    }
+
+    private int getPid(int state) {
+        return (int) ((_moves[state] >>> TASK_BITS) & ((1 << PID_BITS) - 1));
+    }
+
+    private int getStartTime(int state) {
+        return (int) ((_moves[state] >>> (TASK_BITS + PID_BITS)) & ((1 << TIME_BITS) - 1));
+    }
+
+    private int getF(int state) {
+        return (int) (_moves[state] >>> (TASK_BITS + PID_BITS + TIME_BITS));
+    }
+
+    /**
+     * Order of the open list: smaller f value first, and on ties the newest state, which is
+     * usually the deepest
+     */
+    private boolean isBefore(int state1, int state2) {
+        int f1 = getF(state1);
+        int f2 = getF(state2);
+        return f1 < f2 || (f1 == f2 && state1 > state2);
+    }
+
+    private void push(int state) {
+        if (_openSize == _open.length) {
+            _open = Arrays.copyOf(_open, _openSize * 2);
+        }
+        int i = _openSize++;
+        while (i > 0 && isBefore(state, _open[(i - 1) >>> 1])) {
+            _open[i] = _open[(i - 1) >>> 1];
+            i = (i - 1) >>> 1;
+        }
+        _open[i] = state;
+    }
+
+    private int poll() {
+        int first = _open[0];
+        int last = _open[--_openSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= _openSize) {
+                break;
+            }
+            if (child + 1 < _openSize && isBefore(_open[child + 1], _open[child])) {
+                child++;
+            }
+            if (!isBefore(_open[child], last)) {
+                break;
+            }
+            _open[i] = _open[child];
+            i = child;
+        }
+        if (_openSize > 0) {
+            _open[i] = last;
+        }
+        return first;
+    }
+}
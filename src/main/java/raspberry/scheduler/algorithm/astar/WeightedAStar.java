@@ -1,14 +1,14 @@
 package raspberry.scheduler.algorithm.astar;
 
 import raspberry.scheduler.algorithm.common.OutputSchedule;
+import raspberry.scheduler.algorithm.common.ScheduleState;
 import raspberry.scheduler.algorithm.common.ScheduledTask;
 import raspberry.scheduler.algorithm.common.Solution;
 import raspberry.scheduler.graph.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Hashtable;
-import java.util.PriorityQueue;
 
 /**
  * Implementation of A star algorithm.
@@ -35,22 +35,18 @@ public class WeightedAStar extends AStar {
     @Override
     public OutputSchedule findPath() {
         getH();
-        Hashtable<INode, Integer> rootTable = this.getRootTable();
-        for (INode node : rootTable.keySet()) {
-            if (rootTable.get(node) == 0) {
+        for (INode node : getFreeNodes(new ScheduleState(_context))) {
+            ScheduleAStar newSchedule = new ScheduleAStar(
+                    new ScheduledTask(1,node, 0),
+                    _context
+                    );
 
-                ScheduleAStar newSchedule = new ScheduleAStar(
-                        new ScheduledTask(1,node, 0),
-                        getChildTable(rootTable, node)
-                        );
-
-                newSchedule.addWeightedHeuristic(
-                        Collections.max(Arrays.asList(
-                                h(newSchedule),
-                                h1(getChildTable(rootTable, node), newSchedule)
-                        )));
-                _pq.add(newSchedule);
-            }
+            newSchedule.addWeightedHeuristic(
+                    Collections.max(Arrays.asList(
+                            h(newSchedule),
+                            h1(newSchedule)
+                    )));
+            _pq.add(newSchedule);
         }
 
         ScheduleAStar cSchedule;
@@ -64,7 +60,6 @@ public class WeightedAStar extends AStar {
                 break;
             }
 
-            Hashtable<INode, Integer> cTable = cSchedule._inDegreeTable;
             // Find the next empty processor. (
             int currentMaxPid = cSchedule.getMaxPid();
             int pidBound;
@@ -73,29 +68,29 @@ public class WeightedAStar extends AStar {
             } else {
                 pidBound = currentMaxPid + 1;
             }
-            for (INode node : cTable.keySet()) {
-                if (cTable.get(node) == 0) {
-                    for (int j = 1; j <= pidBound; j++) {
-                        int start = calculateEarliestStartTime(cSchedule, j, node);
-                        Hashtable<INode, Integer> newTable = getChildTable(cTable, node);
-                        ScheduleAStar newSchedule = new ScheduleAStar(start, cSchedule, node, j, newTable);
-                        newSchedule.addWeightedHeuristic(
-                                Collections.max(Arrays.asList(
-                                        h(newSchedule),
-                                        h1(newTable, newSchedule)
-                                )));
-                        _pq.add(newSchedule);
-                    }
+            for (INode node : getFreeNodes(cSchedule.getState())) {
+                for (int j = 1; j <= pidBound; j++) {
+                    int start = calculateEarliestStartTime(cSchedule, j, node);
+                    ScheduleAStar newSchedule = new ScheduleAStar(start, cSchedule, node, j);
+                    newSchedule.addWeightedHeuristic(
+                            Collections.max(Arrays.asList(
+                                    h(newSchedule),
+                                    h1(newSchedule)
+                            )));
+                    _pq.add(newSchedule);
                 }
             }
 
             // Trim PQ to fixed size.
             if (_pq.size() > 100000){
-                PriorityQueue<ScheduleAStar> newPQ = new PriorityQueue<ScheduleAStar>();
+                ArrayList<ScheduleAStar> best = new ArrayList<ScheduleAStar>();
                 for (int i = 0 ; i< 100; i++){
-                    newPQ.add( _pq.poll() );
+                    best.add( _pq.poll() );
+                }
+                _pq.clear();
+                for (ScheduleAStar schedule : best){
+                    _pq.add(schedule);
                 }
-                _pq = newPQ;
             }
         }
         return new Solution(cSchedule, _numP);
@@ -20,15 +20,16 @@ public class BNB extends Algorithm {
     IGraph _graph;
     int _numP;
     int _bound;
+    int _lowerBound;
     int _numNode;
     protected ScheduleB shortestPath;
 
     Stack<ScheduleB> _scheduleStack;
-    Hashtable<Integer, ArrayList<ScheduleB>> _visited;
+    Hashtable<Long, ArrayList<ScheduleB>> _visited;
     private AlgoStats _algoStats;
     private FixOrderChecker _fixOrderChecker;
     private EquivalenceChecker _equivalenceChecker;
-    private final int VISITED_MAX_SIZE = 4000000;
+    ScheduleContext _context;
 
     public BNB(IGraph graphToSolve){
         super(graphToSolve);
@@ -45,12 +46,29 @@ public class BNB extends Algorithm {
     public BNB(IGraph graphToSolve, int numProcessors, int bound) {
         super(graphToSolve);
         _graph = graphToSolve;
-        _numP = numProcessors;
+        _numP = getProcessorBound(graphToSolve, numProcessors);
         _numNode = _graph.getNumNodes();
         _algoStats = AlgoStats.getInstance();
         _bound = bound;
         _fixOrderChecker = new FixOrderChecker(_graph);
-        _equivalenceChecker = new EquivalenceChecker(_graph, numProcessors, this);
+        _equivalenceChecker = new EquivalenceChecker(_graph, _numP, this);
+        _context = new ScheduleContext(_graph, _numP);
+    }
+
+    /**
+     * Set a known lower bound of the optimal schedule. The search stops as soon as it finds a
+     * schedule that reaches it, no shorter schedule exists.
+     * @param lowerBound lower bound of the optimal schedule
+     */
+    public void setLowerBound(int lowerBound) {
+        _lowerBound = lowerBound;
+    }
+
+    /**
+     * @return True : if a schedule reaching the lower bound has been found
+     */
+    boolean isLowerBoundReached() {
+        return shortestPath != null && _bound <= _lowerBound;
     }
 
     @Override
@@ -61,34 +79,29 @@ public class BNB extends Algorithm {
         // Stack - Keeps track of all available/scheduable tasks.
         _scheduleStack = new Stack<ScheduleB>();
 
-        _visited = new Hashtable<Integer, ArrayList<ScheduleB>>();
-        Hashtable<INode, Integer> rootTable = getRootTable();
+        _visited = new Hashtable<Long, ArrayList<ScheduleB>>();
         getH();
 
-        for (INode i : rootTable.keySet()) {
-            if (rootTable.get(i) == 0) {
-                ScheduleB newSchedule = new ScheduleB(new ScheduledTask(1, i,0),
-                        getChildTable(rootTable, i));
-                newSchedule.addLowerBound( Math.max(lowerBound_1(newSchedule), super.getMaxCriticalPath()) );
-                if ( newSchedule.getLowerBound() > _bound ){
-                    continue;
-                }
-                _scheduleStack.push(newSchedule);
+        for (INode i : getFreeNodes(new ScheduleState(_context))) {
+            ScheduleB newSchedule = new ScheduleB(new ScheduledTask(1, i,0), _context);
+            newSchedule.addLowerBound( Math.max(lowerBound_1(newSchedule), super.getMaxCriticalPath()) );
+            if ( newSchedule.getLowerBound() > _bound ){
+                continue;
             }
+            _scheduleStack.push(newSchedule);
         }
 
         ScheduleB cSchedule;
-        Hashtable<INode, Integer> cTable;
         _algoStats.setIterations(0);
         _algoStats.setIsFinish(false);
         while (true) {
-            if (_visited.size() > VISITED_MAX_SIZE){
+            if (!_visited.isEmpty() && getMemoryBudget().isExceeded(getEstimatedMemory())){
+                // visited schedules only prune, they are evicted when the budget is reached
                 _visited.clear();
-                System.gc();
             }
 //            System.out.printf("Stack SIZE: %d\n", _scheduleStack.size());
             _algoStats.increment();
-            if (_scheduleStack.isEmpty()) {
+            if (_scheduleStack.isEmpty() || isLowerBoundReached()) {
 //                System.out.println("-- BOUND_DFS FINISHED --");
                 break;
             }
@@ -98,8 +111,6 @@ public class BNB extends Algorithm {
                 continue;
             }
 
-            cTable = cSchedule.getIndegreeTable();
-
             if ( cSchedule.getSize() == _numNode ) {
                 int totalFinishTime = cSchedule.getOverallFinishTime();
                 if (totalFinishTime <= _bound) {
@@ -121,12 +132,7 @@ public class BNB extends Algorithm {
             }
 
 
-            ArrayList<INode> freeNodes = new ArrayList<INode>();
-            for (INode node : cTable.keySet()) {
-                if (cTable.get(node) == 0) {
-                    freeNodes.add(node);
-                }
-            }
+            ArrayList<INode> freeNodes = getFreeNodes(cSchedule.getState());
 
             if ( _fixOrderChecker.check(freeNodes, cSchedule) &&
                     _fixOrderChecker.getFixOrder(freeNodes,cSchedule) != null){
@@ -135,8 +141,7 @@ public class BNB extends Algorithm {
                 for (int pid = 1; pid <= pidBound; pid++) {
                     int start = calculateEarliestStartTime(cSchedule, pid, node);
                     ScheduleB newSchedule = new ScheduleB(cSchedule,
-                            new ScheduledTask(pid,node,start),
-                            getChildTable(cTable,node));
+                            new ScheduledTask(pid,node,start));
                     newSchedule.addLowerBound( Math.max( lowerBound_1(newSchedule), super.getMaxCriticalPath() ) );
                     _algoStats.setSolution(new Solution(newSchedule, _numP));
 
@@ -150,8 +155,7 @@ public class BNB extends Algorithm {
                     for (int pid = 1; pid <= pidBound; pid++) {
                         int start = calculateEarliestStartTime(cSchedule, pid, node);
                         ScheduleB newSchedule = new ScheduleB(cSchedule,
-                                new ScheduledTask(pid,node,start),
-                                getChildTable(cTable,node));
+                                new ScheduledTask(pid,node,start));
                         newSchedule.addLowerBound( Math.max( lowerBound_1(newSchedule), super.getMaxCriticalPath() ) );
                         _algoStats.setSolution(new Solution(newSchedule, _numP));
 
@@ -172,6 +176,27 @@ public class BNB extends Algorithm {
         return new Solution(shortestPath, _numP);
     }
 
+    /**
+     * Estimate the bytes held in the visited table and the stack, every schedule holding its own state.
+     * @return estimated number of bytes
+     */
+    @Override
+    public long getEstimatedMemory() {
+        if (_visited == null) {
+            return 0;
+        }
+        long scheduleBytes = MemoryBudget.scheduleBytes(_numNode, _numP);
+        return _visited.size() * (MemoryBudget.TABLE_ENTRY + MemoryBudget.REFERENCE + scheduleBytes)
+                + getStackSize() * (MemoryBudget.REFERENCE + scheduleBytes);
+    }
+
+    /**
+     * @return number of schedules waiting to be searched
+     */
+    int getStackSize() {
+        return _scheduleStack == null ? 0 : _scheduleStack.size();
+    }
+
     /**
      * Finds lowerbound using the critical path heuristic table.
      * @param schedule : schedule we want to find the heuristic cost for.
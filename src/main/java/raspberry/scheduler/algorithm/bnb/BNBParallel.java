@@ -2,6 +2,7 @@ package raspberry.scheduler.algorithm.bnb;
 
 import raspberry.scheduler.algorithm.common.FixOrderChecker;
 import raspberry.scheduler.algorithm.common.OutputSchedule;
+import raspberry.scheduler.algorithm.common.ScheduleState;
 import raspberry.scheduler.algorithm.common.ScheduledTask;
 import raspberry.scheduler.algorithm.common.Solution;
 import raspberry.scheduler.app.visualisation.model.AlgoStats;
@@ -28,7 +29,6 @@ public class BNBParallel extends BNB {
     private Semaphore _lock;
     private AlgoStats _algoStats;
     private FixOrderChecker _fixOrderChecker;
-    private final int VISITED_MAX_SIZE = 4000000;
 
     public BNBParallel(IGraph graphToSolve, int numProcessors, int bound, int numCores) {
         super(graphToSolve, numProcessors, bound);
@@ -60,8 +60,7 @@ public class BNBParallel extends BNB {
     public OutputSchedule findPath(){
         _algoStats.setIterations(0);
         _algoStats.setIsFinish(false);
-        _visited = new Hashtable<Integer, ArrayList<ScheduleB>>();
-        Hashtable<INode, Integer> rootTable = getRootTable();
+        _visited = new Hashtable<Long, ArrayList<ScheduleB>>();
         getH();
 
         Stack<ScheduleB> rootSchedules = getRootSchedules();
@@ -102,16 +101,15 @@ public class BNBParallel extends BNB {
      */
     public void task(Stack<ScheduleB> stack){
         ScheduleB cSchedule;
-        Hashtable<INode, Integer> cTable;
         while (true) {
 
-            if (_visited.size() > VISITED_MAX_SIZE){
+            if (!_visited.isEmpty() && getMemoryBudget().isExceeded(getEstimatedMemory())){
+                // visited schedules only prune, they are evicted when the budget is reached
                 _visited.clear();
-                System.gc();
             }
             _algoStats.increment();
 //            System.out.printf("Stack SIZE: %d\n", stack.size());
-            if (stack.isEmpty()) {
+            if (stack.isEmpty() || isLowerBoundReached()) {
 //                System.out.println("-- BOUND_DFS FINISHED --");
                 break;
             }
@@ -121,8 +119,6 @@ public class BNBParallel extends BNB {
                 continue;
             }
 
-            cTable = cSchedule.getIndegreeTable();
-
             if ( cSchedule.getSize() == _numNode ) {
                 int totalFinishTime = cSchedule.getOverallFinishTime();
                 try{
@@ -150,12 +146,7 @@ public class BNBParallel extends BNB {
                 pidBound = currentMaxPid + 1;
             }
 
-            ArrayList<INode> freeNodes = new ArrayList<INode>();
-            for (INode node : cTable.keySet()) {
-                if (cTable.get(node) == 0) {
-                    freeNodes.add(node);
-                }
-            }
+            ArrayList<INode> freeNodes = getFreeNodes(cSchedule.getState());
 
             if ( _fixOrderChecker.check(freeNodes, cSchedule) &&
                     _fixOrderChecker.getFixOrder(freeNodes,cSchedule) != null){
@@ -164,8 +155,7 @@ public class BNBParallel extends BNB {
                 for (int pid = 1; pid <= pidBound; pid++) {
                     int start = calculateEarliestStartTime(cSchedule, pid, node);
                     ScheduleB newSchedule = new ScheduleB(cSchedule,
-                            new ScheduledTask(pid,node,start),
-                            getChildTable(cTable,node));
+                            new ScheduledTask(pid,node,start));
                     newSchedule.addLowerBound( Math.max( lowerBound_1(newSchedule), super.getMaxCriticalPath() ) );
                     _algoStats.setSolution(new Solution(newSchedule, _numP));
 
@@ -179,8 +169,7 @@ public class BNBParallel extends BNB {
                     for (int pid = 1; pid <= pidBound; pid++) {
                         int start = calculateEarliestStartTime(cSchedule, pid, node);
                         ScheduleB newSchedule = new ScheduleB(cSchedule,
-                                new ScheduledTask(pid,node,start),
-                                getChildTable(cTable,node));
+                                new ScheduledTask(pid,node,start));
                         newSchedule.addLowerBound( Math.max( lowerBound_1(newSchedule), super.getMaxCriticalPath() ) );
                         _algoStats.setSolution(new Solution(newSchedule, _numP));
 
@@ -195,6 +184,18 @@ public class BNBParallel extends BNB {
         return;
     }
 
+    /**
+     * @return number of schedules waiting to be searched on all the threads
+     */
+    @Override
+    int getStackSize() {
+        int size = 0;
+        for (Stack<ScheduleB> stack : stacks) {
+            size += stack.size();
+        }
+        return size;
+    }
+
     /**
      * Get "ncore" amount of root schedule.
      * @return : Stack of Schedules
@@ -202,24 +203,18 @@ public class BNBParallel extends BNB {
     public Stack<ScheduleB> getRootSchedules(){
 
         Stack<ScheduleB> rootSchedules = new Stack<ScheduleB>();
-        Hashtable<INode, Integer> rootTable = getRootTable();
-
-        for (INode i : rootTable.keySet()) {
-            if (rootTable.get(i) == 0) {
 
-                ScheduleB newSchedule = new ScheduleB(new ScheduledTask(1, i,0),
-                        getChildTable(rootTable, i));
+        for (INode i : getFreeNodes(new ScheduleState(_context))) {
+            ScheduleB newSchedule = new ScheduleB(new ScheduledTask(1, i,0), _context);
 
-                newSchedule.addLowerBound( Math.max(lowerBound_1(newSchedule), super.getMaxCriticalPath()) );
-                if ( newSchedule.getLowerBound() > _bound ){
-                    continue;
-                }
-                rootSchedules.push(newSchedule);
+            newSchedule.addLowerBound( Math.max(lowerBound_1(newSchedule), super.getMaxCriticalPath()) );
+            if ( newSchedule.getLowerBound() > _bound ){
+                continue;
             }
+            rootSchedules.push(newSchedule);
         }
 
         ScheduleB cSchedule;
-        Hashtable<INode, Integer> cTable;
         while ( rootSchedules.size() < _numCores ) {
             if (rootSchedules.isEmpty()) {
 //                System.out.println("-- BOUND_DFS FINISHED --");
@@ -230,7 +225,6 @@ public class BNBParallel extends BNB {
             if ( canPrune( cSchedule, true , false)){
                 continue;
             }
-            cTable = cSchedule.getIndegreeTable();
             if ( cSchedule.getSize() == _numNode ) {
                 int totalFinishTime = cSchedule.getOverallFinishTime();
                 if (totalFinishTime <= _bound) {
@@ -251,12 +245,7 @@ public class BNBParallel extends BNB {
                 pidBound = currentMaxPid + 1;
             }
 
-            ArrayList<INode> freeNodes = new ArrayList<INode>();
-            for (INode node : cTable.keySet()) {
-                if (cTable.get(node) == 0) {
-                    freeNodes.add(node);
-                }
-            }
+            ArrayList<INode> freeNodes = getFreeNodes(cSchedule.getState());
 
             if ( _fixOrderChecker.check(freeNodes, cSchedule) &&
                     _fixOrderChecker.getFixOrder(freeNodes,cSchedule) != null){
@@ -265,8 +254,7 @@ public class BNBParallel extends BNB {
                 for (int pid = 1; pid <= pidBound; pid++) {
                     int start = calculateEarliestStartTime(cSchedule, pid, node);
                     ScheduleB newSchedule = new ScheduleB(cSchedule,
-                            new ScheduledTask(pid,node,start),
-                            getChildTable(cTable,node));
+                            new ScheduledTask(pid,node,start));
                     newSchedule.addLowerBound( Math.max( lowerBound_1(newSchedule), super.getMaxCriticalPath() ) );
                     _algoStats.setSolution(new Solution(newSchedule, _numP));
 
@@ -280,8 +268,7 @@ public class BNBParallel extends BNB {
                     for (int pid = 1; pid <= pidBound; pid++) {
                         int start = calculateEarliestStartTime(cSchedule, pid, node);
                         ScheduleB newSchedule = new ScheduleB(cSchedule,
-                                new ScheduledTask(pid,node,start),
-                                getChildTable(cTable,node));
+                                new ScheduledTask(pid,node,start));
                         newSchedule.addLowerBound( Math.max( lowerBound_1(newSchedule), super.getMaxCriticalPath() ) );
                         _algoStats.setSolution(new Solution(newSchedule, _numP));
 
@@ -0,0 +1,280 @@
+package raspberry.scheduler.algorithm.bnb;
+
+import raspberry.scheduler.algorithm.Algorithm;
+import raspberry.scheduler.algorithm.common.*;
+import raspberry.scheduler.app.visualisation.model.AlgoStats;
+import raspberry.scheduler.graph.IGraph;
+import raspberry.scheduler.graph.util.IdenticalTaskTable;
+
+import java.util.ArrayList;
+import java.util.Hashtable;
+
+/**
+ * Implementation of BNB algorithm that searches depth first on a single schedule changed in place:
+ * place a task, search below it, then undo it. Nothing is allocated to go down or back up the
+ * search tree, the candidates of every depth are kept in their own int buffer.
+ * Prunes the same way as {@link BNB}: lower bound, visited duplicates, fixed order and equivalent schedules.
+ *
+ * @author Takahiro
+ */
+public class InPlaceBNB extends Algorithm {
+
+    IGraph _graph;
+    int _numP;
+    int _bound;
+    int _lowerBound;
+    int _numNode;
+
+    private ScheduleContext _context;
+    private MutableScheduleState _state;
+    private Hashtable<Long, ArrayList<long[]>> _visited;
+    private AlgoStats _algoStats;
+    private FixOrderChecker _fixOrderChecker;
+    private EquivalenceChecker _equivalenceChecker;
+    private IdenticalTaskTable _identicalTasks;
+
+    private int[] _heuristics;      // critical path heuristic of every task by topological index
+    private int[][] _candidates;    // tasks to try at every depth, sized by the ready tasks on first use
+    private long _candidateBytes;   // estimated size of the candidate buffers
+    private int[] _lowerBounds;     // lower bound of the schedule at every depth
+    private int[] _bestTasks;       // best complete schedule found, in placing order
+    private int[] _bestProcessors;
+    private int[] _bestStartTimes;
+    private boolean _found;
+    private MemoryBudget _memoryBudget;
+    private long _visitedEntryBytes;   // estimated size of a visited signature with its table entry
+
+    /**
+     * BNB algorithm constructor. with bound
+     *
+     * @param graphToSolve  : graph to solve. (graph represents the tasks and dependencies)
+     * @param numProcessors : number of processors allowed to use for scheduling.
+     * @param bound : value representing the upperbound
+     */
+    public InPlaceBNB(IGraph graphToSolve, int numProcessors, int bound) {
+        super(graphToSolve);
+        _graph = graphToSolve;
+        _numP = getProcessorBound(graphToSolve, numProcessors);
+        _numNode = _graph.getNumNodes();
+        _algoStats = AlgoStats.getInstance();
+        _bound = bound;
+        _fixOrderChecker = new FixOrderChecker(_graph);
+        _equivalenceChecker = new EquivalenceChecker(_graph, _numP, this);
+        _identicalTasks = _graph.getIdenticalTaskTable();
+        _context = new ScheduleContext(_graph, _numP);
+    }
+
+    /**
+     * Set a known lower bound of the optimal schedule, see {@link BNB#setLowerBound(int)}
+     * @param lowerBound lower bound of the optimal schedule
+     */
+    public void setLowerBound(int lowerBound) {
+        _lowerBound = lowerBound;
+    }
+
+    @Override
+    public OutputSchedule findPath() {
+        getH();
+        _heuristics = new int[_numNode];
+        for (int i = 0; i < _numNode; i++) {
+            _heuristics[i] = getHeuristicTable().get(_context.getNode(i).getName());
+        }
+        _state = new MutableScheduleState(_context);
+        _visited = new Hashtable<Long, ArrayList<long[]>>();
+        _candidates = new int[_numNode][];
+        _candidateBytes = MemoryBudget.OBJECT_HEADER + (long) _numNode * MemoryBudget.REFERENCE;
+        _lowerBounds = new int[_numNode + 1];
+        _bestTasks = new int[_numNode];
+        _bestProcessors = new int[_numNode];
+        _bestStartTimes = new int[_numNode];
+        _found = false;
+        _memoryBudget = getMemoryBudget();
+        _visitedEntryBytes = MemoryBudget.TABLE_ENTRY + MemoryBudget.REFERENCE + MemoryBudget.longArray(_numNode + 1);
+
+        _algoStats.setIterations(0);
+        _algoStats.setIsFinish(false);
+        search();
+
+        _algoStats.setIsFinish(true);
+        if (!_found) {
+            return null;
+        }
+        Solution solution = new Solution(getBestSchedule(), _numP);
+        _algoStats.setSolution(solution);
+        return solution;
+    }
+
+    /**
+     * Search every child of the current schedule, depth first
+     */
+    private void search() {
+        if (_memoryBudget.isExceeded(getEstimatedMemory())) {
+            // visited signatures only prune, they are evicted when the budget is reached
+            _visited.clear();
+        }
+        _algoStats.increment();
+        int size = _state.getSize();
+        if (size == _numNode) {
+            int totalFinishTime = _state.getOverallFinishTime();
+            if (totalFinishTime <= _bound) {
+                _bound = totalFinishTime;
+                saveBestSchedule();
+            }
+            return;
+        }
+
+        int[] candidates = getCandidateBuffer(size);
+        int numCandidates = getFreeTasks(candidates);
+        boolean fixedOrder = _fixOrderChecker.check(candidates, numCandidates, _state)
+                && _fixOrderChecker.sortFixOrder(candidates, numCandidates, _state);
+        if (fixedOrder) {
+            // only the first task of a fixed order needs to be tried
+            numCandidates = Math.min(numCandidates, 1);
+        }
+        int pidBound = Math.min(_state.getMaxPid() + 1, _numP);
+
+        for (int i = 0; i < numCandidates; i++) {
+            int task = candidates[i];
+            for (int pid = 1; pid <= pidBound; pid++) {
+                int start = _context.getEarliestStartTime(_state, pid, task);
+                int lowerBound = Math.max(_lowerBounds[size],
+                        Math.max(_heuristics[task] + start + _context.getWeight(task), getMaxCriticalPath()));
+                if (lowerBound > _bound) {
+                    continue;
+                }
+                _state.place(task, pid, start);
+                _lowerBounds[size + 1] = lowerBound;
+                if (!canPrune(lowerBound, !fixedOrder)) {
+                    search();
+                }
+                _state.undo();
+                if (_found && _bound <= _lowerBound) {
+                    // no shorter schedule exists
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Estimate the bytes held in the visited table and the candidate buffers, the schedule itself
+     * does not grow and is not counted.
+     * @return estimated number of bytes
+     */
+    @Override
+    public long getEstimatedMemory() {
+        return _visited == null ? 0 : _visited.size() * _visitedEntryBytes + _candidateBytes;
+    }
+
+    /**
+     * Get the candidate buffer of a depth, large enough for every task ready at that depth. A
+     * buffer is only replaced when more tasks are ready than on any earlier visit of the depth.
+     * @param size number of tasks scheduled
+     * @return buffer
+     */
+    private int[] getCandidateBuffer(int size) {
+        int numReady = _state.getNumReady();
+        int[] candidates = _candidates[size];
+        if (candidates == null || candidates.length < numReady) {
+            if (candidates != null) {
+                _candidateBytes -= MemoryBudget.intArray(candidates.length);
+            }
+            candidates = new int[numReady];
+            _candidates[size] = candidates;
+            _candidateBytes += MemoryBudget.intArray(numReady);
+        }
+        return candidates;
+    }
+
+    /**
+     * Get the tasks that can be scheduled next, see {@link #getFreeNodes(ScheduleState)}
+     * @param buffer buffer to write the topological indices of the tasks to
+     * @return number of tasks
+     */
+    private int getFreeTasks(int[] buffer) {
+        int numTasks = 0;
+        for (int i = 0; i < _state.getNumReady(); i++) {
+            int index = _state.getReadyTask(i);
+            int previous = _identicalTasks.getPrevious(index);
+            if (previous == IdenticalTaskTable.NONE || _state.isScheduled(previous)) {
+                buffer[numTasks++] = index;
+            }
+        }
+        return numTasks;
+    }
+
+    /**
+     * Check if the current schedule can be pruned, see {@link BNB#canPrune(ScheduleB, Boolean, Boolean)}.
+     * A schedule that is not pruned is added to the visited schedules.
+     * @param lowerBound lower bound of the current schedule
+     * @param checkEquivalence True : if equivalent schedules are pruned
+     * @return True : if it can be pruned
+     *         False : if it cant be pruned
+     */
+    private boolean canPrune(int lowerBound, boolean checkEquivalence) {
+        Long hash = _state.getHash();
+        ArrayList<long[]> listVisitedForHash = _visited.get(hash);
+        // the lower bound is kept after the tasks
+        long[] signature = _state.getSignature(_numNode + 1);
+        signature[_numNode] = lowerBound;
+        if (listVisitedForHash != null && isIrrelevantDuplicate(listVisitedForHash, signature)) {
+            return true;
+        } else if (checkEquivalence && _equivalenceChecker.checkDuplicateBySwap(_state)) {
+            return true;
+        }
+        if (listVisitedForHash == null) {
+            listVisitedForHash = new ArrayList<long[]>(1);
+            _visited.put(hash, listVisitedForHash);
+        }
+        listVisitedForHash.add(signature);
+        return false;
+    }
+
+    /**
+     * Find out if a visited schedule is the same as the current one with a lower bound no larger,
+     * see {@link BNB#isIrrelevantDuplicate(ArrayList, ScheduleB)}
+     * @param signatureList signatures of the visited schedules with the same hash
+     * @param signature signature of the current schedule
+     * @return True : if the current schedule does not need to be searched
+     */
+    private boolean isIrrelevantDuplicate(ArrayList<long[]> signatureList, long[] signature) {
+        for (long[] visited : signatureList) {
+            int i = 0;
+            while (i < _numNode && visited[i] == signature[i]) {
+                i++;
+            }
+            if (i == _numNode) {
+                return visited[_numNode] <= signature[_numNode];
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Keep the current complete schedule as the best one
+     */
+    private void saveBestSchedule() {
+        for (int i = 0; i < _numNode; i++) {
+            int task = _state.getPlacedTask(i);
+            _bestTasks[i] = task;
+            _bestProcessors[i] = _state.getProcessor(task);
+            _bestStartTimes[i] = _state.getStartTime(task);
+        }
+        _found = true;
+        _algoStats.setSolution(new Solution(getBestSchedule(), _numP));
+    }
+
+    /**
+     * Build the best complete schedule found
+     * @return schedule, with its state
+     */
+    private ScheduleB getBestSchedule() {
+        ScheduleB schedule = new ScheduleB(new ScheduledTask(_bestProcessors[0],
+                _context.getNode(_bestTasks[0]), _bestStartTimes[0]), _context);
+        for (int i = 1; i < _numNode; i++) {
+            schedule = new ScheduleB(schedule, new ScheduledTask(_bestProcessors[i],
+                    _context.getNode(_bestTasks[i]), _bestStartTimes[i]));
+        }
+        return schedule;
+    }
+}
@@ -5,6 +5,8 @@ import java.util.function.Consumer;
 
 import raspberry.scheduler.algorithm.astar.ScheduleAStar;
 import raspberry.scheduler.algorithm.common.Schedule;
+import raspberry.scheduler.algorithm.common.ScheduleContext;
+import raspberry.scheduler.algorithm.common.ScheduleState;
 import raspberry.scheduler.algorithm.common.ScheduledTask;
 import raspberry.scheduler.graph.INode;
 
@@ -20,25 +22,33 @@ public class ScheduleB extends Schedule implements Comparable<ScheduleB>, Iterab
 
     private int _overallFinishTime; // t: Total weight
     private int _maxPid; //The largest pid currently used to schedule. This ranges from 1 ~ n. (not 0 ~ n-1)
-    private Hashtable<INode, Integer> _inDegreeTable;
 
     private int _upperBound;    // For BNB. Represents the worst case. <- Bad schedling.
     private int _lowerBound;   // For BNB. Represents the base case. <- perfect schedling.
 
 
-    public ScheduleB(ScheduledTask scheduleTask, Hashtable<INode, Integer> inDegreeTable) {
+    public ScheduleB(ScheduledTask scheduleTask) {
         super(scheduleTask);
-        _inDegreeTable = inDegreeTable;
         _maxPid = scheduleTask.getProcessorID();
         _overallFinishTime = scheduleTask.getFinishTime();
     }
 
     /**
-     * Constructor for partial schedule
+     * Constructor for the first task of a schedule that keeps a state
+     * @param scheduleTask  : first task
+     * @param context       : data shared by every schedule of the search
      */
-    public ScheduleB(ScheduleB parent, ScheduledTask scheduleTask, Hashtable<INode, Integer> inDegreeTable) {
-        super(parent, scheduleTask);
-        _inDegreeTable = inDegreeTable;
+    public ScheduleB(ScheduledTask scheduleTask, ScheduleContext context) {
+        super(scheduleTask, new ScheduleState(context).schedule(scheduleTask));
+        _maxPid = scheduleTask.getProcessorID();
+        _overallFinishTime = scheduleTask.getFinishTime();
+    }
+
+    /**
+     * Constructor for partial schedule, keeps a state if the parent does
+     */
+    public ScheduleB(ScheduleB parent, ScheduledTask scheduleTask) {
+        super(parent, scheduleTask, parent.getState() == null ? null : parent.getState().schedule(scheduleTask));
         if (scheduleTask.getProcessorID() > parent.getMaxPid()) {
             _maxPid = scheduleTask.getProcessorID();
         } else {
@@ -77,68 +87,7 @@ public class ScheduleB extends Schedule implements Comparable<ScheduleB>, Iterab
 
     /**
      * Check if two Schedule instance is the same. (this is for detecting duplicate scheduling)
-     *
-     * @param otherSchedule : the other schedule instance we are comparing to.
-     * @return Boolean : True : if its the same.
-     * False: if its different.
-     */
-    public boolean equals2(Object otherSchedule) {
-        if (otherSchedule == this) {
-            return true;
-        } else if (!(otherSchedule instanceof ScheduleB)) {
-            return false;
-        } else {
-            ScheduleB oSchedule = (ScheduleB) otherSchedule;
-            if (getSize() != oSchedule.getSize()) {
-                return false;
-            } else if (getMaxPid() != oSchedule.getMaxPid()) {
-                return false;
-            } else {
-                // Group by pid. Compare match
-                Hashtable<INode, int[]> scheduling = getPath();
-                Hashtable<INode, int[]> scheduling2 = oSchedule.getPath();
-
-                Hashtable<Integer, Hashtable<String, Integer>> hash4scheduling = new Hashtable<Integer, Hashtable<String, Integer>>();
-                Hashtable<Integer, Hashtable<String, Integer>> hash4scheduling2 = new Hashtable<Integer, Hashtable<String, Integer>>();
-
-                for (INode s : scheduling.keySet()) {
-                    Hashtable<String, Integer> tmp = hash4scheduling.get(scheduling.get(s)[2]); //get(0) gets pid
-                    if (tmp == null) {
-                        tmp = new Hashtable<String, Integer>();
-                    }
-                    tmp.put(s.getName(), scheduling.get(s)[0]);
-                    hash4scheduling.put(scheduling.get(s)[2], tmp);
-                }
-                for (INode s : scheduling2.keySet()) {
-                    Hashtable<String, Integer> tmp = hash4scheduling2.get(scheduling2.get(s)[2]); //get(0) gets pid
-                    if (tmp == null) {
-                        tmp = new Hashtable<String, Integer>();
-                    }
-                    tmp.put(s.getName(), scheduling2.get(s)[0]);
-                    hash4scheduling2.put(scheduling2.get(s)[2], tmp);
-                }
-
-                for (Hashtable<String, Integer> i : hash4scheduling.values()) {
-                    Boolean foundMatch = false;
-                    for (Hashtable<String, Integer> j : hash4scheduling2.values()) {
-                        if (i.equals(j)) {
-                            foundMatch = true;
-                            break;
-                        }
-                    }
-                    if (!foundMatch) {
-                        return false;
-                    }
-                }
-            }
-            return true;
-        }
-    }
-
-    //Risky version of equals. Dont know if this actually outputs optimal path.
-
-    /**
-     * Check if two Schedule instance is the same. (this is for detecting duplicate scheduling)
+     * Same tasks at the same start times, grouped onto the processors the same way.
      *
      * @param otherSchedule : Schedule we are comparing against.
      * @return true if its the same. false if it is not the same schedule.
@@ -155,22 +104,7 @@ public class ScheduleB extends Schedule implements Comparable<ScheduleB>, Iterab
             } else if (this.getMaxPid() != schedule.getMaxPid()) {
                 return false;
             } else {
-                Set<List<Integer>> hash4scheduling = new HashSet<List<Integer>>();
-                Set<List<Integer>> hash4scheduling2 = new HashSet<List<Integer>>();
-
-                ArrayList<ScheduledTask> scheduledTasks = new ArrayList<ScheduledTask>();
-                this.forEach(cSchedule -> scheduledTasks.add(cSchedule.getScheduledTask()));
-
-                ArrayList<ScheduledTask> scheduledTasks2 = new ArrayList<ScheduledTask>();
-                schedule.forEach(cSchedule -> scheduledTasks2.add(cSchedule.getScheduledTask()));
-
-                for (ScheduledTask task : scheduledTasks) {
-                    hash4scheduling.add(Arrays.asList(task.getName().hashCode(), task.getStartTime()));
-                }
-                for (ScheduledTask task : scheduledTasks2) {
-                    hash4scheduling2.add(Arrays.asList(task.getName().hashCode(), task.getStartTime()));
-                }
-                return hash4scheduling.equals(hash4scheduling2);
+                return getState().isDuplicate(schedule.getState());
             }
         }
     }
@@ -222,20 +156,12 @@ public class ScheduleB extends Schedule implements Comparable<ScheduleB>, Iterab
      * v1 : perfect hash function that gurantees almost no collision & it is calculated using all variable contained in this class.
      * v2 : hash function that produce some what unique hash value depending on the "scheduling" hashtable.
      * )
-     * This function is v2.
+     * This function is v2. It is kept up to date as tasks are scheduled, so it costs nothing to get.
      *
-     * @return int : representing the hash value of "scheduling" hashtable.
+     * @return long : representing the hash value of the start times of the scheduled tasks.
      */
-    public int getHash() {
-        final int prime = 17;
-        int value = 0;
-        Hashtable<INode, int[]> scheduling = getPath();
-        for (INode i : scheduling.keySet()) {
-            value = prime * value + (scheduling.get(i)[0]);
-            value = prime * value + (i.getName().hashCode()); //Might be fine just doing i.hasCode()
-        }
-        value = prime * value + getSize();
-        return value;
+    public long getHash() {
+        return getState().getHash();
     }
 
     /*
@@ -292,10 +218,6 @@ public class ScheduleB extends Schedule implements Comparable<ScheduleB>, Iterab
         return _maxPid;
     }
 
-    public Hashtable<INode, Integer> getIndegreeTable() {
-        return _inDegreeTable;
-    }
-
     @Override
     public Iterator<ScheduleB> iterator() {
         ScheduleB head = this;
@@ -17,6 +17,12 @@ public class EquivalenceChecker {
     private int _counter = 0;
     private Algorithm _algorithm;
     private final boolean VERBOSE = false;
+    // scratch space of the in place check: tasks of the processor in order, and start times after
+    // the swap, only valid for the tasks whose stamp is the current swap
+    private int[] _processorTasks;
+    private int[] _swappedStartTimes;
+    private int[] _swapStamps;
+    private int _swap;
 
     /**
      *
@@ -94,6 +100,136 @@ public class EquivalenceChecker {
     }
 
 
+    /**
+     * Check if a schedule changed in place is a duplicate by swapping up its last placed task,
+     * the same check as {@link #checkDuplicateBySwap(Schedule)}. The swap is worked out on the
+     * start times of the processor of the task only, the state itself is not changed.
+     * @param state schedule to be checked, with at least one task
+     * @return true if it's a duplicate, false if otherwise
+     */
+    public boolean checkDuplicateBySwap(MutableScheduleState state) {
+        ScheduleContext context = state.getContext();
+        if (_processorTasks == null || _processorTasks.length < context.getNumNodes()) {
+            _processorTasks = new int[context.getNumNodes()];
+            _swappedStartTimes = new int[context.getNumNodes()];
+            _swapStamps = new int[context.getNumNodes()];
+        }
+        int m = state.getLastPlacedTask();
+        int pid = state.getProcessor(m);
+        int tMax = state.getFinishTime(m);
+
+        // tasks before m on its processor, in start time order
+        int numTasks = 0;
+        for (int task = state.getPreviousTask(m); task != ScheduleState.UNSCHEDULED; task = state.getPreviousTask(task)) {
+            numTasks++;
+        }
+        int position = numTasks;
+        for (int task = state.getPreviousTask(m); task != ScheduleState.UNSCHEDULED; task = state.getPreviousTask(task)) {
+            _processorTasks[--position] = task;
+        }
+
+        // move m up one task at a time, while it comes before that task in topological order
+        for (int i = numTasks - 1; i >= 0 && m < _processorTasks[i]; i--) {
+            _swap++;
+            int time = i == 0 ? 0 : state.getFinishTime(_processorTasks[i - 1]);
+            _swappedStartTimes[m] = Math.max(time, getDataReadyTime(state, pid, m));
+            _swapStamps[m] = _swap;
+            time = _swappedStartTimes[m] + context.getWeight(m);
+            for (int k = i; k < numTasks; k++) {
+                int task = _processorTasks[k];
+                _swappedStartTimes[task] = Math.max(time, getDataReadyTime(state, pid, task));
+                _swapStamps[task] = _swap;
+                time = _swappedStartTimes[task] + context.getWeight(task);
+            }
+            if (time <= tMax && outgoingCommsOK(state, pid, i, numTasks)) {
+                _counter++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Latest arrival of the data of the parents of a task that are on other processors
+     */
+    private int getDataReadyTime(MutableScheduleState state, int pid, int task) {
+        ScheduleContext context = state.getContext();
+        int[] parents = context.getParents(task);
+        int[] costs = context.getParentCosts(task);
+        int dataReadyTime = 0;
+        for (int j = 0; j < parents.length; j++) {
+            if (state.getProcessor(parents[j]) != pid) {
+                dataReadyTime = Math.max(dataReadyTime, state.getFinishTime(parents[j]) + costs[j]);
+            }
+        }
+        return dataReadyTime;
+    }
+
+    /**
+     * Check that the tasks delayed by the swap, the tasks of the processor from position first,
+     * do not delay their children, see {@link #outgoingCommsOK(List, Schedule, Schedule)}
+     */
+    private boolean outgoingCommsOK(MutableScheduleState state, int pid, int first, int numTasks) {
+        ScheduleContext context = state.getContext();
+        for (int k = first; k < numTasks; k++) {
+            int task = _processorTasks[k];
+            if (_swappedStartTimes[task] <= state.getStartTime(task)) {
+                continue;
+            }
+            int[] children = context.getChildren(task);
+            int[] childCosts = context.getChildCosts(task);
+            for (int c = 0; c < children.length; c++) {
+                int child = children[c];
+                // remote data arrival from the task
+                int t = _swappedStartTimes[task] + context.getWeight(task) + childCosts[c];
+                if (state.isScheduled(child)) {
+                    // on the same processor always OK
+                    if (state.getProcessor(child) != pid && state.getStartTime(child) < t) {
+                        return false;
+                    }
+                    continue;
+                }
+                // the child can go on any other processor, some other parent has to arrive later
+                int[] parents = context.getParents(child);
+                int[] parentCosts = context.getParentCosts(child);
+                for (int p = 1; p <= _numProcessors; p++) {
+                    if (p == pid) {
+                        continue;
+                    }
+                    boolean atLeastOneLater = false;
+                    for (int j = 0; j < parents.length; j++) {
+                        int parent = parents[j];
+                        if (parent == task) {
+                            continue;
+                        }
+                        if (!state.isScheduled(parent)) {
+                            return false;
+                        }
+                        int finishTime = getSwappedFinishTime(state, parent);
+                        int dataArrivalTime = state.getProcessor(parent) == p ? finishTime : finishTime + parentCosts[j];
+                        if (dataArrivalTime >= t) {
+                            atLeastOneLater = true;
+                        }
+                    }
+                    if (!atLeastOneLater) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finish time of a task after the swap
+     */
+    private int getSwappedFinishTime(MutableScheduleState state, int task) {
+        if (_swapStamps[task] == _swap) {
+            return _swappedStartTimes[task] + state.getContext().getWeight(task);
+        }
+        return state.getFinishTime(task);
+    }
+
     /**
      * swaps two neighbours task in the same processor
      * the dependency of the graph is recalculated and the affected tasks are scheduled with the
@@ -133,21 +269,15 @@ public class EquivalenceChecker {
         }
 
         INode swapNode = taskToSwap.getTask();
-        List<IEdge> childOfSwap = _graph.getOutgoingEdges(swapNode);
         INode mNode = m.getTask();
-        List<IEdge> parentOfM = _graph.getIngoingEdges(mNode);
         ArrayList<ScheduledTask> newOrdering = new ArrayList<ScheduledTask>();
         Collections.reverse(prevTask);
 
         boolean swapIsAdded = false;
         for (ScheduledTask st : prevTask) {
-            if (!swapIsAdded) {
-                for (IEdge e : childOfSwap) {
-                    if (e.getChild() == st.getTask() && !swapIsAdded ) {
-                        newOrdering.add(taskToSwap);
-                        swapIsAdded = true;
-                    }
-                }
+            if (!swapIsAdded && _graph.getCommunicationCost(swapNode, st.getTask()) != IGraph.NO_EDGE) {
+                newOrdering.add(taskToSwap);
+                swapIsAdded = true;
             }
             newOrdering.add(st);
         }
@@ -159,13 +289,9 @@ public class EquivalenceChecker {
         Collections.reverse(newOrdering);
         boolean mIsAdded = false;
         for (ScheduledTask st : newOrdering) {
-            if (!mIsAdded) {
-                for (IEdge e : parentOfM) {
-                    if ( e.getParent() == st.getTask() && !mIsAdded) {
-                        newOrdering2.add(m);
-                        mIsAdded = true;
-                    }
-                }
+            if (!mIsAdded && _graph.getCommunicationCost(st.getTask(), mNode) != IGraph.NO_EDGE) {
+                newOrdering2.add(m);
+                mIsAdded = true;
             }
             newOrdering2.add(st);
         }
@@ -310,7 +436,7 @@ public class EquivalenceChecker {
 
 
     /**
-     * Create a sub schedule without in degree table
+     * Create a sub schedule without in degree table, keeps a state if the schedule does
      * @param schedule schedule
      * @param scheduledTask a schedule task to be in the next schedule
      * @return a new sub schedule with the task
@@ -318,7 +444,8 @@ public class EquivalenceChecker {
     private Schedule createSubSchedule(Schedule schedule, ScheduledTask scheduledTask) {
         return new Schedule(
                 schedule,
-                scheduledTask);
+                scheduledTask,
+                schedule.getState() == null ? null : schedule.getState().schedule(scheduledTask));
     }
 
     /**
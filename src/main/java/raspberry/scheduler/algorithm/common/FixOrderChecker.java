@@ -91,7 +91,9 @@ public class FixOrderChecker {
             int drt2 = getDataReadyTime(n2, schedule);
 
             if (drt1 == drt2) {
-                return -1 * Integer.compare(outGoingEdgeCost(n1), outGoingEdgeCost(n2));
+                int cost = -1 * Integer.compare(outGoingEdgeCost(n1), outGoingEdgeCost(n2));
+                // ties in topological order, the order identical tasks are scheduled in
+                return cost != 0 ? cost : Integer.compare(_graph.getIndex(n1), _graph.getIndex(n2));
             } else{
                 return Integer.compare(drt1,drt2);
             }});
@@ -142,4 +144,108 @@ public class FixOrderChecker {
         }
         return _graph.getOutgoingEdges(node).get(0).getWeight();
     }
+
+    /**
+     * checks if a fixed order is possible given the free tasks available,
+     * see {@link #check(List, Schedule)}
+     * @param tasks topological indices of the free tasks
+     * @param numTasks number of free tasks, at the start of tasks
+     * @param state current schedule
+     * @return true if fixed order is possible, false otherwise
+     */
+    public boolean check(int[] tasks, int numTasks, MutableScheduleState state) {
+        ScheduleContext context = state.getContext();
+        int firstFoundChild = -1;
+        int firstFoundPID = -1;
+        for (int i = 0; i < numTasks; i++) {
+            int[] parents = context.getParents(tasks[i]);
+            int[] children = context.getChildren(tasks[i]);
+            if (parents.length > 1 || children.length > 1) {
+                return false;
+            }
+            if (children.length == 1) {
+                if (firstFoundChild == -1) {
+                    firstFoundChild = children[0];
+                } else if (firstFoundChild != children[0]) {
+                    return false;
+                }
+            }
+            if (parents.length == 1) {
+                int pid = state.getProcessor(parents[0]);
+                if (firstFoundPID == -1) {
+                    firstFoundPID = pid;
+                } else if (firstFoundPID != pid) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sort the free tasks into fixed order in place, see {@link #getFixOrder(List, Schedule)}
+     * @param tasks topological indices of the free tasks
+     * @param numTasks number of free tasks, at the start of tasks
+     * @param state current schedule
+     * @return true if the sorted tasks are in fixed order, false if there is none
+     */
+    public boolean sortFixOrder(int[] tasks, int numTasks, MutableScheduleState state) {
+        // insertion sort, there are only ever a few free tasks
+        for (int i = 1; i < numTasks; i++) {
+            int task = tasks[i];
+            int j = i - 1;
+            while (j >= 0 && compareFixOrder(tasks[j], task, state) > 0) {
+                tasks[j + 1] = tasks[j];
+                j--;
+            }
+            tasks[j + 1] = task;
+        }
+        ScheduleContext context = state.getContext();
+        for (int i = 1; i < numTasks; i++) {
+            if (outGoingEdgeCost(tasks[i], context) > outGoingEdgeCost(tasks[i - 1], context)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Order of two free tasks in fixed order: data ready time, then larger outgoing edge cost,
+     * then topological order
+     */
+    private int compareFixOrder(int task1, int task2, MutableScheduleState state) {
+        int drt1 = getDataReadyTime(task1, state);
+        int drt2 = getDataReadyTime(task2, state);
+        if (drt1 != drt2) {
+            return Integer.compare(drt1, drt2);
+        }
+        ScheduleContext context = state.getContext();
+        int cost = -1 * Integer.compare(outGoingEdgeCost(task1, context), outGoingEdgeCost(task2, context));
+        return cost != 0 ? cost : Integer.compare(task1, task2);
+    }
+
+    /**
+     * get data ready time of a task of a schedule changed in place,
+     * see {@link #getDataReadyTime(INode, Schedule)}
+     */
+    private int getDataReadyTime(int task, MutableScheduleState state) {
+        int[] parents = state.getContext().getParents(task);
+        if (parents.length == 0) {
+            return 0;
+        }
+        int[] costs = state.getContext().getParentCosts(task);
+        int dataReadyTime = Integer.MIN_VALUE;
+        for (int j = 0; j < parents.length; j++) {
+            dataReadyTime = Math.max(dataReadyTime, state.getFinishTime(parents[j]) + costs[j]);
+        }
+        return dataReadyTime;
+    }
+
+    /**
+     * get the outgoing edge cost of a task by topological index, see {@link #outGoingEdgeCost(INode)}
+     */
+    private int outGoingEdgeCost(int task, ScheduleContext context) {
+        int[] costs = context.getChildCosts(task);
+        return costs.length == 0 ? 0 : costs[0];
+    }
 }
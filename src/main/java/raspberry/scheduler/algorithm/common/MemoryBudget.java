@@ -0,0 +1,139 @@
+package raspberry.scheduler.algorithm.common;
+
+/**
+ * Number of bytes a search may hold in its open list, closed list and visited tables, and
+ * estimates of what the stored schedules cost on the heap. The estimates assume 16 byte object
+ * and array headers and 8 byte references, rounded up to 8 bytes, so they are on the safe side
+ * when the JVM compresses references.
+ * @author Takahiro
+ */
+public class MemoryBudget {
+    public static final long BYTES_PER_MB = 1024L * 1024L;
+    // share of the maximum heap used when no budget is given, the rest is left to the graph and the garbage collector
+    public static final double DEFAULT_HEAP_FRACTION = 0.5;
+    public static final int OBJECT_HEADER = 16;
+    public static final int REFERENCE = 8;
+    // entry of a visited table: Hashtable entry, boxed Long key and the list of the schedules with that hash
+    public static final int TABLE_ENTRY = 48 + 24 + 40;
+
+    private final long _bytes;
+
+    /**
+     * Class constructor
+     * @param bytes number of bytes the search may hold
+     * @throws IllegalArgumentException if the budget is not positive
+     */
+    public MemoryBudget(long bytes) {
+        if (bytes <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive");
+        }
+        _bytes = bytes;
+    }
+
+    /**
+     * @param megabytes number of megabytes the search may hold
+     * @return budget
+     */
+    public static MemoryBudget ofMegabytes(long megabytes) {
+        return new MemoryBudget(megabytes * BYTES_PER_MB);
+    }
+
+    /**
+     * @return budget of {@link #DEFAULT_HEAP_FRACTION} of the maximum heap of the JVM
+     */
+    public static MemoryBudget getDefault() {
+        return new MemoryBudget((long) (Runtime.getRuntime().maxMemory() * DEFAULT_HEAP_FRACTION));
+    }
+
+    /**
+     * @return number of bytes the search may hold
+     */
+    public long getBytes() {
+        return _bytes;
+    }
+
+    /**
+     * Share the budget between searches running at the same time
+     * @param parts number of searches
+     * @return budget of every search
+     */
+    public MemoryBudget split(int parts) {
+        return new MemoryBudget(Math.max(1, _bytes / Math.max(1, parts)));
+    }
+
+    /**
+     * @param bytes estimated number of bytes held
+     * @return true if the bytes held are over the budget
+     */
+    public boolean isExceeded(long bytes) {
+        return bytes > _bytes;
+    }
+
+    /**
+     * @param bytesPerEntry estimated size of one entry
+     * @return number of entries that fit in the budget, at least 1
+     */
+    public long getMaxEntries(long bytesPerEntry) {
+        return Math.max(1, _bytes / Math.max(1, bytesPerEntry));
+    }
+
+    /* ------------------------------
+     *  Estimates
+     *
+     * ------------------------------
+     */
+
+    /**
+     * @param bytes size of an object
+     * @return size rounded up to 8 bytes
+     */
+    public static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * @param length length of the array
+     * @return size of an int array
+     */
+    public static long intArray(int length) {
+        return align(OBJECT_HEADER + 4L * length);
+    }
+
+    /**
+     * @param length length of the array
+     * @return size of a long array
+     */
+    public static long longArray(int length) {
+        return align(OBJECT_HEADER + 8L * length);
+    }
+
+    /**
+     * Size of a {@link ScheduleState} with its canonical processor labels and signature, which
+     * are built once the state is compared to a visited one
+     * @param numNodes number of tasks
+     * @param numProcessors number of processors
+     * @return estimated size
+     */
+    public static long stateBytes(int numNodes, int numProcessors) {
+        return align(OBJECT_HEADER + 8L * REFERENCE + 3 * 4 + 8)
+                + 2 * intArray(numNodes)
+                + longArray((numNodes + 63) >>> 6)
+                + 3 * intArray(numProcessors + 1)
+                // the ready tasks, usually far fewer than the tasks
+                + intArray(numProcessors + 1)
+                + longArray(numNodes);
+    }
+
+    /**
+     * Size of a linked list schedule such as {@link raspberry.scheduler.algorithm.bnb.ScheduleB}:
+     * the schedule, its {@link ScheduledTask} and its state
+     * @param numNodes number of tasks
+     * @param numProcessors number of processors
+     * @return estimated size
+     */
+    public static long scheduleBytes(int numNodes, int numProcessors) {
+        return align(OBJECT_HEADER + 3L * REFERENCE + 7 * 4)
+                + align(OBJECT_HEADER + REFERENCE + 2 * 4)
+                + stateBytes(numNodes, numProcessors);
+    }
+}
@@ -0,0 +1,303 @@
+package raspberry.scheduler.algorithm.common;
+
+import java.util.Arrays;
+
+/**
+ * Partial schedule that is changed in place, for depth first searches that only ever look at
+ * one schedule at a time. Placing a task records what it changed, and {@link #undo()} takes
+ * back the last placed task, so going down and back up the search tree allocates nothing.
+ * Holds the same data as {@link ScheduleState}, plus the order tasks were placed in and the
+ * previous task on the processor of every task.
+ * @author Takahiro
+ */
+public class MutableScheduleState {
+    private final ScheduleContext _context;
+    private final int[] _startTimes;
+    private final int[] _processors;
+    private final int[] _previousTasks;
+    private final int[] _processorFinishTimes;
+    private final int[] _processorLastTasks;
+    private final int[] _processorLabels;
+    private final int[] _otherProcessorLabels;
+    private final int[] _unscheduledParents;
+    private final int[] _ready;
+    private int _numReady;
+    private int _size;
+    private int _remainingWork;
+    private long _hash;
+
+    // undo log, one entry per placed task
+    private final int[] _order;
+    private final int[] _readyPositions;
+    private final int[] _numAddedReady;
+    private final int[] _overallFinishTimes;
+    private final int[] _maxPids;
+
+    /**
+     * Class constructor, the state with no task scheduled
+     * @param context data of the search
+     */
+    public MutableScheduleState(ScheduleContext context) {
+        int n = context.getNumNodes();
+        _context = context;
+        _startTimes = new int[n];
+        _processors = new int[n];
+        _previousTasks = new int[n];
+        _processorFinishTimes = new int[context.getNumProcessors() + 1];
+        _processorLastTasks = new int[context.getNumProcessors() + 1];
+        _processorLabels = new int[context.getNumProcessors() + 1];
+        _otherProcessorLabels = new int[context.getNumProcessors() + 1];
+        _unscheduledParents = new int[n];
+        _ready = new int[n];
+        _order = new int[n];
+        _readyPositions = new int[n];
+        _numAddedReady = new int[n];
+        _overallFinishTimes = new int[n + 1];
+        _maxPids = new int[n + 1];
+        Arrays.fill(_startTimes, ScheduleState.UNSCHEDULED);
+        Arrays.fill(_processors, ScheduleState.UNSCHEDULED);
+        Arrays.fill(_processorLastTasks, ScheduleState.UNSCHEDULED);
+        for (int i = 0; i < n; i++) {
+            _unscheduledParents[i] = context.getParents(i).length;
+        }
+        int[] sources = context.getSources();
+        System.arraycopy(sources, 0, _ready, 0, sources.length);
+        _numReady = sources.length;
+        _remainingWork = context.getTotalWork();
+    }
+
+    /**
+     * Schedule a ready task after all tasks of this state
+     * @param index topological index of the task
+     * @param pid processor id
+     * @param startTime start time
+     */
+    public void place(int index, int pid, int startTime) {
+        int position = 0;
+        while (_ready[position] != index) {
+            position++;
+        }
+        _ready[position] = _ready[--_numReady];
+        int added = 0;
+        for (int child : _context.getChildren(index)) {
+            if (--_unscheduledParents[child] == 0) {
+                _ready[_numReady++] = child;
+                added++;
+            }
+        }
+
+        int finishTime = startTime + _context.getWeight(index);
+        _order[_size] = index;
+        _readyPositions[_size] = position;
+        _numAddedReady[_size] = added;
+        _overallFinishTimes[_size + 1] = Math.max(_overallFinishTimes[_size], finishTime);
+        _maxPids[_size + 1] = Math.max(_maxPids[_size], pid);
+        _size++;
+
+        _startTimes[index] = startTime;
+        _processors[index] = pid;
+        _previousTasks[index] = _processorLastTasks[pid];
+        _processorFinishTimes[pid] = finishTime;
+        _processorLastTasks[pid] = index;
+        _remainingWork -= _context.getWeight(index);
+        _hash ^= _context.getZobristKey(index, startTime);
+    }
+
+    /**
+     * Take back the last placed task
+     */
+    public void undo() {
+        _size--;
+        int index = _order[_size];
+        int pid = _processors[index];
+        _hash ^= _context.getZobristKey(index, _startTimes[index]);
+        _remainingWork += _context.getWeight(index);
+        int previous = _previousTasks[index];
+        _processorLastTasks[pid] = previous;
+        _processorFinishTimes[pid] = previous == ScheduleState.UNSCHEDULED ? 0 : getFinishTime(previous);
+        _startTimes[index] = ScheduleState.UNSCHEDULED;
+        _processors[index] = ScheduleState.UNSCHEDULED;
+
+        for (int child : _context.getChildren(index)) {
+            _unscheduledParents[child]++;
+        }
+        _numReady -= _numAddedReady[_size];
+        int position = _readyPositions[_size];
+        _ready[_numReady++] = _ready[position];
+        _ready[position] = index;
+    }
+
+    /**
+     * Get the canonical signature of the state, see {@link ScheduleState#getSignature()}.
+     * Built every time it is called.
+     * @param length length of the signature, extra entries after the tasks are 0
+     * @return signature
+     */
+    public long[] getSignature(int length) {
+        ScheduleState.fillCanonicalProcessors(_processors, _processorLabels);
+        return ScheduleState.signature(_startTimes, _processors, _processorLabels, length);
+    }
+
+    /**
+     * Check if a schedule given by its start times and processors is the same as this state up
+     * to the numbering of the processors, see {@link ScheduleState#isDuplicate(ScheduleState)}.
+     * Nothing is allocated.
+     * @param startTimes start time of every task by topological index
+     * @param processors processor of every task by topological index, {@link ScheduleState#UNSCHEDULED} if none
+     * @return true if the schedules are duplicates
+     */
+    public boolean isDuplicate(int[] startTimes, int[] processors) {
+        ScheduleState.fillCanonicalProcessors(_processors, _processorLabels);
+        ScheduleState.fillCanonicalProcessors(processors, _otherProcessorLabels);
+        for (int i = 0; i < _processors.length; i++) {
+            int pid = _processors[i];
+            int otherPid = processors[i];
+            if (pid == ScheduleState.UNSCHEDULED || otherPid == ScheduleState.UNSCHEDULED) {
+                if (pid != otherPid) {
+                    return false;
+                }
+            } else if (_startTimes[i] != startTimes[i]
+                    || _processorLabels[pid] != _otherProcessorLabels[otherPid]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* ------------------------------
+     *  Getter and Setters
+     *
+     * ------------------------------
+     */
+
+    /**
+     * @return data of the search
+     */
+    public ScheduleContext getContext() {
+        return _context;
+    }
+
+    /**
+     * @return number of scheduled tasks
+     */
+    public int getSize() {
+        return _size;
+    }
+
+    /**
+     * @param i position in the placing order, from 0 to {@link #getSize()} - 1
+     * @return topological index of the task placed at that position
+     */
+    public int getPlacedTask(int i) {
+        return _order[i];
+    }
+
+    /**
+     * @return topological index of the last placed task
+     */
+    public int getLastPlacedTask() {
+        return _order[_size - 1];
+    }
+
+    /**
+     * @return sum of the weights of the unscheduled tasks
+     */
+    public int getRemainingWork() {
+        return _remainingWork;
+    }
+
+    /**
+     * @return latest finish time of the scheduled tasks, 0 if none is scheduled
+     */
+    public int getOverallFinishTime() {
+        return _overallFinishTimes[_size];
+    }
+
+    /**
+     * @return largest processor id used, 0 if none is scheduled
+     */
+    public int getMaxPid() {
+        return _maxPids[_size];
+    }
+
+    /**
+     * @return Zobrist hash of the scheduled tasks and their start times, the same as
+     * {@link ScheduleState#getHash()} for the same tasks
+     */
+    public long getHash() {
+        return _hash;
+    }
+
+    /**
+     * @return number of ready tasks
+     */
+    public int getNumReady() {
+        return _numReady;
+    }
+
+    /**
+     * @param i position in the ready list, from 0 to {@link #getNumReady()} - 1
+     * @return topological index of the ready task
+     */
+    public int getReadyTask(int i) {
+        return _ready[i];
+    }
+
+    /**
+     * @param index topological index of the task
+     * @return true if the task is scheduled
+     */
+    public boolean isScheduled(int index) {
+        return _processors[index] != ScheduleState.UNSCHEDULED;
+    }
+
+    /**
+     * @param index topological index of the task
+     * @return start time, {@link ScheduleState#UNSCHEDULED} if the task is not scheduled
+     */
+    public int getStartTime(int index) {
+        return _startTimes[index];
+    }
+
+    /**
+     * @param index topological index of a scheduled task
+     * @return finish time
+     */
+    public int getFinishTime(int index) {
+        return _startTimes[index] + _context.getWeight(index);
+    }
+
+    /**
+     * @param index topological index of the task
+     * @return processor id, {@link ScheduleState#UNSCHEDULED} if the task is not scheduled
+     */
+    public int getProcessor(int index) {
+        return _processors[index];
+    }
+
+    /**
+     * @param index topological index of a scheduled task
+     * @return topological index of the task before it on its processor,
+     * {@link ScheduleState#UNSCHEDULED} if it is the first
+     */
+    public int getPreviousTask(int index) {
+        return _previousTasks[index];
+    }
+
+    /**
+     * @param pid processor id
+     * @return finish time of the last task on the processor, 0 if it has none
+     */
+    public int getProcessorFinishTime(int pid) {
+        return _processorFinishTimes[pid];
+    }
+
+    /**
+     * @param pid processor id
+     * @return topological index of the last task on the processor,
+     * {@link ScheduleState#UNSCHEDULED} if it has none
+     */
+    public int getLastTask(int pid) {
+        return _processorLastTasks[pid];
+    }
+}
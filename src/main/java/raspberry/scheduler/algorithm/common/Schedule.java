@@ -21,6 +21,9 @@ public class Schedule {
 
     private int _maxPid;
 
+    // compact state of the whole partial schedule, null if the schedule does not keep one
+    private ScheduleState _state;
+
     /**
      * Default constructor for head of linked list
      * @param scheduledTask prior task in linked list
@@ -30,6 +33,16 @@ public class Schedule {
         _scheduledTask = scheduledTask;
     }
 
+    /**
+     * Constructor for head of linked list that keeps a state
+     * @param scheduledTask prior task in linked list
+     * @param state state of the partial schedule including scheduledTask
+     */
+    public Schedule(ScheduledTask scheduledTask, ScheduleState state){
+        this(scheduledTask);
+        _state = state;
+    }
+
     /**
      * Constructor for any child schedules
      * @param parentSchedule parent schedule
@@ -41,6 +54,17 @@ public class Schedule {
         _size = parentSchedule.getSize() + 1;
     }
 
+    /**
+     * Constructor for child schedules that keep a state
+     * @param parentSchedule parent schedule
+     * @param scheduledTask prior task in linked list
+     * @param state state of the partial schedule including scheduledTask
+     */
+    public Schedule(Schedule parentSchedule, ScheduledTask scheduledTask, ScheduleState state){
+        this(parentSchedule, scheduledTask);
+        _state = state;
+    }
+
     /**
      * Gets the full path of the partial schedule.
      * (as Schedule instance is linked with parents like linked list)
@@ -87,6 +111,14 @@ public class Schedule {
         this._parent = _parent;
     }
 
+    /**
+     * Get the compact state of the partial schedule
+     * @return state, null if the schedule does not keep one
+     */
+    public ScheduleState getState() {
+        return _state;
+    }
+
     /**
      * Get size of schedule
      * @return size
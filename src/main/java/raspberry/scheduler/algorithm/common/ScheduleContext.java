@@ -0,0 +1,246 @@
+package raspberry.scheduler.algorithm.common;
+
+import raspberry.scheduler.graph.IEdge;
+import raspberry.scheduler.graph.IGraph;
+import raspberry.scheduler.graph.INode;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Data shared by every partial schedule of one search: the graph, the number of processors,
+ * the task weights and the edges of every task by topological index.
+ * Created once per search and never modified.
+ * @author Takahiro
+ */
+public class ScheduleContext {
+    private static final long ZOBRIST_SEED = 0x5DEECE66DL;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final IGraph _graph;
+    private final int _numProcessors;
+    private final int[] _weights;
+    private final int[][] _parents;
+    private final int[][] _parentCosts;
+    private final int[][] _children;
+    private final int[][] _childCosts;
+    private final int[] _sources;
+    private final int _totalWork;
+    private final long[] _zobristKeys;
+
+    /**
+     * Class constructor
+     * @param graph graph being scheduled
+     * @param numProcessors number of processors, processor ids go from 0 to numProcessors
+     */
+    public ScheduleContext(IGraph graph, int numProcessors) {
+        _graph = graph;
+        _numProcessors = numProcessors;
+        _weights = new int[graph.getNumNodes()];
+        _parents = new int[_weights.length][];
+        _parentCosts = new int[_weights.length][];
+        _children = new int[_weights.length][];
+        _childCosts = new int[_weights.length][];
+        int numSources = 0;
+        int totalWork = 0;
+        for (int i = 0; i < _weights.length; i++) {
+            INode node = graph.getNodeByIndex(i);
+            _weights[i] = node.getValue();
+            List<IEdge> edges = graph.getIngoingEdges(node);
+            _parents[i] = new int[edges.size()];
+            _parentCosts[i] = new int[edges.size()];
+            for (int j = 0; j < edges.size(); j++) {
+                _parents[i][j] = graph.getIndex(edges.get(j).getParent());
+                _parentCosts[i][j] = edges.get(j).getWeight();
+            }
+            edges = graph.getOutgoingEdges(node);
+            _children[i] = new int[edges.size()];
+            _childCosts[i] = new int[edges.size()];
+            for (int j = 0; j < edges.size(); j++) {
+                _children[i][j] = graph.getIndex(edges.get(j).getChild());
+                _childCosts[i][j] = edges.get(j).getWeight();
+            }
+            if (_parents[i].length == 0) {
+                numSources++;
+            }
+            totalWork += _weights[i];
+        }
+        _sources = new int[numSources];
+        numSources = 0;
+        for (int i = 0; i < _weights.length; i++) {
+            if (_parents[i].length == 0) {
+                _sources[numSources++] = i;
+            }
+        }
+        _totalWork = totalWork;
+
+        Random random = new Random(ZOBRIST_SEED);
+        _zobristKeys = new long[_weights.length];
+        for (int i = 0; i < _weights.length; i++) {
+            _zobristKeys[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Get the Zobrist key of a task placed at a start time. The hash of a partial schedule is the
+     * XOR of the keys of its tasks, so placing a task updates the hash in constant time.
+     * Processors are not part of the key: the canonical label of a processor can change when a
+     * task with a smaller index joins it, so it cannot be updated incrementally. Schedules that
+     * only differ by a permutation of their processors therefore always share a hash, and are
+     * compared with their canonical labels by {@link ScheduleState#isDuplicate(ScheduleState)}.
+     * @param index topological index of the task
+     * @param startTime start time of the task
+     * @return 64 bit key
+     */
+    public long getZobristKey(int index, int startTime) {
+        // start times are unbounded, so the key is derived by mixing rather than looked up
+        long z = _zobristKeys[index] + startTime * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Computes the earliest time a task can start on a processor after the tasks of a state.
+     * Only the incoming edges of the task are read.
+     * @param state partial schedule with all parents of the task scheduled
+     * @param pid processor id
+     * @param index topological index of the task
+     * @return earliest start time
+     */
+    public int getEarliestStartTime(ScheduleState state, int pid, int index) {
+        int start = state.getProcessorFinishTime(pid);
+        int[] parents = _parents[index];
+        for (int j = 0; j < parents.length; j++) {
+            int parentPid = state.getProcessor(parents[j]);
+            if (parentPid != pid && parentPid != ScheduleState.UNSCHEDULED) {
+                start = Math.max(start, state.getFinishTime(parents[j]) + _parentCosts[index][j]);
+            }
+        }
+        return start;
+    }
+
+    /**
+     * Computes the earliest time a task can start on a processor after the tasks of a state
+     * that is changed in place, see {@link #getEarliestStartTime(ScheduleState, int, int)}
+     * @param state partial schedule with all parents of the task scheduled
+     * @param pid processor id
+     * @param index topological index of the task
+     * @return earliest start time
+     */
+    public int getEarliestStartTime(MutableScheduleState state, int pid, int index) {
+        int start = state.getProcessorFinishTime(pid);
+        int[] parents = _parents[index];
+        for (int j = 0; j < parents.length; j++) {
+            int parentPid = state.getProcessor(parents[j]);
+            if (parentPid != pid && parentPid != ScheduleState.UNSCHEDULED) {
+                start = Math.max(start, state.getFinishTime(parents[j]) + _parentCosts[index][j]);
+            }
+        }
+        return start;
+    }
+
+    /* ------------------------------
+     *  Getter and Setters
+     *
+     * ------------------------------
+     */
+
+    /**
+     * @return graph being scheduled
+     */
+    public IGraph getGraph() {
+        return _graph;
+    }
+
+    /**
+     * @return number of tasks
+     */
+    public int getNumNodes() {
+        return _weights.length;
+    }
+
+    /**
+     * @return number of processors
+     */
+    public int getNumProcessors() {
+        return _numProcessors;
+    }
+
+    /**
+     * Get the weight of a task
+     * @param index topological index of the task
+     * @return weight
+     */
+    public int getWeight(int index) {
+        return _weights[index];
+    }
+
+    /**
+     * Get the parents of a task
+     * @param index topological index of the task
+     * @return topological indices of the parents
+     */
+    public int[] getParents(int index) {
+        return _parents[index];
+    }
+
+    /**
+     * Get the communication costs from the parents of a task
+     * @param index topological index of the task
+     * @return costs, in the order of {@link #getParents(int)}
+     */
+    public int[] getParentCosts(int index) {
+        return _parentCosts[index];
+    }
+
+    /**
+     * Get the children of a task
+     * @param index topological index of the task
+     * @return topological indices of the children
+     */
+    public int[] getChildren(int index) {
+        return _children[index];
+    }
+
+    /**
+     * Get the communication costs to the children of a task
+     * @param index topological index of the task
+     * @return costs, in the order of {@link #getChildren(int)}
+     */
+    public int[] getChildCosts(int index) {
+        return _childCosts[index];
+    }
+
+    /**
+     * @return topological indices of the tasks without parents, in topological order
+     */
+    public int[] getSources() {
+        return _sources;
+    }
+
+    /**
+     * @return sum of the weights of all tasks
+     */
+    public int getTotalWork() {
+        return _totalWork;
+    }
+
+    /**
+     * Get the topological index of a task
+     * @param node task
+     * @return index
+     */
+    public int getIndex(INode node) {
+        return _graph.getIndex(node);
+    }
+
+    /**
+     * Get a task by topological index
+     * @param index topological index
+     * @return task
+     */
+    public INode getNode(int index) {
+        return _graph.getNodeByIndex(index);
+    }
+}
@@ -0,0 +1,328 @@
+package raspberry.scheduler.algorithm.common;
+
+import java.util.Arrays;
+
+/**
+ * Compact state of a partial schedule: start time and processor of every task by topological
+ * index, the set of scheduled tasks as a bit set, the finish time and last task of every
+ * processor, and the ready tasks, the unscheduled tasks whose parents are all scheduled.
+ * A state is never modified once created, scheduling a task gives a new state, so a child
+ * state can be handed out while its parent is still in use.
+ * @author Takahiro
+ */
+public class ScheduleState {
+    public static final int UNSCHEDULED = -1;
+
+    private final ScheduleContext _context;
+    private final int[] _startTimes;
+    private final int[] _processors;
+    private final long[] _scheduled;
+    private final int[] _processorFinishTimes;
+    private final int[] _processorLastTasks;
+    private final int[] _ready;
+    private final int _size;
+    private final int _remainingWork;
+    private final int _overallFinishTime;
+    private final long _hash;
+    // canonical processor labels and signature, built the first time the state is compared
+    private volatile int[] _canonicalProcessors;
+    private volatile long[] _signature;
+
+    /**
+     * Class constructor, the state with no task scheduled
+     * @param context data of the search
+     */
+    public ScheduleState(ScheduleContext context) {
+        int n = context.getNumNodes();
+        _context = context;
+        _startTimes = new int[n];
+        _processors = new int[n];
+        _scheduled = new long[(n + 63) >>> 6];
+        _processorFinishTimes = new int[context.getNumProcessors() + 1];
+        _processorLastTasks = new int[context.getNumProcessors() + 1];
+        Arrays.fill(_startTimes, UNSCHEDULED);
+        Arrays.fill(_processors, UNSCHEDULED);
+        Arrays.fill(_processorLastTasks, UNSCHEDULED);
+        _ready = context.getSources();
+        _size = 0;
+        _remainingWork = context.getTotalWork();
+        _overallFinishTime = 0;
+        _hash = 0;
+    }
+
+    /**
+     * Copy a state and schedule one more task
+     */
+    private ScheduleState(ScheduleState parent, int index, int pid, int startTime) {
+        _context = parent._context;
+        _startTimes = parent._startTimes.clone();
+        _processors = parent._processors.clone();
+        _scheduled = parent._scheduled.clone();
+        _processorFinishTimes = parent._processorFinishTimes.clone();
+        _processorLastTasks = parent._processorLastTasks.clone();
+        _size = parent._size + 1;
+        _remainingWork = parent._remainingWork - _context.getWeight(index);
+        _overallFinishTime = Math.max(parent._overallFinishTime, startTime + _context.getWeight(index));
+        _hash = parent._hash ^ _context.getZobristKey(index, startTime);
+
+        _startTimes[index] = startTime;
+        _processors[index] = pid;
+        _scheduled[index >>> 6] |= 1L << index;
+        _processorFinishTimes[pid] = startTime + _context.getWeight(index);
+        _processorLastTasks[pid] = index;
+        _ready = nextReady(parent._ready, index);
+    }
+
+    /**
+     * Ready tasks after scheduling a task: the task is removed and those of its children
+     * whose parents are now all scheduled are added.
+     */
+    private int[] nextReady(int[] ready, int index) {
+        int[] children = _context.getChildren(index);
+        int[] next = new int[ready.length + children.length];
+        int size = 0;
+        for (int task : ready) {
+            if (task != index) {
+                next[size++] = task;
+            }
+        }
+        for (int child : children) {
+            if (isScheduled(child)) {
+                continue;
+            }
+            boolean isReady = true;
+            for (int parent : _context.getParents(child)) {
+                if (!isScheduled(parent)) {
+                    isReady = false;
+                    break;
+                }
+            }
+            if (isReady) {
+                next[size++] = child;
+            }
+        }
+        return size == next.length ? next : Arrays.copyOf(next, size);
+    }
+
+    /**
+     * Schedule a task after all tasks of this state
+     * @param scheduledTask task, processor and start time
+     * @return new state
+     */
+    public ScheduleState schedule(ScheduledTask scheduledTask) {
+        return new ScheduleState(this, _context.getIndex(scheduledTask.getTask()),
+                scheduledTask.getProcessorID(), scheduledTask.getStartTime());
+    }
+
+    /**
+     * Check if two states schedule the same tasks at the same start times,
+     * on any processors
+     * @param other other state
+     * @return true if the start times are the same
+     */
+    public boolean hasSameStartTimes(ScheduleState other) {
+        return _hash == other._hash && _size == other._size && Arrays.equals(_startTimes, other._startTimes);
+    }
+
+    /**
+     * Check if two states are the same schedule up to the numbering of the processors: the same
+     * tasks at the same start times, grouped onto processors the same way.
+     * @param other other state
+     * @return true if the states are duplicates
+     */
+    public boolean isDuplicate(ScheduleState other) {
+        return _hash == other._hash && _size == other._size
+                && Arrays.equals(getSignature(), other.getSignature());
+    }
+
+    /**
+     * Get the canonical label of a processor. The used processors are numbered from 1 in the order
+     * of the topological index of their first task, so two states that only differ by a
+     * permutation of their processors label every task the same way.
+     * @param pid processor id
+     * @return canonical label, {@link #UNSCHEDULED} if the processor has no task
+     */
+    public int getCanonicalProcessor(int pid) {
+        return getCanonicalProcessors()[pid];
+    }
+
+    /**
+     * Canonical label of every processor id. Built once and kept.
+     */
+    private int[] getCanonicalProcessors() {
+        int[] labels = _canonicalProcessors;
+        if (labels == null) {
+            labels = canonicalProcessors(_processors, _processorFinishTimes.length);
+            _canonicalProcessors = labels;
+        }
+        return labels;
+    }
+
+    /**
+     * Number the used processors from 1 while walking the tasks in topological order
+     * @param processors processor of every task by topological index, {@link #UNSCHEDULED} if none
+     * @param numIds number of processor ids
+     * @return canonical label of every processor id, {@link #UNSCHEDULED} if it has no task
+     */
+    static int[] canonicalProcessors(int[] processors, int numIds) {
+        int[] labels = new int[numIds];
+        fillCanonicalProcessors(processors, labels);
+        return labels;
+    }
+
+    /**
+     * Number the used processors from 1 into an existing array, see {@link #canonicalProcessors(int[], int)}
+     * @param processors processor of every task by topological index, {@link #UNSCHEDULED} if none
+     * @param labels canonical label of every processor id, filled in
+     */
+    static void fillCanonicalProcessors(int[] processors, int[] labels) {
+        Arrays.fill(labels, UNSCHEDULED);
+        int next = 1;
+        for (int i = 0; i < processors.length && next < labels.length; i++) {
+            int pid = processors[i];
+            if (pid != UNSCHEDULED && labels[pid] == UNSCHEDULED) {
+                labels[pid] = next++;
+            }
+        }
+    }
+
+    /**
+     * Build a signature, see {@link #getSignature()}
+     * @param startTimes start time of every task by topological index
+     * @param processors processor of every task by topological index, {@link #UNSCHEDULED} if none
+     * @param labels canonical label of every processor id
+     * @param length length of the signature, at least the number of tasks
+     * @return signature, entries after the tasks are 0
+     */
+    static long[] signature(int[] startTimes, int[] processors, int[] labels, int length) {
+        long[] signature = new long[length];
+        for (int i = 0; i < startTimes.length; i++) {
+            int pid = processors[i];
+            signature[i] = pid == UNSCHEDULED ? UNSCHEDULED : ((long) startTimes[i] << 32) | labels[pid];
+        }
+        return signature;
+    }
+
+    /**
+     * Get the canonical signature of the state, one entry per task by topological index:
+     * the start time in the high 32 bits and the canonical processor label in the low 32 bits,
+     * or {@link #UNSCHEDULED} if the task is not scheduled. See {@link #getCanonicalProcessor(int)}.
+     * Built once and kept.
+     * @return signature
+     */
+    public long[] getSignature() {
+        long[] signature = _signature;
+        if (signature == null) {
+            signature = signature(_startTimes, _processors, getCanonicalProcessors(), _startTimes.length);
+            _signature = signature;
+        }
+        return signature;
+    }
+
+    /**
+     * Get the Zobrist hash of the scheduled tasks and their start times,
+     * see {@link ScheduleContext#getZobristKey(int, int)}
+     * @return 64 bit hash value
+     */
+    public long getHash() {
+        return _hash;
+    }
+
+    /* ------------------------------
+     *  Getter and Setters
+     *
+     * ------------------------------
+     */
+
+    /**
+     * @return data of the search
+     */
+    public ScheduleContext getContext() {
+        return _context;
+    }
+
+    /**
+     * @return number of scheduled tasks
+     */
+    public int getSize() {
+        return _size;
+    }
+
+    /**
+     * @return sum of the weights of the unscheduled tasks
+     */
+    public int getRemainingWork() {
+        return _remainingWork;
+    }
+
+    /**
+     * @return latest finish time of the scheduled tasks, 0 if none is scheduled
+     */
+    public int getOverallFinishTime() {
+        return _overallFinishTime;
+    }
+
+    /**
+     * @return number of ready tasks
+     */
+    public int getNumReady() {
+        return _ready.length;
+    }
+
+    /**
+     * @param i position in the ready list, from 0 to {@link #getNumReady()} - 1
+     * @return topological index of the ready task
+     */
+    public int getReadyTask(int i) {
+        return _ready[i];
+    }
+
+    /**
+     * @param index topological index of the task
+     * @return true if the task is scheduled
+     */
+    public boolean isScheduled(int index) {
+        return (_scheduled[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * @param index topological index of the task
+     * @return start time, {@link #UNSCHEDULED} if the task is not scheduled
+     */
+    public int getStartTime(int index) {
+        return _startTimes[index];
+    }
+
+    /**
+     * @param index topological index of a scheduled task
+     * @return finish time
+     */
+    public int getFinishTime(int index) {
+        return _startTimes[index] + _context.getWeight(index);
+    }
+
+    /**
+     * @param index topological index of the task
+     * @return processor id, {@link #UNSCHEDULED} if the task is not scheduled
+     */
+    public int getProcessor(int index) {
+        return _processors[index];
+    }
+
+    /**
+     * @param pid processor id
+     * @return finish time of the last task on the processor, 0 if it has none
+     */
+    public int getProcessorFinishTime(int pid) {
+        return _processorFinishTimes[pid];
+    }
+
+    /**
+     * @param pid processor id
+     * @return topological index of the last task on the processor,
+     * {@link #UNSCHEDULED} if it has none
+     */
+    public int getLastTask(int pid) {
+        return _processorLastTasks[pid];
+    }
+}
@@ -6,17 +6,25 @@ import raspberry.scheduler.algorithm.sma.MBSchedule;
 import raspberry.scheduler.graph.INode;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Hashtable;
 import java.util.List;
 
 /**
- * Solution class that represent a scheduling algorithm output
+ * Solution class that represent a scheduling algorithm output.
+ * A schedule with a {@link ScheduleState} is read straight from the state, so creating a
+ * solution costs nothing; the tasks are only grouped by processor the first time
+ * {@link #getNodes(int)} is called.
  * @author Takahiro
  */
 public class Solution implements OutputSchedule {
+    private ScheduleState _state;
     private Hashtable<INode, int[]> _table;
     private int _finshTime;
     private int _totalProcessorNum;
+    // tasks of processor pid are _processorTasks[_processorOffsets[pid]] to [_processorOffsets[pid + 1] - 1]
+    private volatile int[] _processorTasks;
+    private int[] _processorOffsets;
 
 
     /**
@@ -25,17 +33,11 @@ public class Solution implements OutputSchedule {
      * @param numP the specified number of processors that algorithm takes in as input
      */
     public Solution(ScheduleAStar schedule, int numP) {
-        _table = schedule.getPath();
-        for (INode node : _table.keySet()) {
-            _finshTime = Math.max(getStartTime(node) + node.getValue(), _finshTime);
-        }
-        _totalProcessorNum = numP;
+        this(schedule.getState(), schedule, numP);
     }
 
     public Solution(ScheduleB schedule, int numP) {
-        _table = schedule.getPath();
-        _finshTime = schedule.getOverallFinishTime();
-        _totalProcessorNum = numP;
+        this(schedule.getState(), schedule, numP);
     }
 
     /**
@@ -45,13 +47,54 @@ public class Solution implements OutputSchedule {
      * @param numP the specified number of processors that algorithm takes in as input
      */
     public Solution(MBSchedule schedule, int numP) {
-        _table = schedule.getPath();
-        for (INode node : _table.keySet()) {
-            _finshTime = Math.max(getStartTime(node) + node.getValue(), _finshTime);
+        this(schedule.getState(), schedule, numP);
+    }
+
+    /**
+     * Read the state of the schedule if it has one, else walk the schedule
+     */
+    private Solution(ScheduleState state, Schedule schedule, int numP) {
+        _state = state;
+        if (state != null) {
+            _finshTime = state.getOverallFinishTime();
+        } else {
+            _table = schedule.getPath();
+            for (INode node : _table.keySet()) {
+                _finshTime = Math.max(getStartTime(node) + node.getValue(), _finshTime);
+            }
         }
         _totalProcessorNum = numP;
     }
 
+    /**
+     * Group the scheduled tasks by processor, in topological order
+     */
+    private void groupByProcessor() {
+        int n = _state.getContext().getNumNodes();
+        int maxPid = 0;
+        for (int i = 0; i < n; i++) {
+            maxPid = Math.max(maxPid, _state.getProcessor(i));
+        }
+        int[] offsets = new int[maxPid + 2];
+        for (int i = 0; i < n; i++) {
+            if (_state.isScheduled(i)) {
+                offsets[_state.getProcessor(i) + 1]++;
+            }
+        }
+        for (int pid = 1; pid < offsets.length; pid++) {
+            offsets[pid] += offsets[pid - 1];
+        }
+        int[] tasks = new int[_state.getSize()];
+        int[] next = Arrays.copyOf(offsets, offsets.length);
+        for (int i = 0; i < n; i++) {
+            if (_state.isScheduled(i)) {
+                tasks[next[_state.getProcessor(i)]++] = i;
+            }
+        }
+        _processorOffsets = offsets;
+        _processorTasks = tasks;
+    }
+
     /* ------------------------------
      *  Getter and Setters
      *
@@ -65,11 +108,17 @@ public class Solution implements OutputSchedule {
 
     @Override
     public int getProcessorNum(INode node) {
+        if (_state != null) {
+            return _state.getProcessor(_state.getContext().getIndex(node));
+        }
         return _table.get(node)[2];
     }
 
     @Override
     public int getStartTime(INode node) {
+        if (_state != null) {
+            return _state.getStartTime(_state.getContext().getIndex(node));
+        }
         return _table.get(node)[0];
     }
 
@@ -80,12 +129,26 @@ public class Solution implements OutputSchedule {
 
     @Override
     public int getNumTasks() {
+        if (_state != null) {
+            return _state.getSize();
+        }
         return _table.size();
     }
 
     @Override
     public List<INode> getNodes(int pid) {
         List<INode> nodesList = new ArrayList<INode>();
+        if (_state != null) {
+            if (_processorTasks == null) {
+                groupByProcessor();
+            }
+            if (pid >= 0 && pid + 1 < _processorOffsets.length) {
+                for (int i = _processorOffsets[pid]; i < _processorOffsets[pid + 1]; i++) {
+                    nodesList.add(_state.getContext().getNode(_processorTasks[i]));
+                }
+            }
+            return nodesList;
+        }
 
         for (INode node : _table.keySet()) {
             if (_table.get(node)[2] == pid) {
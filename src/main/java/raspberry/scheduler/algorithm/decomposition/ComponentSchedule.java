@@ -0,0 +1,79 @@
+package raspberry.scheduler.algorithm.decomposition;
+
+import raspberry.scheduler.algorithm.common.OutputSchedule;
+import raspberry.scheduler.graph.INode;
+
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+
+/**
+ * Schedule of a whole graph put together from the schedules of its components.
+ * @author Takahiro
+ */
+public class ComponentSchedule implements OutputSchedule {
+    private Hashtable<INode, int[]> _table = new Hashtable<INode, int[]>();
+    private int _finishTime;
+    private int _totalProcessorNum;
+
+    /**
+     * Class constructor
+     * @param numP number of processors of the schedule
+     */
+    ComponentSchedule(int numP) {
+        _totalProcessorNum = numP;
+    }
+
+    /**
+     * Place a task
+     * @param node task of the whole graph
+     * @param start start time
+     * @param pid processor, from 1
+     */
+    void add(INode node, int start, int pid) {
+        _table.put(node, new int[]{start, pid});
+        _finishTime = Math.max(_finishTime, start + node.getValue());
+    }
+
+    /* ------------------------------
+     *  Getter and Setters
+     *
+     * ------------------------------
+     */
+
+    @Override
+    public int getTotalProcessorNum() {
+        return _totalProcessorNum;
+    }
+
+    @Override
+    public int getProcessorNum(INode node) {
+        return _table.get(node)[1];
+    }
+
+    @Override
+    public int getStartTime(INode node) {
+        return _table.get(node)[0];
+    }
+
+    @Override
+    public int getFinishTime() {
+        return _finishTime;
+    }
+
+    @Override
+    public int getNumTasks() {
+        return _table.size();
+    }
+
+    @Override
+    public List<INode> getNodes(int pid) {
+        List<INode> nodesList = new ArrayList<INode>();
+        for (INode node : _table.keySet()) {
+            if (_table.get(node)[1] == pid) {
+                nodesList.add(node);
+            }
+        }
+        return nodesList;
+    }
+}
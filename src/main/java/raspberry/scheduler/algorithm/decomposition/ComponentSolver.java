@@ -0,0 +1,434 @@
+package raspberry.scheduler.algorithm.decomposition;
+
+import raspberry.scheduler.algorithm.Algorithm;
+import raspberry.scheduler.algorithm.bnb.BNBParallel;
+import raspberry.scheduler.algorithm.bnb.InPlaceBNB;
+import raspberry.scheduler.algorithm.common.MemoryBudget;
+import raspberry.scheduler.algorithm.common.OutputSchedule;
+import raspberry.scheduler.graph.IEdge;
+import raspberry.scheduler.graph.IGraph;
+import raspberry.scheduler.graph.INode;
+import raspberry.scheduler.graph.adjacencylist.Graph;
+import raspberry.scheduler.graph.csr.CSRGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Solves a graph made of several weakly connected components one component at a time.
+ *
+ * Every component is solved on 1 to P processors, in parallel on one shared thread pool.
+ * The solutions are combined in two ways and the better one is kept:
+ * <ul>
+ * <li> processor partition: every component gets its own processors, the split of the P
+ * processors is chosen by dynamic programming. Only possible with at most P components.
+ * <li> packing: every component runs on a single processor, one after the other, and the
+ * components are packed onto the processors to balance the load. The packing is exact for
+ * up to {@link #EXACT_PACKING_LIMIT} components and longest processing time first above.
+ * </ul>
+ * The optimal schedule is at least the optimal schedule of every component on all P processors
+ * and at least the total work divided by P. If the combined schedule reaches that lower bound it
+ * is optimal, otherwise it is returned as a bounded result, no longer than the best of the two
+ * combinations.
+ *
+ * The packing needs no search, so it is built first. If it already reaches the lower bound of
+ * critical paths and work no component is searched, and a component is only searched on the
+ * numbers of processors that could still beat the packing.
+ *
+ * With {@link #setJointSearch(boolean)} a combined schedule that misses the lower bound is
+ * improved by searching the whole graph, bounded by the combined schedule and stopping as soon
+ * as it reaches the lower bound. In the worst case this search costs as much as solving the graph
+ * without splitting it, on top of the component searches.
+ * @author Takahiro
+ */
+public class ComponentSolver extends Algorithm {
+    public static final int EXACT_PACKING_LIMIT = 16;
+
+    private IGraph _graph;
+    private int _numP;
+    private int _numCores;
+
+    private List<IGraph> _components;
+    // _schedules[c][p] is an optimal schedule of component c on p processors, p >= 2
+    private OutputSchedule[][] _schedules;
+    private int[][] _makespans;     // Integer.MAX_VALUE where the component was not searched
+    private int[] _work;
+    private int[] _criticalPaths;
+    private boolean _jointSearch = false;
+
+    /**
+     * Class constructor
+     * @param graphToSolve  : graph to solve
+     * @param numProcessors : number of processors allowed to use for scheduling.
+     * @param numCores      : number of threads to solve with.
+     */
+    public ComponentSolver(IGraph graphToSolve, int numProcessors, int numCores) {
+        super(graphToSolve);
+        _graph = graphToSolve;
+        _numP = getProcessorBound(graphToSolve, numProcessors);
+        _numCores = Math.max(1, numCores);
+    }
+
+    /**
+     * Search the whole graph when the combined schedule misses the lower bound, so the schedule
+     * found is always optimal. Off by default: the combined schedule is returned.
+     * @param jointSearch : True to search the whole graph
+     */
+    public void setJointSearch(boolean jointSearch) {
+        _jointSearch = jointSearch;
+    }
+
+    @Override
+    public OutputSchedule findPath() {
+        _components = split();
+        if (_components.size() <= 1) {
+            return solve(Integer.MAX_VALUE, 0);
+        }
+        measureComponents();
+
+        int lowerBound = 0;
+        long totalWork = 0;
+        for (int c = 0; c < _components.size(); c++) {
+            lowerBound = Math.max(lowerBound, _criticalPaths[c]);
+            totalWork += _work[c];
+        }
+        lowerBound = (int) Math.max(lowerBound, (totalWork + _numP - 1) / _numP);
+        ComponentSchedule packing = pack();
+        if (packing.getFinishTime() <= lowerBound) {
+            return packing;
+        }
+
+        solveComponents(packing.getFinishTime());
+        for (int c = 0; c < _components.size(); c++) {
+            if (_makespans[c][_numP] != Integer.MAX_VALUE) {
+                lowerBound = Math.max(lowerBound, _makespans[c][_numP]);
+            }
+        }
+        ComponentSchedule partition = partition();
+        ComponentSchedule best = packing;
+        if (partition != null && partition.getFinishTime() < best.getFinishTime()) {
+            best = partition;
+        }
+        if (best.getFinishTime() <= lowerBound || !_jointSearch) {
+            return best;
+        }
+        OutputSchedule schedule = solve(best.getFinishTime(), lowerBound);
+        return schedule == null ? best : schedule;
+    }
+
+    /**
+     * Search the whole graph
+     * @param bound upper bound of the optimal schedule
+     * @param lowerBound lower bound of the optimal schedule, the search stops when it reaches it
+     */
+    private OutputSchedule solve(int bound, int lowerBound) {
+        Algorithm search;
+        if (_numCores > 1) {
+            BNBParallel parallel = new BNBParallel(_graph, _numP, bound, _numCores);
+            parallel.setLowerBound(lowerBound);
+            search = parallel;
+        } else {
+            InPlaceBNB sequential = new InPlaceBNB(_graph, _numP, bound);
+            sequential.setLowerBound(lowerBound);
+            search = sequential;
+        }
+        search.setMemoryBudget(getMemoryBudget());
+        return search.findPath();
+    }
+
+    /**
+     * Split the graph into its weakly connected components, each one a new graph of the same
+     * representation with its tasks added in topological order.
+     * @return components, ordered by their first task
+     */
+    private List<IGraph> split() {
+        int n = _graph.getNumNodes();
+        int[] component = new int[n];
+        Arrays.fill(component, -1);
+        int[] stack = new int[n];
+        int numComponents = 0;
+        for (int root = 0; root < n; root++) {
+            if (component[root] >= 0) {
+                continue;
+            }
+            int size = 0;
+            stack[size++] = root;
+            component[root] = numComponents;
+            while (size > 0) {
+                INode node = _graph.getNodeByIndex(stack[--size]);
+                for (IEdge edge : _graph.getOutgoingEdges(node)) {
+                    int v = _graph.getIndex(edge.getChild());
+                    if (component[v] < 0) {
+                        component[v] = numComponents;
+                        stack[size++] = v;
+                    }
+                }
+                for (IEdge edge : _graph.getIngoingEdges(node)) {
+                    int v = _graph.getIndex(edge.getParent());
+                    if (component[v] < 0) {
+                        component[v] = numComponents;
+                        stack[size++] = v;
+                    }
+                }
+            }
+            numComponents++;
+        }
+
+        List<IGraph> components = new ArrayList<IGraph>();
+        if (numComponents <= 1) {
+            return components;
+        }
+        for (int c = 0; c < numComponents; c++) {
+            String name = _graph.getName() + "_" + c;
+            components.add(_graph instanceof CSRGraph ? new CSRGraph(name) : new Graph(name));
+        }
+        for (int u = 0; u < n; u++) {
+            INode node = _graph.getNodeByIndex(u);
+            components.get(component[u]).addNode(node.getName(), node.getValue());
+        }
+        for (int u = 0; u < n; u++) {
+            for (IEdge edge : _graph.getOutgoingEdges(_graph.getNodeByIndex(u))) {
+                components.get(component[u]).addEdge(
+                        edge.getParent().getName(), edge.getChild().getName(), edge.getWeight());
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Compute the work and the critical path of every component, the components are built in
+     * topological order. Communication costs are left out of the critical path, it stays a
+     * lower bound.
+     */
+    private void measureComponents() {
+        int numComponents = _components.size();
+        _work = new int[numComponents];
+        _criticalPaths = new int[numComponents];
+        for (int c = 0; c < numComponents; c++) {
+            IGraph component = _components.get(c);
+            int[] finish = new int[component.getNumNodes()];
+            for (int i = 0; i < component.getNumNodes(); i++) {
+                INode node = component.getNodeByIndex(i);
+                int start = 0;
+                for (IEdge edge : component.getIngoingEdges(node)) {
+                    start = Math.max(start, finish[component.getIndex(edge.getParent())]);
+                }
+                finish[i] = start + node.getValue();
+                _work[c] += node.getValue();
+                _criticalPaths[c] = Math.max(_criticalPaths[c], finish[i]);
+            }
+        }
+    }
+
+    /**
+     * Solve every component on 2 to P processors on a shared thread pool. One processor needs no
+     * search, the makespan is the work of the component. A number of processors is skipped when
+     * the critical path or the work of the component already reaches the bound.
+     * @param bound finish time of the packing, only shorter component schedules are useful
+     */
+    private void solveComponents(int bound) {
+        int numComponents = _components.size();
+        _schedules = new OutputSchedule[numComponents][_numP + 1];
+        _makespans = new int[numComponents][_numP + 1];
+
+        ExecutorService executor = Executors.newFixedThreadPool(_numCores);
+        List<Future<OutputSchedule>> futures = new ArrayList<Future<OutputSchedule>>();
+        int[] limits = new int[numComponents];
+        // the searches running at the same time share the budget
+        MemoryBudget memoryBudget = getMemoryBudget().split(_numCores);
+        try {
+            for (int c = 0; c < numComponents; c++) {
+                IGraph component = _components.get(c);
+                // build the shared tables once before the threads read them
+                component.getRankTable();
+                component.getIdenticalTaskTable();
+                limits[c] = getProcessorBound(component, _numP);
+                for (int p = 2; p <= limits[c]; p++) {
+                    if (!canImprove(c, p, bound)) {
+                        continue;
+                    }
+                    final int numProcessors = p;
+                    futures.add(executor.submit(() -> {
+                        InPlaceBNB search = new InPlaceBNB(component, numProcessors, Integer.MAX_VALUE);
+                        search.setMemoryBudget(memoryBudget);
+                        return search.findPath();
+                    }));
+                }
+            }
+
+            int next = 0;
+            for (int c = 0; c < numComponents; c++) {
+                _makespans[c][1] = _work[c];
+                for (int p = 2; p <= _numP; p++) {
+                    if (p <= limits[c] && canImprove(c, p, bound)) {
+                        _schedules[c][p] = futures.get(next++).get();
+                        _makespans[c][p] = _schedules[c][p].getFinishTime();
+                    } else if (p <= limits[c]) {
+                        _makespans[c][p] = Integer.MAX_VALUE;
+                    } else {
+                        _schedules[c][p] = _schedules[c][p - 1];
+                        _makespans[c][p] = _makespans[c][p - 1];
+                    }
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException("Failed to solve a component", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @param c component
+     * @param p number of processors
+     * @param bound finish time to beat
+     * @return True : if the component may finish before the bound on p processors
+     */
+    private boolean canImprove(int c, int p, int bound) {
+        return _criticalPaths[c] < bound && (_work[c] + p - 1) / p < bound;
+    }
+
+    /**
+     * Give every component its own processors, choosing the number of processors of each
+     * component to minimise the longest component.
+     * @return combined schedule, null if there are more components than processors
+     */
+    private ComponentSchedule partition() {
+        int numComponents = _components.size();
+        if (numComponents > _numP) {
+            return null;
+        }
+        // best[c][q]: shortest schedule of the first c components on q processors
+        int[][] best = new int[numComponents + 1][_numP + 1];
+        int[][] choice = new int[numComponents + 1][_numP + 1];
+        for (int[] row : best) {
+            Arrays.fill(row, Integer.MAX_VALUE);
+        }
+        Arrays.fill(best[0], 0);
+        for (int c = 1; c <= numComponents; c++) {
+            for (int q = c; q <= _numP; q++) {
+                for (int p = 1; p <= q - (c - 1); p++) {
+                    if (best[c - 1][q - p] == Integer.MAX_VALUE) {
+                        continue;
+                    }
+                    int makespan = Math.max(best[c - 1][q - p], _makespans[c - 1][p]);
+                    if (makespan < best[c][q]) {
+                        best[c][q] = makespan;
+                        choice[c][q] = p;
+                    }
+                }
+            }
+        }
+
+        ComponentSchedule schedule = new ComponentSchedule(_numP);
+        int q = _numP;
+        int offset = 0;
+        for (int c = numComponents; c >= 1; c--) {
+            int p = choice[c][q];
+            IGraph component = _components.get(c - 1);
+            if (p == 1) {
+                addSequential(schedule, component, offset + 1, 0);
+            } else {
+                for (INode node : component.getAllNodes()) {
+                    schedule.add(_graph.getNode(node.getName()),
+                            _schedules[c - 1][p].getStartTime(node),
+                            offset + _schedules[c - 1][p].getProcessorNum(node));
+                }
+            }
+            offset += p;
+            q -= p;
+        }
+        return schedule;
+    }
+
+    /**
+     * Run every component on one processor and pack the components onto the processors.
+     * @return combined schedule
+     */
+    private ComponentSchedule pack() {
+        int numComponents = _components.size();
+        Integer[] order = new Integer[numComponents];
+        for (int c = 0; c < numComponents; c++) {
+            order[c] = c;
+        }
+        Arrays.sort(order, (c1, c2) -> Integer.compare(_work[c2], _work[c1]));
+
+        // longest processing time first, also the starting bound of the exact packing
+        int[] bins = new int[numComponents];
+        long[] loads = new long[_numP];
+        for (int c : order) {
+            int min = 0;
+            for (int b = 1; b < _numP; b++) {
+                if (loads[b] < loads[min]) {
+                    min = b;
+                }
+            }
+            bins[c] = min;
+            loads[min] += _work[c];
+        }
+        if (numComponents <= EXACT_PACKING_LIMIT) {
+            int makespan = 0;
+            for (long load : loads) {
+                makespan = (int) Math.max(makespan, load);
+            }
+            int[] current = new int[numComponents];
+            packExact(order, 0, new long[_numP], current, new int[]{makespan}, bins);
+        }
+
+        ComponentSchedule schedule = new ComponentSchedule(_numP);
+        int[] offsets = new int[_numP];
+        for (int c : order) {
+            addSequential(schedule, _components.get(c), bins[c] + 1, offsets[bins[c]]);
+            offsets[bins[c]] += _work[c];
+        }
+        return schedule;
+    }
+
+    /**
+     * Branch and bound over the processor of every component, largest component first.
+     * Processors with the same load are interchangeable, only the first of them is tried.
+     */
+    private void packExact(Integer[] order, int i, long[] loads, int[] current, int[] best, int[] bins) {
+        if (i == order.length) {
+            long makespan = 0;
+            for (long load : loads) {
+                makespan = Math.max(makespan, load);
+            }
+            if (makespan < best[0]) {
+                best[0] = (int) makespan;
+                System.arraycopy(current, 0, bins, 0, current.length);
+            }
+            return;
+        }
+        int c = order[i];
+        for (int b = 0; b < loads.length; b++) {
+            boolean seen = false;
+            for (int a = 0; a < b && !seen; a++) {
+                seen = loads[a] == loads[b];
+            }
+            if (seen || loads[b] + _work[c] >= best[0]) {
+                continue;
+            }
+            loads[b] += _work[c];
+            current[c] = b;
+            packExact(order, i + 1, loads, current, best, bins);
+            loads[b] -= _work[c];
+        }
+    }
+
+    /**
+     * Run a component on one processor in topological order.
+     */
+    private void addSequential(ComponentSchedule schedule, IGraph component, int pid, int start) {
+        for (int i = 0; i < component.getNumNodes(); i++) {
+            INode node = component.getNodeByIndex(i);
+            schedule.add(_graph.getNode(node.getName()), start, pid);
+            start += node.getValue();
+        }
+    }
+}
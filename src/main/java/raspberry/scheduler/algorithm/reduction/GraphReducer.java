@@ -0,0 +1,254 @@
+package raspberry.scheduler.algorithm.reduction;
+
+import raspberry.scheduler.algorithm.common.OutputSchedule;
+import raspberry.scheduler.graph.IEdge;
+import raspberry.scheduler.graph.IGraph;
+import raspberry.scheduler.graph.INode;
+import raspberry.scheduler.graph.adjacencylist.Graph;
+import raspberry.scheduler.graph.csr.CSRGraph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reduces a task graph before it is searched. Only transformations that keep the optimal
+ * makespan are applied, so an optimal schedule of the reduced graph maps back to an optimal
+ * schedule of the input graph.
+ *
+ * <ul>
+ * <li> transitive edges: an edge (u,v) is dropped when there is another path from u to v whose
+ * intermediate tasks weigh at least the cost of the edge. Whatever the processors, v can not
+ * start before u finishes plus that weight, so the edge never constrains a schedule.
+ * <li> zero weight tasks: a zero weight entry task with at most one child is placed right before
+ * its child on the same processor, and a zero weight exit task with at most one parent right
+ * after its parent. Neither can delay anything, so they are taken out of the search. This is
+ * repeated until no more tasks can be folded, but the last task of the graph is always kept.
+ * </ul>
+ *
+ * Chains are not merged: forcing a child right after its only parent takes away the
+ * freedom to run other tasks in between, and that can lengthen the optimal schedule.
+ * @author Neville
+ */
+public class GraphReducer {
+    private final IGraph _graph;
+    private IGraph _reduced;
+    private final Set<Long> _removedEdges = new HashSet<Long>();
+    private final List<Fold> _folds = new ArrayList<Fold>();
+
+    /**
+     * Class constructor
+     * @param graph input graph, it is not modified
+     */
+    public GraphReducer(IGraph graph) {
+        _graph = graph;
+    }
+
+    /**
+     * Reduce the graph. The result is computed once.
+     * @return reduced graph, a new graph of the same representation as the input
+     */
+    public IGraph reduce() {
+        if (_reduced == null) {
+            removeTransitiveEdges();
+            boolean[] alive = foldZeroWeightTasks();
+            _reduced = build(alive);
+        }
+        return _reduced;
+    }
+
+    /**
+     * Map a schedule of the reduced graph back to the tasks of the input graph.
+     * @param schedule schedule of the graph returned by {@link #reduce()}
+     * @return schedule of the input graph with the same finish time
+     */
+    public OutputSchedule expand(OutputSchedule schedule) {
+        return new ReducedSchedule(_graph, reduce(), _folds, schedule);
+    }
+
+    /**
+     * @return number of transitive edges dropped
+     */
+    public int getNumRemovedEdges() {
+        reduce();
+        return _removedEdges.size();
+    }
+
+    /**
+     * @return number of zero weight tasks taken out of the graph
+     */
+    public int getNumFoldedTasks() {
+        reduce();
+        return _folds.size();
+    }
+
+    /**
+     * For every task with more than one child, compute in topological order the heaviest path
+     * to each later task, then drop the edges to children that are also reached through a path
+     * at least as heavy as the edge. Only the index range up to the last child is scanned,
+     * the worst case is O(V(V+E)).
+     * Decisions are made on the input graph: an edge on a justifying path that is dropped
+     * itself is replaced by an even heavier path, so all decisions stay valid together.
+     */
+    private void removeTransitiveEdges() {
+        int n = _graph.getNumNodes();
+        int[] indirect = new int[n];
+        int[] reach = new int[n];
+        for (int u = 0; u < n; u++) {
+            INode node = _graph.getNodeByIndex(u);
+            List<IEdge> children = _graph.getOutgoingEdges(node);
+            if (children.size() < 2) {
+                continue;
+            }
+            int last = u;
+            for (IEdge edge : children) {
+                last = Math.max(last, _graph.getIndex(edge.getChild()));
+            }
+
+            // reach: heaviest intermediate weight over all paths from u, -1 if unreachable
+            // indirect: the same over paths with at least one intermediate task
+            for (int x = u + 1; x <= last; x++) {
+                int best = -1;
+                int direct = -1;
+                for (IEdge edge : _graph.getIngoingEdges(_graph.getNodeByIndex(x))) {
+                    INode parent = edge.getParent();
+                    int p = _graph.getIndex(parent);
+                    if (p == u) {
+                        direct = 0;
+                    } else if (p > u && reach[p] >= 0) {
+                        best = Math.max(best, reach[p] + parent.getValue());
+                    }
+                }
+                indirect[x] = best;
+                reach[x] = Math.max(best, direct);
+            }
+
+            for (IEdge edge : children) {
+                int v = _graph.getIndex(edge.getChild());
+                if (indirect[v] >= edge.getWeight()) {
+                    _removedEdges.add(key(u, v));
+                }
+            }
+        }
+    }
+
+    /**
+     * Fold zero weight entry and exit tasks until none is left.
+     * @return flags of the tasks that stay in the graph, by topological index
+     */
+    private boolean[] foldZeroWeightTasks() {
+        int n = _graph.getNumNodes();
+        boolean[] alive = new boolean[n];
+        int[] inDegree = new int[n];
+        int[] outDegree = new int[n];
+        Arrays.fill(alive, true);
+        for (int u = 0; u < n; u++) {
+            for (IEdge edge : _graph.getOutgoingEdges(_graph.getNodeByIndex(u))) {
+                int v = _graph.getIndex(edge.getChild());
+                if (!_removedEdges.contains(key(u, v))) {
+                    outDegree[u]++;
+                    inDegree[v]++;
+                }
+            }
+        }
+
+        int numAlive = n;
+        ArrayDeque<Integer> candidates = new ArrayDeque<Integer>();
+        for (int u = 0; u < n; u++) {
+            candidates.add(u);
+        }
+        while (!candidates.isEmpty() && numAlive > 1) {
+            int u = candidates.poll();
+            INode node = _graph.getNodeByIndex(u);
+            if (!alive[u] || node.getValue() != 0) {
+                continue;
+            }
+            if (inDegree[u] == 0 && outDegree[u] <= 1) {
+                int anchor = -1;
+                for (IEdge edge : _graph.getOutgoingEdges(node)) {
+                    int v = _graph.getIndex(edge.getChild());
+                    if (alive[v] && !_removedEdges.contains(key(u, v))) {
+                        anchor = v;
+                        inDegree[v]--;
+                        candidates.add(v);
+                    }
+                }
+                _folds.add(new Fold(node, anchor < 0 ? null : _graph.getNodeByIndex(anchor), true));
+            } else if (outDegree[u] == 0 && inDegree[u] <= 1) {
+                int anchor = -1;
+                for (IEdge edge : _graph.getIngoingEdges(node)) {
+                    int p = _graph.getIndex(edge.getParent());
+                    if (alive[p] && !_removedEdges.contains(key(p, u))) {
+                        anchor = p;
+                        outDegree[p]--;
+                        candidates.add(p);
+                    }
+                }
+                _folds.add(new Fold(node, anchor < 0 ? null : _graph.getNodeByIndex(anchor), false));
+            } else {
+                continue;
+            }
+            alive[u] = false;
+            numAlive--;
+        }
+        return alive;
+    }
+
+    /**
+     * Build the reduced graph, tasks are added in topological order.
+     * @param alive flags of the tasks to keep
+     * @return reduced graph
+     */
+    private IGraph build(boolean[] alive) {
+        IGraph reduced = _graph instanceof CSRGraph
+                ? new CSRGraph(_graph.getName())
+                : new Graph(_graph.getName());
+        int n = _graph.getNumNodes();
+        for (int u = 0; u < n; u++) {
+            if (alive[u]) {
+                INode node = _graph.getNodeByIndex(u);
+                reduced.addNode(node.getName(), node.getValue());
+            }
+        }
+        for (int u = 0; u < n; u++) {
+            if (!alive[u]) {
+                continue;
+            }
+            for (IEdge edge : _graph.getOutgoingEdges(_graph.getNodeByIndex(u))) {
+                int v = _graph.getIndex(edge.getChild());
+                if (alive[v] && !_removedEdges.contains(key(u, v))) {
+                    reduced.addEdge(edge.getParent().getName(), edge.getChild().getName(), edge.getWeight());
+                }
+            }
+        }
+        return reduced;
+    }
+
+    private static long key(int parent, int child) {
+        return ((long) parent << 32) | child;
+    }
+
+    /**
+     * A zero weight task taken out of the graph, and the task it is placed next to.
+     */
+    static class Fold {
+        final INode _task;
+        final INode _anchor;
+        final boolean _beforeAnchor;
+
+        /**
+         * @param task folded task
+         * @param anchor its only child or parent, null if it had neither
+         * @param beforeAnchor true if the task is placed at the start of the anchor,
+         *                     false if at its end
+         */
+        Fold(INode task, INode anchor, boolean beforeAnchor) {
+            _task = task;
+            _anchor = anchor;
+            _beforeAnchor = beforeAnchor;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package raspberry.scheduler.algorithm.reduction;
+
+import raspberry.scheduler.algorithm.common.OutputSchedule;
+import raspberry.scheduler.graph.IGraph;
+import raspberry.scheduler.graph.INode;
+
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+
+/**
+ * Schedule of the input graph, built from a schedule of the reduced graph.
+ * Tasks that were kept take their place in the reduced schedule, and every folded zero weight
+ * task is put on the processor of its anchor: at the start of its child or at the end of its
+ * parent. A folded task without anchor starts at time 0.
+ * @author Neville
+ */
+public class ReducedSchedule implements OutputSchedule {
+    private Hashtable<INode, int[]> _table = new Hashtable<INode, int[]>();
+    private int _finishTime;
+    private int _totalProcessorNum;
+
+    /**
+     * Class constructor
+     * @param graph input graph
+     * @param reduced reduced graph
+     * @param folds folded tasks, in the order they were folded
+     * @param schedule schedule of the reduced graph
+     */
+    ReducedSchedule(IGraph graph, IGraph reduced, List<GraphReducer.Fold> folds, OutputSchedule schedule) {
+        _finishTime = schedule.getFinishTime();
+        _totalProcessorNum = schedule.getTotalProcessorNum();
+        for (INode node : reduced.getAllNodes()) {
+            _table.put(graph.getNode(node.getName()),
+                    new int[]{schedule.getStartTime(node), schedule.getProcessorNum(node)});
+        }
+
+        // an anchor is either kept or folded later, so resolve the folds backwards
+        int defaultProcessor = schedule.getProcessorNum(reduced.getNodeByIndex(0));
+        for (int i = folds.size() - 1; i >= 0; i--) {
+            GraphReducer.Fold fold = folds.get(i);
+            if (fold._anchor == null) {
+                _table.put(fold._task, new int[]{0, defaultProcessor});
+            } else {
+                int[] anchor = _table.get(fold._anchor);
+                int start = fold._beforeAnchor ? anchor[0] : anchor[0] + fold._anchor.getValue();
+                _table.put(fold._task, new int[]{start, anchor[1]});
+            }
+        }
+    }
+
+    /* ------------------------------
+     *  Getter and Setters
+     *
+     * ------------------------------
+     */
+
+    @Override
+    public int getTotalProcessorNum() {
+        return _totalProcessorNum;
+    }
+
+    @Override
+    public int getProcessorNum(INode node) {
+        return _table.get(node)[1];
+    }
+
+    @Override
+    public int getStartTime(INode node) {
+        return _table.get(node)[0];
+    }
+
+    @Override
+    public int getFinishTime() {
+        return _finishTime;
+    }
+
+    @Override
+    public int getNumTasks() {
+        return _table.size();
+    }
+
+    @Override
+    public List<INode> getNodes(int pid) {
+        List<INode> nodesList = new ArrayList<INode>();
+        for (INode node : _table.keySet()) {
+            if (_table.get(node)[1] == pid) {
+                nodesList.add(node);
+            }
+        }
+        return nodesList;
+    }
+}
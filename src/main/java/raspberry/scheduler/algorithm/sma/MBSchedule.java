@@ -3,6 +3,8 @@ import java.util.*;
 import java.util.function.Consumer;
 
 import raspberry.scheduler.algorithm.common.Schedule;
+import raspberry.scheduler.algorithm.common.ScheduleContext;
+import raspberry.scheduler.algorithm.common.ScheduleState;
 import raspberry.scheduler.algorithm.common.ScheduledTask;
 import raspberry.scheduler.algorithm.astar.ScheduleAStar;
 import raspberry.scheduler.graph.IGraph;
@@ -20,7 +22,6 @@ public class MBSchedule extends Schedule implements Comparable<MBSchedule>, Iter
     private int _size;
     private int _fScore;
     private int _hScore;
-    private Hashtable<INode, Integer> _parentsLeftOfSchedulableTask; //
     private int _overallFinishTime;
 
     // Manhattan heuristic specific attribute
@@ -39,13 +40,27 @@ public class MBSchedule extends Schedule implements Comparable<MBSchedule>, Iter
     private Hashtable<Integer, String> _lastForEachProcessor; //the last task schedule, for each processor.
 
 
+    /**
+     * Class constructor for the first task of a schedule
+     * @param context data shared by every schedule of the search
+     * @param remainingComputeTime remaining compute time after input task has been scheduled
+     */
+    public MBSchedule(ScheduleContext context, int remainingComputeTime, ScheduledTask scheduledTask)  {
+        super(scheduledTask, new ScheduleState(context).schedule(scheduledTask));
+        init(null, remainingComputeTime, scheduledTask);
+    }
+
     /**
      * Class constructor
      * @param parentSchedule
      * @param remainingComputeTime remaining compute time after input task has been scheduled
      */
     public MBSchedule(MBSchedule parentSchedule, int remainingComputeTime, ScheduledTask scheduledTask)  {
-        super(parentSchedule, scheduledTask);
+        super(parentSchedule, scheduledTask, parentSchedule.getState().schedule(scheduledTask));
+        init(parentSchedule, remainingComputeTime, scheduledTask);
+    }
+
+    private void init(MBSchedule parentSchedule, int remainingComputeTime, ScheduledTask scheduledTask) {
         // scheduled task value
         _scheduledTask = scheduledTask;
         _forgotten = new Hashtable<ScheduledTask, Integer>();
@@ -172,7 +187,7 @@ public class MBSchedule extends Schedule implements Comparable<MBSchedule>, Iter
                 return false;
             } else {
                 // Group by pid. Compare match
-                Hashtable<String, List<Integer>> _scheduling2 = schedule.getScheduling();
+                Hashtable<INode, int[]> _scheduling2 = schedule.getPath();
 
                 Set<HashSet<Integer>> hash4scheduling = new HashSet<HashSet<Integer>>();
                 Set<HashSet<Integer>> hash4scheduling2 = new HashSet<HashSet<Integer>>();
@@ -180,8 +195,8 @@ public class MBSchedule extends Schedule implements Comparable<MBSchedule>, Iter
                 for (String s : _scheduling.keySet()) {
                     hash4scheduling.add(new HashSet<Integer>(Arrays.asList(s.hashCode(),_scheduling.get(s).get(1))));
                 }
-                for (String s : _scheduling2.keySet()) {
-                    hash4scheduling2.add(new HashSet<Integer>(Arrays.asList(s.hashCode(),_scheduling2.get(s).get(1))));
+                for (INode node : _scheduling2.keySet()) {
+                    hash4scheduling2.add(new HashSet<Integer>(Arrays.asList(node.getName().hashCode(),_scheduling2.get(node)[0])));
                 }
                 return hash4scheduling.equals(hash4scheduling2);
             }
@@ -195,8 +210,7 @@ public class MBSchedule extends Schedule implements Comparable<MBSchedule>, Iter
 
     /**
      * Create sub-schedule using the calling class as parent
-     * @deprecated
-     * @param scheduledTask task to be schedule
+     * @param scheduledTask scheduled task with start time
      * @return sub-schedule
      */
     public MBSchedule createSubSchedule(ScheduledTask scheduledTask){
@@ -204,39 +218,6 @@ public class MBSchedule extends Schedule implements Comparable<MBSchedule>, Iter
         return new MBSchedule(this, remainingComputeTime, scheduledTask);
     }
 
-    /**
-     * Create sub-schedule using the calling class as parent
-     * @param scheduledTask scheduled task with start time
-     * @param dependencyGraph dependencyGraph
-     * @return sub-schedule
-     */
-    public MBSchedule createSubSchedule(ScheduledTask scheduledTask, IGraph dependencyGraph){
-        int remainingComputeTime = _remainingComputeTime - scheduledTask.getTask().getValue();
-        MBSchedule subSchedule = new MBSchedule(this, remainingComputeTime, scheduledTask);
-        subSchedule.setParentsLeftOfSchedulableTask(
-                subSchedule.parentsLeftsWithoutTask(scheduledTask.getTask(),dependencyGraph));
-        return subSchedule;
-    }
-
-    /**
-     * pop the child x, and recalculate dependency
-     * @param dependencyGraph graph which contain the task dependency
-     * @param task task to be scheduled
-     * @return table after popping the child
-     */
-    public Hashtable<INode, Integer> parentsLeftsWithoutTask(INode task, IGraph dependencyGraph){
-        Hashtable<INode, Integer> temp;
-        if (parent!= null){
-            temp = new Hashtable<INode, Integer>(parent.getParentsLeftOfSchedulableTask());
-        } else {
-            temp = dependencyGraph.getInDegreeCountOfAllNodes();
-        }
-        temp.remove(task);
-        dependencyGraph.getOutgoingEdges(task.getName()).forEach( edge ->
-                temp.put( edge.getChild(),  temp.get(edge.getChild()) - 1 ));
-        return temp;
-    }
-
     /**
      * After computing the scheduling, call this method to get List of paths
      * @return path
@@ -394,14 +375,6 @@ public class MBSchedule extends Schedule implements Comparable<MBSchedule>, Iter
      * ============================================================
      */
 
-    public Hashtable<INode, Integer> getParentsLeftOfSchedulableTask() {
-        return _parentsLeftOfSchedulableTask;
-    }
-
-    public void setParentsLeftOfSchedulableTask(Hashtable<INode, Integer> parentsLeftOfSchedulableTask) {
-        _parentsLeftOfSchedulableTask = parentsLeftOfSchedulableTask;
-    }
-
     public int getOverallFinishTime() {
         return _overallFinishTime;
     }
@@ -2,17 +2,18 @@ package raspberry.scheduler.algorithm.sma;
 
 import java.lang.Math;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Hashtable;
 import java.util.List;
 
 import raspberry.scheduler.algorithm.Algorithm;
+import raspberry.scheduler.algorithm.common.MemoryBudget;
 import raspberry.scheduler.algorithm.common.OutputSchedule;
 import raspberry.scheduler.algorithm.common.Schedule;
+import raspberry.scheduler.algorithm.common.ScheduleContext;
+import raspberry.scheduler.algorithm.common.ScheduleState;
 import raspberry.scheduler.algorithm.common.Solution;
 import raspberry.scheduler.algorithm.util.Helper;
 import raspberry.scheduler.graph.*;
-import raspberry.scheduler.graph.exceptions.EdgeDoesNotExistException;
 import raspberry.scheduler.algorithm.common.ScheduledTask;
 
 
@@ -27,13 +28,12 @@ public class MemoryBoundAStar extends Algorithm {
     private int numNode;
     private final int MAX_NUMBER_NODE;
     private Hashtable<INode, Integer> _criticalPathWeightTable;
+    private ScheduleContext _context;
     private boolean VERBOSE = false;
 
 
     // New stuff
     Hashtable<Integer, ArrayList<MBSchedule>> _visited;
-    private Hashtable<String, Integer> _heuristic;
-    private int _maxCriticalPath;
     
     /**
      * Class constructor
@@ -44,13 +44,51 @@ public class MemoryBoundAStar extends Algorithm {
         super(taskDependencyGraph);
         _graph = taskDependencyGraph;
         _pq = new TwoWayPriorityQueue();
-        TOTAL_NUM_PROCESSOR = totalProcessorNumber;
+        TOTAL_NUM_PROCESSOR = getProcessorBound(taskDependencyGraph, totalProcessorNumber);
         numNode = _graph.getNumNodes();
         _criticalPathWeightTable = _graph.getCriticalPathWeightTable();
         MAX_NUMBER_NODE = memoryLimit;
+        _context = new ScheduleContext(_graph, TOTAL_NUM_PROCESSOR);
 
     }
 
+    /**
+     * Class constructor with the number of schedules kept worked out from a memory budget
+     * @param taskDependencyGraph dependency digraph of the task
+     * @param totalProcessorNumber the total number of processor available for schedule
+     * @param memoryBudget number of bytes the schedules may hold
+     */
+    public MemoryBoundAStar(IGraph taskDependencyGraph, int totalProcessorNumber, MemoryBudget memoryBudget){
+        this(taskDependencyGraph, totalProcessorNumber, (int) Math.min(Integer.MAX_VALUE,
+                memoryBudget.getMaxEntries(getScheduleBytes(taskDependencyGraph, totalProcessorNumber))));
+        setMemoryBudget(memoryBudget);
+    }
+
+    /**
+     * Estimate the size of a complete schedule: the schedule and its state, plus its own copy of
+     * the scheduling table, an entry per task, and of the last task of every processor.
+     * @param graph dependency digraph of the task
+     * @param numProcessors the total number of processor available for schedule
+     * @return estimated size in bytes
+     */
+    public static long getScheduleBytes(IGraph graph, int numProcessors){
+        int numNodes = graph.getNumNodes();
+        // the pair of processor and start time of a task: list, its array and two Integer
+        long pairBytes = 24 + MemoryBudget.align(MemoryBudget.OBJECT_HEADER + 2 * MemoryBudget.REFERENCE) + 2 * 16;
+        return MemoryBudget.scheduleBytes(numNodes, numProcessors)
+                + (long) numNodes * (MemoryBudget.TABLE_ENTRY + pairBytes)
+                + (long) numProcessors * MemoryBudget.TABLE_ENTRY;
+    }
+
+    /**
+     * Estimate the bytes held in the priority queue, every schedule counted as complete
+     * @return estimated number of bytes
+     */
+    @Override
+    public long getEstimatedMemory(){
+        return _pq.size() * getScheduleBytes(_graph, TOTAL_NUM_PROCESSOR);
+    }
+
     /**
      * Get the total compute time require to compute all tasks
      * in the dependency graph when given one resource
@@ -69,11 +107,9 @@ public class MemoryBoundAStar extends Algorithm {
     public OutputSchedule findPath() {
 
         //New stuff
-        _heuristic = new Hashtable<String, Integer>();
         getH();
 
         int totalComputeTime = getTotalComputeTime();
-        Hashtable<INode, Integer> parentsLeft;
         MBSchedule cSchedule;
 
         /*
@@ -82,19 +118,15 @@ public class MemoryBoundAStar extends Algorithm {
          * between processor.
          */
         //MBSchedule start = new MBSchedule();
-        for (INode task: _graph.getNodesWithNoInDegree()){
+        for (INode task: getFreeNodes(new ScheduleState(_context))){
             int remainingComputeTimeAfterTask = totalComputeTime - task.getValue();
             ScheduledTask scheduledTask = new ScheduledTask(0,task,0);
-            MBSchedule newSchedule = new MBSchedule(null , remainingComputeTimeAfterTask, scheduledTask);
-
-
-            newSchedule.setParentsLeftOfSchedulableTask(
-                    newSchedule.parentsLeftsWithoutTask(task,_graph));
+            MBSchedule newSchedule = new MBSchedule(_context, remainingComputeTimeAfterTask, scheduledTask);
 
             ///
             // newSchedule.setHScore(h(newSchedule));
             newSchedule.setHScore( Math.max(
-                h(newSchedule), h1( newSchedule.getParentsLeftOfSchedulableTask(), newSchedule )));
+                h(newSchedule), h1( newSchedule )));
             ///
             
             _pq.add(newSchedule);
@@ -145,7 +177,7 @@ public class MemoryBoundAStar extends Algorithm {
                  */
                 Hashtable<ScheduledTask, Integer> forgottenSchedule = cSchedule.getForgottenTable();
                 for (ScheduledTask scheduledTask: forgottenSchedule.keySet()){
-                    MBSchedule subSchedule = cSchedule.createSubSchedule(scheduledTask, _graph);
+                    MBSchedule subSchedule = cSchedule.createSubSchedule(scheduledTask);
                     subSchedule.setFScore(forgottenSchedule.get(scheduledTask));
                     if(!_pq.contains(subSchedule)){
                         _pq.add(subSchedule);
@@ -154,28 +186,24 @@ public class MemoryBoundAStar extends Algorithm {
                 cSchedule.setForgottenTableToNull();
 
             } else {
-                parentsLeft = cSchedule.getParentsLeftOfSchedulableTask();
-                Collection<INode> taskList = parentsLeft.keySet();
-                for (INode task: taskList){
-                    if (parentsLeft.get(task) == 0 ){
-                        for (int numProcessor=0; numProcessor < TOTAL_NUM_PROCESSOR; numProcessor++){
-                            int earliestStartTime = calculateEarliestStartTime(cSchedule, numProcessor, task);
-                            MBSchedule subSchedule = cSchedule.createSubSchedule(
-                                    new ScheduledTask(numProcessor,task,earliestStartTime), _graph);
-
-                            ///
-                            // subSchedule.setHScore(h(subSchedule));
-                            subSchedule.setHScore( Math.max(
-                                h(subSchedule), h1( subSchedule.getParentsLeftOfSchedulableTask(), subSchedule )));
-
-                                
-                            // check if subSubchedule is equiv or high than upperBound
-                            if (!isHigherThanBound() && !isVisited()){
-                                _pq.add(subSchedule);
-                            }
+                for (INode task: getFreeNodes(cSchedule.getState())){
+                    for (int numProcessor=0; numProcessor < TOTAL_NUM_PROCESSOR; numProcessor++){
+                        int earliestStartTime = calculateEarliestStartTime(cSchedule, numProcessor, task);
+                        MBSchedule subSchedule = cSchedule.createSubSchedule(
+                                new ScheduledTask(numProcessor,task,earliestStartTime));
 
+                        ///
+                        // subSchedule.setHScore(h(subSchedule));
+                        subSchedule.setHScore( Math.max(
+                            h(subSchedule), h1( subSchedule )));
 
+
+                        // check if subSubchedule is equiv or high than upperBound
+                        if (!isHigherThanBound() && !isVisited()){
+                            _pq.add(subSchedule);
                         }
+
+
                     }
                 }
             }
@@ -276,22 +304,12 @@ public class MemoryBoundAStar extends Algorithm {
         }
         cParentSchedule = (MBSchedule)parentSchedule;
         while ( cParentSchedule != null){
-            // for edges in current parent scheduled node
-            INode last_scheduled_node = cParentSchedule.getScheduledTask().getTask();
-
-            for ( IEdge edge: _graph.getOutgoingEdges(last_scheduled_node.getName())){
-
-                // if edge points to  === childNode
-                if (edge.getChild() == nodeToBeSchedule && cParentSchedule.getScheduledTask().getProcessorID() != processorId){
-                    //last_parent_processor[ cParentSchedule.p_id ] = true;
-                    try {
-                        int communicationWeight = _graph.getEdgeWeight(cParentSchedule.getScheduledTask().getTask(),nodeToBeSchedule);
-                        if (finished_time_of_last_parent < (cParentSchedule.getScheduledTask().getFinishTime() + communicationWeight)){
-                            finished_time_of_last_parent = cParentSchedule.getScheduledTask().getFinishTime() + communicationWeight;
-                        }
-                    } catch (EdgeDoesNotExistException e){
-                        System.out.println(e.getMessage());
-                    }
+            // if current parent scheduled node has an edge pointing to === childNode
+            if (cParentSchedule.getScheduledTask().getProcessorID() != processorId){
+                int communicationWeight = _graph.getCommunicationCost(cParentSchedule.getScheduledTask().getTask(),nodeToBeSchedule);
+                if (communicationWeight != IGraph.NO_EDGE
+                        && finished_time_of_last_parent < (cParentSchedule.getScheduledTask().getFinishTime() + communicationWeight)){
+                    finished_time_of_last_parent = cParentSchedule.getScheduledTask().getFinishTime() + communicationWeight;
                 }
             }
             cParentSchedule = cParentSchedule.parent;
@@ -320,7 +338,7 @@ public class MemoryBoundAStar extends Algorithm {
     public int h(MBSchedule cSchedule) {
         int max = 0;
         for (String s : cSchedule.getLastForEachProcessor().values()) {
-            int tmp = _heuristic.get(s) + cSchedule.getScheduling().get(s).get(1) +
+            int tmp = getHeuristicTable().get(s) + cSchedule.getScheduling().get(s).get(1) +
                     _graph.getNode(s).getValue();
             if (tmp > max) {
                 max = tmp;
@@ -332,61 +350,21 @@ public class MemoryBoundAStar extends Algorithm {
     /**
      * Find the best case scheduling where all task are evenly spread out throughout the different processors.
      *
-     * @param x         : Hashtable representing the outDegree table. (All the tasks in the table has not been scheduled yet)
-     * @param cSchedule : current schedule . Used to find the last task which was scheduled for each processor.
+     * @param cSchedule : current schedule . Used to find the last task which was scheduled for each processor
+     *                  and the unscheduled work.
      * @return Integer : Representing the best case scheduling.
      */
-    public int h1(Hashtable<INode, Integer> x, MBSchedule cSchedule) {
+    public int h1(MBSchedule cSchedule) {
         int sum = 0;
         for (String s : cSchedule.getLastForEachProcessor().values()) {
             sum += cSchedule.getScheduling().get(s).get(1) +
                     _graph.getNode(s).getValue();
         }
-        for (INode i : x.keySet()) {
-            sum += i.getValue();
-        }
+        sum += cSchedule.getState().getRemainingWork();
         return sum / TOTAL_NUM_PROCESSOR - cSchedule.getScheduledTask().getFinishTime();
     }
 
 
-    /**
-     * Creates a maximum dependency path table.
-     * Also find the maximum critical path cost of the graph.
-     * where key : String <- task's name.
-     * value : int <- maximum path cost.
-     */
-    public void getH() {
-        _heuristic = new Hashtable<String, Integer>();
-        for (INode i : _graph.getAllNodes()) {
-            int hVal = getHRecursive(i);
-            _heuristic.put(i.getName(), hVal);
-            _maxCriticalPath = Math.max( hVal , _maxCriticalPath );
-        }
-    }
-
-    /**
-     * Recursive call child node to get the cost. Get the maximum cost path and return.
-     *
-     * @param n : INode : task that we are trying to find the heuristic weight.
-     * @return integer : Maximum value of n's child path.
-     */
-    public int getHRecursive(INode n) {
-        List<IEdge> e = _graph.getOutgoingEdges(n.getName());
-        if (e.size() == 0) {
-            return 0;
-        } else if (e.size() == 1) {
-            return getHRecursive(e.get(0).getChild()) + e.get(0).getChild().getValue();
-        }
-        int max = 0;
-        for (IEdge i : e) {
-            int justCost = getHRecursive(i.getChild()) + i.getChild().getValue();
-            if (max < justCost) {
-                max = justCost;
-            }
-        }
-        return max;
-    }
-
     /**
      * TODO : FIND OUT IF WE ACTUALLY NEED THIS FUNCTION
      * OR THIS -> "listVisitedForSize.contains(cSchedule)" JUST WORKS FINE.
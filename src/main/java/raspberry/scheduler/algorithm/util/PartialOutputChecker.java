@@ -49,7 +49,7 @@ public class PartialOutputChecker {
                  * return false if node start earlier than parent node plus communication time
                  */
                 if ((outputSchedule.getProcessorNum(parentNode) != outputSchedule.getProcessorNum(node))
-                        && ((graph.getEdgeWeight(parentNode, node) + parentEndTime)) > outputSchedule.getStartTime(node)) {
+                        && ((edge.getWeight() + parentEndTime)) > outputSchedule.getStartTime(node)) {
                     return false;
                     /*
                      * node are on the same processor,
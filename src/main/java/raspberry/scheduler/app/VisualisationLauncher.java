@@ -11,12 +11,15 @@ import javafx.stage.Stage;
 import javafx.stage.WindowEvent;
 import raspberry.scheduler.algorithm.bnb.BNB;
 import raspberry.scheduler.algorithm.bnb.BNBParallel;
+import raspberry.scheduler.algorithm.common.MemoryBudget;
 import raspberry.scheduler.algorithm.common.OutputSchedule;
 import raspberry.scheduler.cli.CLIConfig;
 import raspberry.scheduler.graph.IGraph;
 import raspberry.scheduler.io.GraphReader;
 import raspberry.scheduler.io.Writer;
+import raspberry.scheduler.io.exceptions.InvalidFormatException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 
 
 /**
@@ -72,12 +75,18 @@ public class VisualisationLauncher extends Application {
         try {
             IGraph graph = _reader.read();
             BNB astar = new BNB(graph, _config.getNumProcessors(), Integer.MAX_VALUE);
+            if (_config.getMemoryBudget() != CLIConfig.NO_MEMORY_BUDGET) {
+                astar.setMemoryBudget(MemoryBudget.ofMegabytes(_config.getMemoryBudget()));
+            }
             OutputSchedule outputSchedule = astar.findPath();
             Writer writer = new Writer(_config.getOutputFile(), graph, outputSchedule);
             writer.write();
-        } catch(IOException e){
+        } catch(IOException | InvalidFormatException e){
             System.out.println(e.getMessage());
             System.exit(1);
+        } catch(UncheckedIOException e){
+            System.out.println(e.getCause().getMessage());
+            System.exit(1);
         }
     }
     /**
@@ -87,12 +96,18 @@ public class VisualisationLauncher extends Application {
         try {
             IGraph graph = _reader.read();
             BNBParallel astar = new BNBParallel(graph, _config.getNumProcessors(), Integer.MAX_VALUE, _config.getNumCores());
+            if (_config.getMemoryBudget() != CLIConfig.NO_MEMORY_BUDGET) {
+                astar.setMemoryBudget(MemoryBudget.ofMegabytes(_config.getMemoryBudget()));
+            }
             OutputSchedule outputSchedule = astar.findPath();
             Writer writer = new Writer(_config.getOutputFile(), graph, outputSchedule);
             writer.write();
-        } catch(IOException e){
+        } catch(IOException | InvalidFormatException e){
             System.out.println(e.getMessage());
             System.exit(1);
+        } catch(UncheckedIOException e){
+            System.out.println(e.getCause().getMessage());
+            System.exit(1);
         }
     }
 
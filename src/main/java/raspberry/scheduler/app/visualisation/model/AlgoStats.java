@@ -1,5 +1,5 @@
 package raspberry.scheduler.app.visualisation.model;
-import raspberry.scheduler.algorithm.astar.ScheduleAStar;
+import raspberry.scheduler.algorithm.bnb.ScheduleB;
 import raspberry.scheduler.algorithm.common.ScheduledTask;
 import raspberry.scheduler.algorithm.common.Solution;
 import raspberry.scheduler.graph.adjacencylist.Node;
@@ -29,7 +29,7 @@ public class AlgoStats {
     private AlgoStats(){
         _isFinish = false;
         ScheduledTask st = new ScheduledTask(0,new Node("zero", 0),0);
-        _currentBestSchedule = new Solution( new ScheduleAStar(st, null), 0);
+        _currentBestSchedule = new Solution( new ScheduleB(st), 0);
 
     }
 
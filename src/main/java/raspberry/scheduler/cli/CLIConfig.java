@@ -1,5 +1,7 @@
 package raspberry.scheduler.cli;
 
+import raspberry.scheduler.io.BinaryWriter;
+
 /**
  * CLIConfig class holds all the required and optional settings given for the program
  * @author Alan, Jonathon
@@ -21,13 +23,21 @@ public class CLIConfig {
     // is visualise or not
     private boolean _visualise;
 
+    // convert the input to the binary graph format instead of scheduling it
+    private boolean _convert;
+
+    // memory the search may hold in megabytes
+    private int _memoryBudget;
+
     /**
      * Default values
      * If no number of cores is defined - run sequntially
      * If no file name is defined - default is "INPUT-output.dot"
+     * If no memory budget is defined - the search uses half of the JVM heap
      */
     public static final int SEQUENTIAL_EXEC = 1;
     public static final int DEFAULT_NUMBER_OF_PROCESSORS = 1;
+    public static final int NO_MEMORY_BUDGET = 0;
 
     /**
      * Constructor
@@ -35,6 +45,7 @@ public class CLIConfig {
     public CLIConfig() {
         _visualise = false;
         _numCores = SEQUENTIAL_EXEC;
+        _memoryBudget = NO_MEMORY_BUDGET;
     }
 
     /**
@@ -88,6 +99,24 @@ public class CLIConfig {
         return _numCores;
     }
 
+    /**
+     * sets the memory the search may hold - default is NO_MEMORY_BUDGET, half of the JVM heap
+     *
+     * @param megabytes - the memory budget in megabytes set by the user
+     */
+    public void setMemoryBudget(int megabytes) {
+        _memoryBudget = megabytes;
+    }
+
+    /**
+     * returns the memory the search may hold
+     *
+     * @return _memoryBudget - the memory budget in megabytes, NO_MEMORY_BUDGET if none is set
+     */
+    public int getMemoryBudget() {
+        return _memoryBudget;
+    }
+
     /**
      * sets whether or not program has to be visualised - default is false
      * @param visualise - boolean value - if false no visualisation, if true has visualisation.
@@ -123,6 +152,38 @@ public class CLIConfig {
     }
 
 
+    /**
+     * sets whether the input graph is converted to the binary graph format instead of scheduled
+     * @param convert - true for the convert command
+     */
+    public void setConvert(boolean convert) {
+        _convert = convert;
+    }
+
+    /**
+     * returns whether the input graph is converted to the binary graph format instead of scheduled
+     * @return _convert - true for the convert command
+     */
+    public boolean getConvert() {
+        return _convert;
+    }
+
+    /**
+     * Sets the output file name of the convert command, the .tgb extension is added if not given.
+     * @param fileName - the output file name given by the user
+     */
+    public void setConvertOutputFile(String fileName) {
+        _outputFile = fileName.endsWith(BinaryWriter.EXTENSION) ? fileName : fileName.concat(BinaryWriter.EXTENSION);
+    }
+
+    /**
+     * sets the default output file name of the convert command in the INPUT.tgb format
+     */
+    public void defaultConvertOutput() {
+        String inputFileName = _dotFile.endsWith(".dot") ? _dotFile.substring(0, _dotFile.length() - 4) : _dotFile;
+        _outputFile = inputFileName.concat(BinaryWriter.EXTENSION);
+    }
+
     /**
      * sets the default Output file name as a string in the INPUT-output.dot format
      */
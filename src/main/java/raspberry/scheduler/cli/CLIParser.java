@@ -15,16 +15,23 @@ public class CLIParser {
     public static final String WRONG_ARGUMENTS = "The arguments entered are not registered. Please try -help for more options.";
     public static final String HELP_MENU = "Help Menu: \n \n" +
             "java -jar " + getJARFileName() + " INPUT.dot P [OPTION] \n \n" +
-            "INPUT.dot : a task graph with integer weights in dot format \n" +
+            "INPUT.dot : a task graph with integer weights in dot format (or converted to binary format) \n" +
             "P : number of processors to schedule the input graph on \n \n" +
             "Optional: \n" +
             "-p N : Use N cores for execution in parallel (default is sequential) \n" +
+            "-m MB : Limit the memory held by the search to MB megabytes (default is half of the JVM heap) \n" +
             // Visualisation still needs to be implemented
             // "-v : visualise the search \n" +
-            "-o OUTPUT : output file is name OUTPUT (default is INPUT-output.dot)";
+            "-o OUTPUT : output file is name OUTPUT (default is INPUT-output.dot) \n \n" +
+            "java -jar " + getJARFileName() + " convert INPUT.dot [-o OUTPUT] \n \n" +
+            "Converts INPUT.dot to the binary graph format, which can be given as INPUT instead of the dot file \n" +
+            "-o OUTPUT : output file is name OUTPUT (default is INPUT.tgb)";
+    public static final String CONVERT = "convert";
     public static final String NO_INPUT_NUM_CORES = "No input was detected for number of cores.";
     public static final String NO_INTEGER_NUM_CORES = "Please enter an valid integer for number of cores.";
     public static final String NO_OUTPUT_FILE_INPUT = "Please enter a name for the output file.";
+    public static final String NO_INPUT_MEMORY_BUDGET = "No input was detected for the memory budget.";
+    public static final String NO_INTEGER_MEMORY_BUDGET = "Please enter an valid integer for the memory budget in megabytes.";
 
 
     /**
@@ -42,6 +49,10 @@ public class CLIParser {
             }
         }
 
+        if (inputs.length > 0 && inputs[0].equals(CONVERT)) {
+            return convertParser(inputs);
+        }
+
         // Check if input is of the correct format, otherwise, direct the user to help menu.
         if (inputs.length < 2) {
             throw new ParserException(WRONG_ARGUMENTS);
@@ -83,6 +94,24 @@ public class CLIParser {
                 }
             }
 
+            /**
+             * Check for option to limit the memory held by the search, in megabytes
+             */
+            else if (Objects.equals(inputs[i], "-m")) {
+                try {
+                    if (Integer.parseInt(inputs[i + 1]) > 0) {
+                        CLIConfig.setMemoryBudget(Integer.parseInt(inputs[i + 1]));
+                        i++;
+                    } else {
+                        throw new ParserException("Memory budget cannot be less than 1 megabyte");
+                    }
+                } catch (ArrayIndexOutOfBoundsException e) {
+                    throw new ParserException(NO_INPUT_MEMORY_BUDGET);
+                } catch (NumberFormatException e) {
+                    throw new ParserException(NO_INTEGER_MEMORY_BUDGET);
+                }
+            }
+
             /**
              * Enable visualisation.
              */
@@ -115,6 +144,37 @@ public class CLIParser {
         return CLIConfig;
     }
 
+    /**
+     * Takes in the inputs of the convert command and creates CLIConfig object
+     * inputs should be in the form [convert, InputFileName, -o OutputFileName if chosen]
+     */
+    private static CLIConfig convertParser(String[] inputs) throws ParserException {
+        CLIConfig CLIConfig = new CLIConfig();
+        CLIConfig.setConvert(true);
+        if (inputs.length < 2) {
+            throw new ParserException(WRONG_ARGUMENTS);
+        }
+        CLIConfig.setDotFile(inputs[1]);
+
+        for (int i = 2; i < inputs.length; i++) {
+            if (Objects.equals(inputs[i], "-o")) {
+                try {
+                    CLIConfig.setConvertOutputFile(inputs[i + 1]);
+                    i++;
+                } catch (ArrayIndexOutOfBoundsException e) {
+                    throw new ParserException(NO_OUTPUT_FILE_INPUT);
+                }
+            } else {
+                throw new ParserException(String.format("Invalid Argument: %s,   -help", inputs[i]));
+            }
+        }
+
+        if (CLIConfig.getOutputFile() == null) {
+            CLIConfig.defaultConvertOutput();
+        }
+        return CLIConfig;
+    }
+
     // Return the JAR file name.
     public static String getJARFileName() {
         return new File(CLIParser.class.getProtectionDomain().getCodeSource().getLocation().getPath()).getName();
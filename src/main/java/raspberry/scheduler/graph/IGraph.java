@@ -1,6 +1,8 @@
 package raspberry.scheduler.graph;
 
 import raspberry.scheduler.graph.exceptions.EdgeDoesNotExistException;
+import raspberry.scheduler.graph.util.IdenticalTaskTable;
+import raspberry.scheduler.graph.util.RankTable;
 import java.util.Collection;
 import java.util.Hashtable;
 import java.util.List;
@@ -12,6 +14,11 @@ import java.util.List;
 
 public interface IGraph{
 
+    /**
+     * Value returned by {@link #getCommunicationCost(INode, INode)} when there is no edge
+     */
+    int NO_EDGE = -1;
+
     /**
      * Get the node in the current graph with the given id
      * @return node with the id
@@ -77,6 +84,16 @@ public interface IGraph{
      */
     int getEdgeWeight(INode parent, INode child) throws EdgeDoesNotExistException;
 
+    /**
+     * Get the communication cost of the edge that points from parent to child in constant time.
+     * Unlike {@link #getEdgeWeight(INode, INode)} this does not throw, so it can be used
+     * on the hot path of the search.
+     * @param parent node that the edges point from
+     * @param child node that the edge points to
+     * @return weight of the edge, or {@link #NO_EDGE} if edge does not exists
+     */
+    int getCommunicationCost(INode parent, INode child);
+
 
     /**
      * Get all node in the graph as a collections
@@ -101,11 +118,26 @@ public interface IGraph{
      * exclude the weight of current node)
      *
      * Note that the weight does not include the edge weight
-     * This method is set up to compute the scheduling problem heuristic
+     * This method is set up to compute the scheduling problem heuristic.
+     * The table is computed once in O(V+E) and shared, it must not be modified.
      * @return hashtable
      */
     public Hashtable<INode,Integer> getCriticalPathWeightTable();
 
+    /**
+     * Get the static ranks of every node (top level, bottom level, static level, ALAP),
+     * indexed by topological index. The table is computed once and cached.
+     * @return rank table of the graph
+     */
+    public RankTable getRankTable();
+
+    /**
+     * Get the classes of identical tasks, indexed by topological index.
+     * The table is computed once and cached.
+     * @return identical task table of the graph
+     */
+    public IdenticalTaskTable getIdenticalTaskTable();
+
     /**
      * Get a collection of nodes with no incoming edges in the current
      * graph.
@@ -136,5 +168,12 @@ public interface IGraph{
      */
     public int getIndex(INode node);
 
+    /**
+     * Get the node at the given topological index, the inverse of {@link #getIndex(INode)}
+     * @param index topological index of the node
+     * @return node with the index
+     */
+    public INode getNodeByIndex(int index);
+
 }
 
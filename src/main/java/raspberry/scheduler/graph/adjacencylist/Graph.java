@@ -5,10 +5,12 @@ import raspberry.scheduler.graph.IEdge;
 import raspberry.scheduler.graph.IGraph;
 import raspberry.scheduler.graph.INode;
 import raspberry.scheduler.graph.exceptions.EdgeDoesNotExistException;
+import raspberry.scheduler.graph.util.CommunicationCostIndex;
+import raspberry.scheduler.graph.util.IdenticalTaskTable;
+import raspberry.scheduler.graph.util.RankTable;
 import raspberry.scheduler.graph.util.TopologicalOrder;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Adjacency graph implementation of the graph
@@ -21,9 +23,12 @@ public class Graph implements IGraph {
     private Hashtable<String, INode> _nodes;
     private Hashtable<String, List<IEdge>> _inDegreeAdjacencyList;
     private Hashtable<String, List<IEdge>> _outDegreeAdjacencyList;
-    private Hashtable<String,Integer> _criticalPathWeightTable;
-    private Hashtable<INode, Integer> _indexTable;
-    private ArrayList<INode> _topologicalOrder;
+    private volatile Hashtable<INode,Integer> _criticalPathWeightTable;
+    private volatile Hashtable<INode, Integer> _indexTable;
+    private volatile ArrayList<INode> _topologicalOrder;
+    private volatile CommunicationCostIndex _communicationCostIndex;
+    private volatile RankTable _rankTable;
+    private volatile IdenticalTaskTable _identicalTaskTable;
 
     /**
      * Class Constructor
@@ -47,6 +52,7 @@ public class Graph implements IGraph {
         _inDegreeAdjacencyList.put(id, new ArrayList<IEdge>());
         _outDegreeAdjacencyList.put(id, new ArrayList<IEdge>());
         _nodes.put(id,node);
+        invalidateIndices();
     }
 
     @Override
@@ -56,16 +62,25 @@ public class Graph implements IGraph {
         IEdge e = new Edge(p, c, weight);
         _outDegreeAdjacencyList.get(parentNodeID).add(e);
         _inDegreeAdjacencyList.get(childNodeID).add(e);
+        invalidateIndices();
     }
 
     @Override
     public int getEdgeWeight(INode parent, INode child) throws EdgeDoesNotExistException {
-        for (IEdge edge : _outDegreeAdjacencyList.get(parent.getName())){
-            if (edge.getChild() == child){
-                return edge.getWeight();
-            }
+        int weight = getCommunicationCost(parent, child);
+        if (weight == NO_EDGE){
+            throw new EdgeDoesNotExistException("Edge does not exists");
+        }
+        return weight;
+    }
+
+    @Override
+    public int getCommunicationCost(INode parent, INode child) {
+        CommunicationCostIndex index = _communicationCostIndex;
+        if (index == null){
+            index = setCommunicationCostIndex();
         }
-        throw new EdgeDoesNotExistException("Edge does not exists");
+        return index.get(getIndex(parent), getIndex(child));
     }
 
     @Override
@@ -123,48 +138,58 @@ public class Graph implements IGraph {
 
     @Override
     public Hashtable<INode,Integer> getCriticalPathWeightTable(){
-        _criticalPathWeightTable = new Hashtable<String, Integer>();
-        ArrayList<String> start = new ArrayList<String>();
-        _inDegreeAdjacencyList.forEach( (k,v) -> {
-            if (v.size() == 0){
-                start.add(k);
-            }
-            _criticalPathWeightTable.put(k,-1);
-        });
-        start.forEach(node -> {
-            int val = dfsFindCriticalWeight(node);
-            if (_criticalPathWeightTable.containsKey(node)){
-                _criticalPathWeightTable.put(node, Math.max(_criticalPathWeightTable.get((node)), val));
-            } else {
-                _criticalPathWeightTable.put(node, val);
-            }
-        });
-        Hashtable<INode, Integer> result = new Hashtable<INode, Integer>();
-        _criticalPathWeightTable.forEach((k,v) -> result.put(_nodes.get(k), v - _nodes.get(k).getValue()));
-        return result;
+        Hashtable<INode, Integer> table = _criticalPathWeightTable;
+        if (table == null){
+            table = setCriticalPathWeightTable();
+        }
+        return table;
     }
 
     /**
-     * Private method
-     * recursive method to find the critical path weight of the node
-     * @param node node to be found
-     * @return weight the critical path weight
+     * Compute the critical path weight of every node from the static level of the rank table,
+     * which is computed in a single pass over the reversed topological order.
+     * @return the critical path weight table
      */
-    private int dfsFindCriticalWeight(String node){
-        List<IEdge> edges = getOutgoingEdges(node);
-        int computeTime = _nodes.get(node).getValue();
-        if (edges.size() == 0 ){
-            _criticalPathWeightTable.put(node,computeTime);
-            return computeTime;
-        } else {
-            AtomicInteger currentMax = new AtomicInteger(_criticalPathWeightTable.get(node));
-            edges.forEach(edge -> {
-                currentMax.set(Math.max(currentMax.get(),computeTime + dfsFindCriticalWeight(edge.getChild().getName())));
-            });
-            _criticalPathWeightTable.put(node,currentMax.intValue());
-            return currentMax.intValue();
+    private synchronized Hashtable<INode, Integer> setCriticalPathWeightTable(){
+        if (_criticalPathWeightTable != null){
+            return _criticalPathWeightTable;
+        }
+        RankTable ranks = getRankTable();
+        Hashtable<INode, Integer> table = new Hashtable<INode, Integer>();
+        for (int i = 0; i < _topologicalOrder.size(); i++) {
+            INode node = _topologicalOrder.get(i);
+            table.put(node, ranks.getStaticLevel(i) - node.getValue());
         }
+        _criticalPathWeightTable = table;
+        return table;
+    }
 
+    @Override
+    public RankTable getRankTable(){
+        RankTable ranks = _rankTable;
+        if (ranks == null){
+            synchronized (this){
+                if (_rankTable == null){
+                    _rankTable = new RankTable(this);
+                }
+                ranks = _rankTable;
+            }
+        }
+        return ranks;
+    }
+
+    @Override
+    public IdenticalTaskTable getIdenticalTaskTable(){
+        IdenticalTaskTable table = _identicalTaskTable;
+        if (table == null){
+            synchronized (this){
+                if (_identicalTaskTable == null){
+                    _identicalTaskTable = new IdenticalTaskTable(this);
+                }
+                table = _identicalTaskTable;
+            }
+        }
+        return table;
     }
 
 
@@ -198,21 +223,64 @@ public class Graph implements IGraph {
         if (_indexTable == null){
             setIndexTable();
         }
+        if (node instanceof Node){
+            // the index cached on the node is only trusted if it belongs to this graph
+            int index = ((Node) node).getIndex();
+            ArrayList<INode> order = _topologicalOrder;
+            if (index >= 0 && index < order.size() && order.get(index) == node){
+                return index;
+            }
+        }
         return _indexTable.get(node);
     }
 
+    @Override
+    public INode getNodeByIndex(int index){
+        if (_indexTable == null){
+            setIndexTable();
+        }
+        return _topologicalOrder.get(index);
+    }
+
+
+    /**
+     * Drop the tables derived from the structure of the graph, they are rebuilt on next use
+     */
+    private void invalidateIndices(){
+        _indexTable = null;
+        _communicationCostIndex = null;
+        _criticalPathWeightTable = null;
+        _rankTable = null;
+        _identicalTaskTable = null;
+    }
+
+    /**
+     * Build the communication cost index of the graph
+     * @return the index
+     */
+    private synchronized CommunicationCostIndex setCommunicationCostIndex(){
+        if (_communicationCostIndex == null){
+            _communicationCostIndex = new CommunicationCostIndex(this);
+        }
+        return _communicationCostIndex;
+    }
 
     /**
      * Set the index table of the graph by calling the class
      * topological order
      */
-    private void setIndexTable(){
-        _indexTable = new Hashtable<>();
+    private synchronized void setIndexTable(){
+        if (_indexTable != null){
+            return;
+        }
+        Hashtable<INode, Integer> indexTable = new Hashtable<>();
         TopologicalOrder to = new TopologicalOrder(this);
         to.computeOrder();
         _topologicalOrder = to.getTopologicalOrder();
         for(int i = 0; i < _topologicalOrder.size(); i++){
-            _indexTable.put(_topologicalOrder.get(i), i);
+            indexTable.put(_topologicalOrder.get(i), i);
+            ((Node) _topologicalOrder.get(i)).setIndex(i);
         }
+        _indexTable = indexTable;
     }
 }
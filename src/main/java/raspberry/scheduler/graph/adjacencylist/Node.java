@@ -10,6 +10,7 @@ public class Node implements INode {
 
     private String _name;
     private int _weight;
+    private int _index = -1;
 
     /**
      * Default constructor for Node object
@@ -22,6 +23,22 @@ public class Node implements INode {
         _weight = executionTime;
     }
 
+    /**
+     * Gets the topological index cached on the node by its graph
+     * @return index, -1 if the graph has not computed it yet
+     */
+    int getIndex() {
+        return _index;
+    }
+
+    /**
+     * Sets the topological index of the node
+     * @param index topological index computed by the graph
+     */
+    void setIndex(int index) {
+        _index = index;
+    }
+
     /**
      * Gets the weight/value of the task: how long it takes to complete
      * @return weight
@@ -0,0 +1,47 @@
+package raspberry.scheduler.graph.csr;
+
+import raspberry.scheduler.graph.IEdge;
+import raspberry.scheduler.graph.INode;
+
+/**
+ * Lightweight edge handed out by the list views of a {@link CSRGraph}.
+ * The graph itself does not keep edge objects, only the arrays they are read from.
+ * @author Neville
+ */
+class CSREdge implements IEdge {
+    private final INode _parentNode;
+    private final INode _childNode;
+    private final int _weight;
+
+    /**
+     * Class constructor
+     * @param parent node the edge points from
+     * @param child node the edge points to
+     * @param communicationCost weight of the edge
+     */
+    CSREdge(INode parent, INode child, int communicationCost) {
+        _parentNode = parent;
+        _childNode = child;
+        _weight = communicationCost;
+    }
+
+    @Override
+    public int getWeight() {
+        return _weight;
+    }
+
+    @Override
+    public INode getChild() {
+        return _childNode;
+    }
+
+    @Override
+    public INode getParent() {
+        return _parentNode;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("(pointsto=%s, weight=%d)", _childNode.getName(), _weight);
+    }
+}
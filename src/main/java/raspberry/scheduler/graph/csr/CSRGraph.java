@@ -0,0 +1,591 @@
+package raspberry.scheduler.graph.csr;
+
+import raspberry.scheduler.graph.IEdge;
+import raspberry.scheduler.graph.IGraph;
+import raspberry.scheduler.graph.INode;
+import raspberry.scheduler.graph.exceptions.EdgeDoesNotExistException;
+import raspberry.scheduler.graph.util.CommunicationCostIndex;
+import raspberry.scheduler.graph.util.IdenticalTaskTable;
+import raspberry.scheduler.graph.util.RankTable;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+
+/**
+ * Compressed sparse row implementation of the graph.
+ * Nodes and edges are first staged as they are added, and the graph is compacted into
+ * flat int arrays the first time it is queried. Node ids are dense ints assigned in
+ * topological order, so {@link #getIndex(INode)} is the id of the node.
+ *
+ * <p> For node {@code v} its children are {@code _outTargets[_outOffsets[v] .. _outOffsets[v+1])}
+ * with communication costs in {@code _outWeights}, sorted by child id. Its parents are stored
+ * the same way in {@code _inOffsets}, {@code _inSources} and {@code _inWeights}.
+ *
+ * <p> The graph is immutable once compacted, adding nodes or edges afterwards throws
+ * {@link IllegalStateException}.
+ * @author Neville
+ */
+public class CSRGraph implements IGraph {
+    private final String _name;
+    private final HashMap<String, CSRNode> _nodeTable;
+
+    // staging area, released on compaction
+    private ArrayList<CSRNode> _stagedNodes;
+    private int[] _stagedEdges;
+    private int _numStagedEdges;
+
+    private volatile boolean _compacted;
+    private CSRNode[] _nodes;
+    private int[] _outOffsets;
+    private int[] _outTargets;
+    private int[] _outWeights;
+    private int[] _inOffsets;
+    private int[] _inSources;
+    private int[] _inWeights;
+    private volatile CommunicationCostIndex _communicationCostIndex;
+    private volatile Hashtable<INode, Integer> _criticalPathWeightTable;
+    private volatile RankTable _rankTable;
+    private volatile IdenticalTaskTable _identicalTaskTable;
+
+    /**
+     * Class Constructor
+     * @param name name of the graph
+     */
+    public CSRGraph(String name) {
+        _name = name;
+        _nodeTable = new HashMap<String, CSRNode>();
+        _stagedNodes = new ArrayList<CSRNode>();
+        _stagedEdges = new int[48];
+    }
+
+    /**
+     * Class Constructor for a graph that is already in compressed form, such as one loaded from
+     * a binary file. Node i gets id i, so ids must be a topological order: every child id is
+     * larger than its parent id. Each row must be sorted by child id.
+     * The graph is read only from the start.
+     * @param name name of the graph
+     * @param names name of every node
+     * @param weights weight of every node
+     * @param outOffsets start of the children of every node in outTargets, numNodes + 1 entries
+     * @param outTargets child ids
+     * @param outWeights communication cost of every edge, parallel to outTargets
+     * @throws IllegalArgumentException if the arrays are inconsistent or ids are not topological
+     */
+    public CSRGraph(String name, String[] names, int[] weights, int[] outOffsets, int[] outTargets, int[] outWeights) {
+        int n = names.length;
+        int m = outTargets.length;
+        if (weights.length != n || outOffsets.length != n + 1 || outWeights.length != m
+                || outOffsets[0] != 0 || outOffsets[n] != m) {
+            throw new IllegalArgumentException("Graph " + name + " has inconsistent array sizes");
+        }
+        _name = name;
+        _nodeTable = new HashMap<String, CSRNode>(n * 2);
+        CSRNode[] nodes = new CSRNode[n];
+        for (int v = 0; v < n; v++) {
+            nodes[v] = new CSRNode(names[v], weights[v]);
+            nodes[v].setId(v);
+            if (_nodeTable.put(names[v], nodes[v]) != null) {
+                throw new IllegalArgumentException("Node " + names[v] + " already exists");
+            }
+            if (outOffsets[v + 1] < outOffsets[v]) {
+                throw new IllegalArgumentException("Graph " + name + " has decreasing offsets");
+            }
+            for (int k = outOffsets[v]; k < outOffsets[v + 1]; k++) {
+                int previous = k == outOffsets[v] ? v : outTargets[k - 1];
+                if (outTargets[k] <= previous || outTargets[k] >= n) {
+                    throw new IllegalArgumentException("Graph " + name
+                            + " is not in topological order or has unsorted rows at node " + names[v]);
+                }
+            }
+        }
+        _nodes = nodes;
+        _outOffsets = outOffsets;
+        _outTargets = outTargets;
+        _outWeights = outWeights;
+        buildIncoming();
+        _compacted = true;
+    }
+
+    @Override
+    public INode getNode(String id) {
+        return _nodeTable.get(id);
+    }
+
+    @Override
+    public void addNode(String id, int value) {
+        checkNotCompacted();
+        if (_nodeTable.containsKey(id)) {
+            throw new IllegalArgumentException("Node " + id + " already exists");
+        }
+        CSRNode node = new CSRNode(id, value);
+        node.setId(_stagedNodes.size());
+        _stagedNodes.add(node);
+        _nodeTable.put(id, node);
+    }
+
+    @Override
+    public void addEdge(String parentNodeID, String childNodeID, int weight) {
+        checkNotCompacted();
+        CSRNode p = _nodeTable.get(parentNodeID);
+        CSRNode c = _nodeTable.get(childNodeID);
+        if (p == null || c == null) {
+            throw new IllegalArgumentException("Edge " + parentNodeID + " -> " + childNodeID
+                    + " refers to a node that does not exist");
+        }
+        if (_numStagedEdges * 3 == _stagedEdges.length) {
+            _stagedEdges = Arrays.copyOf(_stagedEdges, _stagedEdges.length * 2);
+        }
+        int i = _numStagedEdges * 3;
+        _stagedEdges[i] = p.getId();
+        _stagedEdges[i + 1] = c.getId();
+        _stagedEdges[i + 2] = weight;
+        _numStagedEdges++;
+    }
+
+    @Override
+    public int getEdgeWeight(INode parent, INode child) throws EdgeDoesNotExistException {
+        int weight = getCommunicationCost(parent, child);
+        if (weight == NO_EDGE) {
+            throw new EdgeDoesNotExistException("Edge does not exists");
+        }
+        return weight;
+    }
+
+    @Override
+    public int getCommunicationCost(INode parent, INode child) {
+        return getCommunicationCost(getIndex(parent), getIndex(child));
+    }
+
+    /**
+     * Get the communication cost of the edge between two node ids in constant time.
+     * @param parent id of the node the edge points from
+     * @param child id of the node the edge points to
+     * @return weight of the edge, or {@link IGraph#NO_EDGE} if there is no such edge
+     */
+    public int getCommunicationCost(int parent, int child) {
+        CommunicationCostIndex index = _communicationCostIndex;
+        if (index == null) {
+            synchronized (this) {
+                if (_communicationCostIndex == null) {
+                    _communicationCostIndex = new CommunicationCostIndex(this);
+                }
+                index = _communicationCostIndex;
+            }
+        }
+        return index.get(parent, child);
+    }
+
+    @Override
+    public Collection<INode> getAllNodes() {
+        compact();
+        return Collections.<INode>unmodifiableList(Arrays.asList(_nodes));
+    }
+
+    @Override
+    public int getNumNodes() {
+        return _nodeTable.size();
+    }
+
+    @Override
+    public List<IEdge> getOutgoingEdges(String id) {
+        CSRNode node = _nodeTable.get(id);
+        return node == null ? null : getOutgoingEdges(node);
+    }
+
+    @Override
+    public List<IEdge> getOutgoingEdges(INode node) {
+        compact();
+        return new EdgeView(getIndex(node), true);
+    }
+
+    @Override
+    public List<IEdge> getIngoingEdges(String id) {
+        CSRNode node = _nodeTable.get(id);
+        return node == null ? null : getIngoingEdges(node);
+    }
+
+    @Override
+    public List<IEdge> getIngoingEdges(INode node) {
+        compact();
+        return new EdgeView(getIndex(node), false);
+    }
+
+    @Override
+    public Hashtable<INode, Integer> getCriticalPathWeightTable() {
+        Hashtable<INode, Integer> table = _criticalPathWeightTable;
+        if (table == null) {
+            synchronized (this) {
+                if (_criticalPathWeightTable == null) {
+                    _criticalPathWeightTable = computeCriticalPathWeightTable();
+                }
+                table = _criticalPathWeightTable;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Computes the critical path weight of every node from the static level of the rank table.
+     * @return the critical path weight table
+     */
+    private Hashtable<INode, Integer> computeCriticalPathWeightTable() {
+        RankTable ranks = getRankTable();
+        Hashtable<INode, Integer> result = new Hashtable<INode, Integer>();
+        for (int v = 0; v < _nodes.length; v++) {
+            result.put(_nodes[v], ranks.getStaticLevel(v) - _nodes[v].getValue());
+        }
+        return result;
+    }
+
+    @Override
+    public RankTable getRankTable() {
+        RankTable ranks = _rankTable;
+        if (ranks == null) {
+            synchronized (this) {
+                if (_rankTable == null) {
+                    compact();
+                    _rankTable = new RankTable(this);
+                }
+                ranks = _rankTable;
+            }
+        }
+        return ranks;
+    }
+
+    @Override
+    public IdenticalTaskTable getIdenticalTaskTable() {
+        IdenticalTaskTable table = _identicalTaskTable;
+        if (table == null) {
+            synchronized (this) {
+                if (_identicalTaskTable == null) {
+                    compact();
+                    _identicalTaskTable = new IdenticalTaskTable(this);
+                }
+                table = _identicalTaskTable;
+            }
+        }
+        return table;
+    }
+
+    @Override
+    public Collection<INode> getNodesWithNoInDegree() {
+        compact();
+        ArrayList<INode> result = new ArrayList<INode>();
+        for (int v = 0; v < _nodes.length; v++) {
+            if (_inOffsets[v] == _inOffsets[v + 1]) {
+                result.add(_nodes[v]);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Hashtable<INode, Integer> getInDegreeCountOfAllNodes() {
+        compact();
+        Hashtable<INode, Integer> result = new Hashtable<INode, Integer>();
+        for (int v = 0; v < _nodes.length; v++) {
+            result.put(_nodes[v], _inOffsets[v + 1] - _inOffsets[v]);
+        }
+        return result;
+    }
+
+    @Override
+    public String getName() {
+        return _name;
+    }
+
+    @Override
+    public int getIndex(INode node) {
+        compact();
+        if (node instanceof CSRNode) {
+            int id = ((CSRNode) node).getId();
+            if (id >= 0 && id < _nodes.length && _nodes[id] == node) {
+                return id;
+            }
+        }
+        return _nodeTable.get(node.getName()).getId();
+    }
+
+    @Override
+    public INode getNodeByIndex(int index) {
+        compact();
+        return _nodes[index];
+    }
+
+    /**
+     * Get the number of children of the node with the given id
+     * @param id id of the node
+     * @return out degree of the node
+     */
+    public int getOutDegree(int id) {
+        compact();
+        return _outOffsets[id + 1] - _outOffsets[id];
+    }
+
+    /**
+     * Get the id of the k-th child of a node. Children are sorted by id.
+     * @param id id of the node
+     * @param k position of the child, 0 &lt;= k &lt; getOutDegree(id)
+     * @return id of the child
+     */
+    public int getChild(int id, int k) {
+        return _outTargets[_outOffsets[id] + k];
+    }
+
+    /**
+     * Get the communication cost of the edge to the k-th child of a node.
+     * @param id id of the node
+     * @param k position of the child, 0 &lt;= k &lt; getOutDegree(id)
+     * @return weight of the edge
+     */
+    public int getChildEdgeWeight(int id, int k) {
+        return _outWeights[_outOffsets[id] + k];
+    }
+
+    /**
+     * Get the number of parents of the node with the given id
+     * @param id id of the node
+     * @return in degree of the node
+     */
+    public int getInDegree(int id) {
+        compact();
+        return _inOffsets[id + 1] - _inOffsets[id];
+    }
+
+    /**
+     * Get the id of the k-th parent of a node. Parents are sorted by id.
+     * @param id id of the node
+     * @param k position of the parent, 0 &lt;= k &lt; getInDegree(id)
+     * @return id of the parent
+     */
+    public int getParent(int id, int k) {
+        return _inSources[_inOffsets[id] + k];
+    }
+
+    /**
+     * Get the communication cost of the edge from the k-th parent of a node.
+     * @param id id of the node
+     * @param k position of the parent, 0 &lt;= k &lt; getInDegree(id)
+     * @return weight of the edge
+     */
+    public int getParentEdgeWeight(int id, int k) {
+        return _inWeights[_inOffsets[id] + k];
+    }
+
+    /**
+     * Get the total number of edges
+     * @return number of edges this graph has.
+     */
+    public int getNumEdges() {
+        compact();
+        return _outTargets.length;
+    }
+
+    @Override
+    public String toString() {
+        compact();
+        StringBuilder output = new StringBuilder("Graph: " + _name + "\n");
+        for (CSRNode node : _nodes) {
+            output.append("Node:")
+                    .append(node.getName())
+                    .append(" cost=")
+                    .append(node.getValue())
+                    .append(" ")
+                    .append(getOutgoingEdges(node))
+                    .append("\n");
+        }
+        return output.toString();
+    }
+
+    /**
+     * Throws if the graph has already been compacted.
+     */
+    private void checkNotCompacted() {
+        if (_compacted) {
+            throw new IllegalStateException("Graph " + _name + " is read only once it has been queried");
+        }
+    }
+
+    /**
+     * Compacts the staged nodes and edges into the CSR arrays, if not done already.
+     * Node ids are reassigned in the order the nodes leave a FIFO Kahn traversal,
+     * the same order {@link raspberry.scheduler.graph.util.TopologicalOrder} produces.
+     */
+    private void compact() {
+        if (_compacted) {
+            return;
+        }
+        synchronized (this) {
+            if (_compacted) {
+                return;
+            }
+            int n = _stagedNodes.size();
+            int m = _numStagedEdges;
+            int[] edges = _stagedEdges;
+
+            // staged adjacency, indexed by insertion order
+            int[] outCount = new int[n + 1];
+            int[] inDegree = new int[n];
+            for (int e = 0; e < m; e++) {
+                outCount[edges[e * 3] + 1]++;
+                inDegree[edges[e * 3 + 1]]++;
+            }
+            for (int v = 0; v < n; v++) {
+                outCount[v + 1] += outCount[v];
+            }
+            int[] stagedOut = new int[m];
+            int[] fill = Arrays.copyOf(outCount, n);
+            for (int e = 0; e < m; e++) {
+                stagedOut[fill[edges[e * 3]]++] = e;
+            }
+
+            // FIFO Kahn to assign topological ids
+            int[] order = new int[n];
+            int head = 0;
+            int tail = 0;
+            for (int v = 0; v < n; v++) {
+                if (inDegree[v] == 0) {
+                    order[tail++] = v;
+                }
+            }
+            while (head < tail) {
+                int v = order[head++];
+                for (int k = outCount[v]; k < outCount[v + 1]; k++) {
+                    int c = edges[stagedOut[k] * 3 + 1];
+                    if (--inDegree[c] == 0) {
+                        order[tail++] = c;
+                    }
+                }
+            }
+            if (tail != n) {
+                throw new IllegalStateException("Graph " + _name + " contains a cycle");
+            }
+            int[] newId = new int[n];
+            CSRNode[] nodes = new CSRNode[n];
+            for (int i = 0; i < n; i++) {
+                newId[order[i]] = i;
+                nodes[i] = _stagedNodes.get(order[i]);
+            }
+
+            // edges as (parent, child, weight) in the new ids
+            int[] parents = new int[m];
+            int[] children = new int[m];
+            int[] weights = new int[m];
+            for (int e = 0; e < m; e++) {
+                parents[e] = newId[edges[e * 3]];
+                children[e] = newId[edges[e * 3 + 1]];
+                weights[e] = edges[e * 3 + 2];
+            }
+            for (int i = 0; i < n; i++) {
+                nodes[i].setId(i);
+            }
+            buildArrays(nodes, parents, children, weights);
+            _stagedNodes = null;
+            _stagedEdges = null;
+            _compacted = true;
+        }
+    }
+
+    /**
+     * Builds both CSR directions from a list of edges in final ids.
+     * Rows are filled in ascending order of the opposite endpoint by a counting sort,
+     * which keeps every row sorted without a comparison sort.
+     */
+    private void buildArrays(CSRNode[] nodes, int[] parents, int[] children, int[] weights) {
+        int n = nodes.length;
+        int m = parents.length;
+        _nodes = nodes;
+        _inOffsets = new int[n + 1];
+        _outOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            _outOffsets[parents[e] + 1]++;
+            _inOffsets[children[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            _outOffsets[v + 1] += _outOffsets[v];
+            _inOffsets[v + 1] += _inOffsets[v];
+        }
+
+        // bucket edges by child, then walk them in child order to fill the out rows sorted
+        int[] byChild = new int[m];
+        int[] fill = Arrays.copyOf(_inOffsets, n);
+        for (int e = 0; e < m; e++) {
+            byChild[fill[children[e]]++] = e;
+        }
+        _outTargets = new int[m];
+        _outWeights = new int[m];
+        fill = Arrays.copyOf(_outOffsets, n);
+        for (int e : byChild) {
+            int k = fill[parents[e]]++;
+            _outTargets[k] = children[e];
+            _outWeights[k] = weights[e];
+        }
+
+        buildIncoming();
+    }
+
+    /**
+     * Builds the incoming CSR arrays from the outgoing ones. Walking the out rows in parent order
+     * fills every in row already sorted by parent id.
+     */
+    private void buildIncoming() {
+        int n = _nodes.length;
+        int m = _outTargets.length;
+        _inOffsets = new int[n + 1];
+        for (int k = 0; k < m; k++) {
+            _inOffsets[_outTargets[k] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            _inOffsets[v + 1] += _inOffsets[v];
+        }
+        _inSources = new int[m];
+        _inWeights = new int[m];
+        int[] fill = Arrays.copyOf(_inOffsets, n);
+        for (int p = 0; p < n; p++) {
+            for (int k = _outOffsets[p]; k < _outOffsets[p + 1]; k++) {
+                int i = fill[_outTargets[k]]++;
+                _inSources[i] = p;
+                _inWeights[i] = _outWeights[k];
+            }
+        }
+    }
+
+    /**
+     * Read only list view over one row of the CSR arrays.
+     * Edge objects are created on access, the graph does not retain them.
+     */
+    private class EdgeView extends AbstractList<IEdge> {
+        private final int _node;
+        private final boolean _outgoing;
+
+        EdgeView(int node, boolean outgoing) {
+            _node = node;
+            _outgoing = outgoing;
+        }
+
+        @Override
+        public IEdge get(int k) {
+            if (k < 0 || k >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + k + ", Size: " + size());
+            }
+            if (_outgoing) {
+                int i = _outOffsets[_node] + k;
+                return new CSREdge(_nodes[_node], _nodes[_outTargets[i]], _outWeights[i]);
+            }
+            int i = _inOffsets[_node] + k;
+            return new CSREdge(_nodes[_inSources[i]], _nodes[_node], _inWeights[i]);
+        }
+
+        @Override
+        public int size() {
+            return _outgoing ? _outOffsets[_node + 1] - _outOffsets[_node]
+                    : _inOffsets[_node + 1] - _inOffsets[_node];
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package raspberry.scheduler.graph.csr;
+
+import raspberry.scheduler.graph.INode;
+
+/**
+ * Node of a {@link CSRGraph}. On top of the name and weight, the node carries
+ * the dense integer id the graph gave it, which is also its topological index.
+ * @author Neville
+ */
+public class CSRNode implements INode {
+
+    private final String _name;
+    private final int _weight;
+    private int _id;
+
+    /**
+     * Class constructor. The id is assigned by the graph once it is compacted.
+     * @param name name of the node
+     * @param executionTime how long the task takes
+     */
+    CSRNode(String name, int executionTime) {
+        _name = name;
+        _weight = executionTime;
+        _id = -1;
+    }
+
+    /**
+     * Gets the dense id of the node, -1 until the owning graph has been compacted.
+     * @return id of the node
+     */
+    public int getId() {
+        return _id;
+    }
+
+    /**
+     * Sets the dense id of the node.
+     * @param id id assigned by the owning graph
+     */
+    void setId(int id) {
+        _id = id;
+    }
+
+    @Override
+    public int getValue() {
+        return _weight;
+    }
+
+    @Override
+    public String getName() {
+        return _name;
+    }
+
+    @Override
+    public String toString() {
+        return _name;
+    }
+}
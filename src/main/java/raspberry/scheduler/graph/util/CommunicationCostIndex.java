@@ -0,0 +1,113 @@
+package raspberry.scheduler.graph.util;
+
+import raspberry.scheduler.graph.IEdge;
+import raspberry.scheduler.graph.IGraph;
+import raspberry.scheduler.graph.INode;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed communication cost of every edge, keyed by the topological index of
+ * both end points, so the cost can be looked up in constant time instead of scanning
+ * the parent's outgoing edges.
+ *
+ * <p> Small graphs use a dense n x n matrix. Once the matrix would be larger than
+ * {@link #DENSE_LIMIT} cells, an open addressing hash map with packed {@code long}
+ * keys is used instead, which only grows with the number of edges.
+ *
+ * <p> Missing edges are reported as {@link IGraph#NO_EDGE} rather than with an exception.
+ * @author Neville
+ */
+public class CommunicationCostIndex {
+    public static final int DENSE_LIMIT = 1 << 20;
+    private static final long EMPTY = -1L;
+
+    private final int _numNodes;
+    // dense representation
+    private int[] _matrix;
+    // sparse representation
+    private long[] _keys;
+    private int[] _values;
+    private int _mask;
+
+    /**
+     * Class constructor, builds the index for every edge of the graph.
+     * @param graph dependency graph
+     */
+    public CommunicationCostIndex(IGraph graph) {
+        _numNodes = graph.getNumNodes();
+        if ((long) _numNodes * _numNodes <= DENSE_LIMIT) {
+            _matrix = new int[_numNodes * _numNodes];
+            Arrays.fill(_matrix, IGraph.NO_EDGE);
+        } else {
+            int numEdges = 0;
+            for (INode node : graph.getAllNodes()) {
+                numEdges += graph.getOutgoingEdges(node).size();
+            }
+            // keep the load factor at or below one half
+            int capacity = Integer.highestOneBit(Math.max(2, numEdges) * 2 - 1) << 1;
+            _keys = new long[capacity];
+            _values = new int[capacity];
+            _mask = capacity - 1;
+            Arrays.fill(_keys, EMPTY);
+        }
+        for (INode node : graph.getAllNodes()) {
+            int parent = graph.getIndex(node);
+            for (IEdge edge : graph.getOutgoingEdges(node)) {
+                put(parent, graph.getIndex(edge.getChild()), edge.getWeight());
+            }
+        }
+    }
+
+    /**
+     * Get the communication cost of the edge between two nodes.
+     * @param parent topological index of the node the edge points from
+     * @param child topological index of the node the edge points to
+     * @return weight of the edge, or {@link IGraph#NO_EDGE} if there is no such edge
+     */
+    public int get(int parent, int child) {
+        if (_matrix != null) {
+            return _matrix[parent * _numNodes + child];
+        }
+        long key = pack(parent, child);
+        int slot = slot(key);
+        while (_keys[slot] != EMPTY) {
+            if (_keys[slot] == key) {
+                return _values[slot];
+            }
+            slot = (slot + 1) & _mask;
+        }
+        return IGraph.NO_EDGE;
+    }
+
+    /**
+     * Check which representation is used.
+     * @return true if the dense matrix is used
+     */
+    public boolean isDense() {
+        return _matrix != null;
+    }
+
+    private void put(int parent, int child, int weight) {
+        if (_matrix != null) {
+            _matrix[parent * _numNodes + child] = weight;
+            return;
+        }
+        long key = pack(parent, child);
+        int slot = slot(key);
+        while (_keys[slot] != EMPTY && _keys[slot] != key) {
+            slot = (slot + 1) & _mask;
+        }
+        _keys[slot] = key;
+        _values[slot] = weight;
+    }
+
+    private static long pack(int parent, int child) {
+        return ((long) parent << 32) | (child & 0xFFFFFFFFL);
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & _mask;
+    }
+}
@@ -0,0 +1,179 @@
+package raspberry.scheduler.graph.util;
+
+import raspberry.scheduler.graph.IEdge;
+import raspberry.scheduler.graph.IGraph;
+
+import java.util.Arrays;
+
+/**
+ * Width of a dependency graph: the size of its largest antichain, a set of tasks of which no
+ * two are connected by a path. Tasks that run at the same time form an antichain, so no
+ * schedule ever has more tasks running at once than the width.
+ *
+ * By Dilworth's theorem the width is the minimum number of chains covering the tasks, which is
+ * the number of tasks minus a maximum matching in the bipartite graph of the transitive closure.
+ * The matching is found with Hopcroft-Karp on the closure stored as bit sets.
+ * Graphs with more than {@link #CLOSURE_LIMIT} tasks use a matching on the edges of the graph
+ * only, which gives an upper bound on the width in linear time.
+ * @author Neville
+ */
+public class GraphWidth {
+    public static final int CLOSURE_LIMIT = 4096;
+    private static final int NIL = -1;
+
+    private final int _width;
+    private final boolean _exact;
+
+    // closure[u] has bit v set if there is a path from u to v
+    private long[][] _closure;
+    private int[] _matchLeft;
+    private int[] _matchRight;
+    private int[] _distance;
+
+    /**
+     * Class constructor, computes the width of the graph.
+     * @param graph dependency graph
+     */
+    public GraphWidth(IGraph graph) {
+        int n = graph.getNumNodes();
+        _exact = n <= CLOSURE_LIMIT;
+        _width = n - (_exact ? maximumMatching(graph) : greedyMatching(graph));
+        _closure = null;
+        _matchLeft = null;
+        _matchRight = null;
+        _distance = null;
+    }
+
+    /**
+     * Build the transitive closure in reverse topological order, then match.
+     */
+    private int maximumMatching(IGraph graph) {
+        int n = graph.getNumNodes();
+        int words = (n + 63) >>> 6;
+        _closure = new long[n][words];
+        for (int u = n - 1; u >= 0; u--) {
+            long[] row = _closure[u];
+            for (IEdge edge : graph.getOutgoingEdges(graph.getNodeByIndex(u))) {
+                int v = graph.getIndex(edge.getChild());
+                row[v >>> 6] |= 1L << v;
+                long[] childRow = _closure[v];
+                for (int w = v >>> 6; w < words; w++) {
+                    row[w] |= childRow[w];
+                }
+            }
+        }
+
+        _matchLeft = new int[n];
+        _matchRight = new int[n];
+        _distance = new int[n];
+        Arrays.fill(_matchLeft, NIL);
+        Arrays.fill(_matchRight, NIL);
+        int matching = 0;
+        while (bfs(n)) {
+            for (int u = 0; u < n; u++) {
+                if (_matchLeft[u] == NIL && dfs(u)) {
+                    matching++;
+                }
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Layer the free left vertices and the vertices reachable from them by alternating paths.
+     * @return true if an augmenting path exists
+     */
+    private boolean bfs(int n) {
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        for (int u = 0; u < n; u++) {
+            if (_matchLeft[u] == NIL) {
+                _distance[u] = 0;
+                queue[tail++] = u;
+            } else {
+                _distance[u] = Integer.MAX_VALUE;
+            }
+        }
+        boolean found = false;
+        while (head < tail) {
+            int u = queue[head++];
+            long[] row = _closure[u];
+            for (int w = u >>> 6; w < row.length; w++) {
+                long bits = row[w];
+                while (bits != 0) {
+                    int v = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    int next = _matchRight[v];
+                    if (next == NIL) {
+                        found = true;
+                    } else if (_distance[next] == Integer.MAX_VALUE) {
+                        _distance[next] = _distance[u] + 1;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Augment along a shortest alternating path from u.
+     * @return true if u was matched
+     */
+    private boolean dfs(int u) {
+        long[] row = _closure[u];
+        for (int w = u >>> 6; w < row.length; w++) {
+            long bits = row[w];
+            while (bits != 0) {
+                int v = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int next = _matchRight[v];
+                if (next == NIL || (_distance[next] == _distance[u] + 1 && dfs(next))) {
+                    _matchLeft[u] = v;
+                    _matchRight[v] = u;
+                    return true;
+                }
+            }
+        }
+        _distance[u] = Integer.MAX_VALUE;
+        return false;
+    }
+
+    /**
+     * Greedy matching on the edges of the graph. Every matching gives a cover by paths, and a
+     * cover by paths is also a cover by chains, so the result bounds the width from above.
+     */
+    private int greedyMatching(IGraph graph) {
+        int n = graph.getNumNodes();
+        boolean[] matched = new boolean[n];
+        int matching = 0;
+        for (int u = 0; u < n; u++) {
+            for (IEdge edge : graph.getOutgoingEdges(graph.getNodeByIndex(u))) {
+                int v = graph.getIndex(edge.getChild());
+                if (!matched[v]) {
+                    matched[v] = true;
+                    matching++;
+                    break;
+                }
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Get the width of the graph, the most tasks that can ever run at the same time.
+     * If the width is not exact it is an upper bound.
+     * @return width
+     */
+    public int getWidth() {
+        return _width;
+    }
+
+    /**
+     * @return true if the width is exact, false if it is an upper bound
+     */
+    public boolean isExact() {
+        return _exact;
+    }
+}
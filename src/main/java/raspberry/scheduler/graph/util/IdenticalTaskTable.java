@@ -0,0 +1,95 @@
+package raspberry.scheduler.graph.util;
+
+import raspberry.scheduler.graph.IEdge;
+import raspberry.scheduler.graph.IGraph;
+import raspberry.scheduler.graph.INode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable table of the classes of identical tasks, indexed by topological index.
+ * Two tasks are identical when they have the same weight, the same parents with the same
+ * communication costs and the same children with the same communication costs.
+ * Identical tasks can be swapped in any schedule without changing it, so a search only needs
+ * to schedule them in one order: every task of a class after the previous task of its class.
+ * @author Neville
+ */
+public class IdenticalTaskTable {
+    public static final int NONE = -1;
+
+    private final int[] _previous;
+    private final int _numClasses;
+
+    /**
+     * Class constructor, groups the tasks of the graph by their weight and edges.
+     * @param graph dependency graph
+     */
+    public IdenticalTaskTable(IGraph graph) {
+        int n = graph.getNumNodes();
+        _previous = new int[n];
+        Map<List<Long>, Integer> last = new HashMap<List<Long>, Integer>();
+        for (int v = 0; v < n; v++) {
+            List<Long> key = signature(graph, graph.getNodeByIndex(v));
+            Integer previous = last.put(key, v);
+            _previous[v] = previous == null ? NONE : previous;
+        }
+        _numClasses = last.size();
+    }
+
+    /**
+     * Build the signature of a task: its weight followed by its sorted incoming and outgoing
+     * edges, each edge packed as the index of the other end and the cost.
+     */
+    private static List<Long> signature(IGraph graph, INode node) {
+        List<IEdge> ingoing = graph.getIngoingEdges(node);
+        List<IEdge> outgoing = graph.getOutgoingEdges(node);
+        long[] in = new long[ingoing.size()];
+        for (int i = 0; i < in.length; i++) {
+            IEdge edge = ingoing.get(i);
+            in[i] = pack(graph.getIndex(edge.getParent()), edge.getWeight());
+        }
+        long[] out = new long[outgoing.size()];
+        for (int i = 0; i < out.length; i++) {
+            IEdge edge = outgoing.get(i);
+            out[i] = pack(graph.getIndex(edge.getChild()), edge.getWeight());
+        }
+        Arrays.sort(in);
+        Arrays.sort(out);
+
+        List<Long> key = new ArrayList<Long>(in.length + out.length + 2);
+        key.add((long) node.getValue());
+        key.add((long) in.length);
+        for (long edge : in) {
+            key.add(edge);
+        }
+        for (long edge : out) {
+            key.add(edge);
+        }
+        return key;
+    }
+
+    private static long pack(int index, int weight) {
+        return ((long) index << 32) | (weight & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Get the previous task of the same class
+     * @param index topological index of the task
+     * @return topological index of the previous identical task, {@link #NONE} if it is the first
+     */
+    public int getPrevious(int index) {
+        return _previous[index];
+    }
+
+    /**
+     * Get the number of classes, equal to the number of tasks when no two tasks are identical
+     * @return number of classes
+     */
+    public int getNumClasses() {
+        return _numClasses;
+    }
+}
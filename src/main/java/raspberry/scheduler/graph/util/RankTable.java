@@ -0,0 +1,137 @@
+package raspberry.scheduler.graph.util;
+
+import raspberry.scheduler.graph.IEdge;
+import raspberry.scheduler.graph.IGraph;
+import raspberry.scheduler.graph.INode;
+
+/**
+ * Immutable table of the static ranks of every node, indexed by topological index.
+ * All ranks are computed once, in O(V+E), with one forward and one backward pass over
+ * the topological order.
+ *
+ * <ul>
+ * <li> top level: length of the longest path from an entry node to the node, excluding
+ * the node's own weight, with communication costs. This is the earliest the node can start
+ * with an unlimited number of processors.
+ * <li> bottom level: length of the longest path from the node to an exit node, including
+ * the node's own weight, with communication costs.
+ * <li> static level: the bottom level without communication costs. This is a lower bound
+ * on the time from the start of the node to the end of the schedule on any processor count.
+ * <li> ALAP: latest start time of the node that does not lengthen the critical path,
+ * critical path length minus bottom level.
+ * </ul>
+ * @author Neville
+ */
+public class RankTable {
+    private final int[] _topLevel;
+    private final int[] _bottomLevel;
+    private final int[] _staticLevel;
+    private final int _criticalPathLength;
+    private final int _staticCriticalPathLength;
+
+    /**
+     * Class constructor, computes all ranks of the graph.
+     * @param graph dependency graph
+     */
+    public RankTable(IGraph graph) {
+        int n = graph.getNumNodes();
+        _topLevel = new int[n];
+        _bottomLevel = new int[n];
+        _staticLevel = new int[n];
+
+        // forward pass, every parent has a smaller index than its children
+        for (int v = 0; v < n; v++) {
+            INode node = graph.getNodeByIndex(v);
+            int top = 0;
+            for (IEdge edge : graph.getIngoingEdges(node)) {
+                INode parent = edge.getParent();
+                int p = graph.getIndex(parent);
+                top = Math.max(top, _topLevel[p] + parent.getValue() + edge.getWeight());
+            }
+            _topLevel[v] = top;
+        }
+
+        // backward pass
+        int criticalPath = 0;
+        int staticCriticalPath = 0;
+        for (int v = n - 1; v >= 0; v--) {
+            INode node = graph.getNodeByIndex(v);
+            int bottom = 0;
+            int level = 0;
+            for (IEdge edge : graph.getOutgoingEdges(node)) {
+                int c = graph.getIndex(edge.getChild());
+                bottom = Math.max(bottom, edge.getWeight() + _bottomLevel[c]);
+                level = Math.max(level, _staticLevel[c]);
+            }
+            _bottomLevel[v] = bottom + node.getValue();
+            _staticLevel[v] = level + node.getValue();
+            criticalPath = Math.max(criticalPath, _topLevel[v] + _bottomLevel[v]);
+            staticCriticalPath = Math.max(staticCriticalPath, _staticLevel[v]);
+        }
+        _criticalPathLength = criticalPath;
+        _staticCriticalPathLength = staticCriticalPath;
+    }
+
+    /**
+     * Get the top level of a node, with communication costs
+     * @param index topological index of the node
+     * @return top level
+     */
+    public int getTopLevel(int index) {
+        return _topLevel[index];
+    }
+
+    /**
+     * Get the bottom level of a node, with communication costs and including its own weight
+     * @param index topological index of the node
+     * @return bottom level
+     */
+    public int getBottomLevel(int index) {
+        return _bottomLevel[index];
+    }
+
+    /**
+     * Get the static level of a node, the bottom level without communication costs
+     * and including its own weight
+     * @param index topological index of the node
+     * @return static level
+     */
+    public int getStaticLevel(int index) {
+        return _staticLevel[index];
+    }
+
+    /**
+     * Get the as late as possible start time of a node
+     * @param index topological index of the node
+     * @return ALAP start time
+     */
+    public int getAlap(int index) {
+        return _criticalPathLength - _bottomLevel[index];
+    }
+
+    /**
+     * Get the length of the critical path with communication costs,
+     * that is the makespan with one processor per task.
+     * @return critical path length
+     */
+    public int getCriticalPathLength() {
+        return _criticalPathLength;
+    }
+
+    /**
+     * Get the length of the critical path without communication costs,
+     * a lower bound of the makespan on any number of processors.
+     * @return static critical path length
+     */
+    public int getStaticCriticalPathLength() {
+        return _staticCriticalPathLength;
+    }
+
+    /**
+     * Get the number of nodes in the table
+     * @return number of nodes
+     */
+    public int size() {
+        return _staticLevel.length;
+    }
+}
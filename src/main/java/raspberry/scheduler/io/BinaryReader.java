@@ -0,0 +1,104 @@
+package raspberry.scheduler.io;
+
+import raspberry.scheduler.graph.IGraph;
+import raspberry.scheduler.graph.csr.CSRGraph;
+import raspberry.scheduler.io.exceptions.InvalidFormatException;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Loads a graph written by {@link BinaryWriter}. The file is memory mapped and the int arrays
+ * are copied out in bulk, the only per node work is decoding the node names.
+ * @author Young
+ */
+class BinaryReader {
+    private final FileChannel _channel;
+
+    /**
+     * Class constructor
+     * @param channel channel of the binary file
+     */
+    BinaryReader(FileChannel channel) {
+        _channel = channel;
+    }
+
+    /**
+     * Checks whether the file starts with the magic number of the binary format.
+     * The position of the channel is left unchanged.
+     * @param channel channel of the file
+     * @return true if the file is in the binary format
+     * @throws IOException if the channel cannot be read
+     */
+    static boolean isBinary(FileChannel channel) throws IOException {
+        if (channel.size() < 4) {
+            return false;
+        }
+        ByteBuffer magic = ByteBuffer.allocate(4);
+        while (magic.hasRemaining()) {
+            if (channel.read(magic, magic.position()) < 0) {
+                return false;
+            }
+        }
+        return magic.getInt(0) == BinaryWriter.MAGIC;
+    }
+
+    /**
+     * Reads the graph.
+     * @return a compressed graph
+     * @throws IOException if the file cannot be mapped
+     * @throws InvalidFormatException if the file is truncated or not a valid graph
+     */
+    IGraph read() throws IOException {
+        MappedByteBuffer buffer = _channel.map(FileChannel.MapMode.READ_ONLY, 0, _channel.size());
+        try {
+            if (buffer.getInt() != BinaryWriter.MAGIC) {
+                throw new InvalidFormatException("Not a binary task graph");
+            }
+            int version = buffer.getInt();
+            if (version != BinaryWriter.VERSION) {
+                throw new InvalidFormatException("Unsupported binary task graph version " + version);
+            }
+            int n = buffer.getInt();
+            int m = buffer.getInt();
+            // in long, a corrupt header must not wrap around to a size that fits
+            long arrayBytes = 4L * (2L * n + 1 + 2L * m);
+            if (n < 0 || m < 0 || arrayBytes > buffer.remaining()) {
+                throw new InvalidFormatException("Binary task graph is truncated");
+            }
+            int[] weights = new int[n];
+            int[] outOffsets = new int[n + 1];
+            int[] outTargets = new int[m];
+            int[] outWeights = new int[m];
+            IntBuffer ints = buffer.asIntBuffer();
+            ints.get(weights).get(outOffsets).get(outTargets).get(outWeights);
+            buffer.position(buffer.position() + (int) arrayBytes);
+
+            String name = string(buffer);
+            String[] names = new String[n];
+            for (int v = 0; v < n; v++) {
+                names[v] = string(buffer);
+            }
+            return new CSRGraph(name, names, weights, outOffsets, outTargets, outWeights);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new InvalidFormatException("Binary task graph is truncated");
+        } catch (IllegalArgumentException e) {
+            throw new InvalidFormatException("Invalid binary task graph: " + e.getMessage());
+        }
+    }
+
+    private static String string(MappedByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new InvalidFormatException("Binary task graph is truncated");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
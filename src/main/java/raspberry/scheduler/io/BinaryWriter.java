@@ -0,0 +1,102 @@
+package raspberry.scheduler.io;
+
+import raspberry.scheduler.graph.IEdge;
+import raspberry.scheduler.graph.IGraph;
+import raspberry.scheduler.graph.INode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * BinaryWriter writes a task graph in the binary graph format read back by {@link GraphReader}.
+ * Nodes are written in topological order with the edges in compressed sparse row form, so the
+ * file can be mapped and used without parsing.
+ *
+ * <p> Layout, all values are big endian ints:
+ * <pre>
+ * magic, version, numNodes, numEdges
+ * weights[numNodes]
+ * outOffsets[numNodes + 1]
+ * outTargets[numEdges]
+ * outWeights[numEdges]
+ * graph name: byte length, UTF-8 bytes
+ * node names: byte length, UTF-8 bytes, for every node in order
+ * </pre>
+ * @author Young
+ */
+public class BinaryWriter {
+    public static final int MAGIC = 0x54474246; // "TGBF"
+    public static final int VERSION = 1;
+    public static final String EXTENSION = ".tgb";
+
+    private final String _filepath;
+    private final IGraph _graph;
+
+    /**
+     * BinaryWriter constructor
+     * @param filepath name of the output file
+     * @param graph graph to write
+     */
+    public BinaryWriter(String filepath, IGraph graph) {
+        _filepath = filepath;
+        _graph = graph;
+    }
+
+    /**
+     * writes the graph to the output file, replacing it if it exists
+     * @throws IOException indicate failed or interrupted I/O
+     */
+    public void write() throws IOException {
+        int n = _graph.getNumNodes();
+        int[] weights = new int[n];
+        int[] outOffsets = new int[n + 1];
+        byte[][] names = new byte[n][];
+        int namesSize = 0;
+        for (int v = 0; v < n; v++) {
+            INode node = _graph.getNodeByIndex(v);
+            weights[v] = node.getValue();
+            outOffsets[v + 1] = outOffsets[v] + _graph.getOutgoingEdges(node).size();
+            names[v] = node.getName().getBytes(StandardCharsets.UTF_8);
+            namesSize += 4 + names[v].length;
+        }
+        int m = outOffsets[n];
+        int[] outTargets = new int[m];
+        int[] outWeights = new int[m];
+        for (int v = 0; v < n; v++) {
+            // rows are sorted by child index, pack (child, weight) to sort them together
+            long[] row = new long[outOffsets[v + 1] - outOffsets[v]];
+            int k = 0;
+            for (IEdge edge : _graph.getOutgoingEdges(_graph.getNodeByIndex(v))) {
+                row[k++] = ((long) _graph.getIndex(edge.getChild()) << 32) | (edge.getWeight() & 0xFFFFFFFFL);
+            }
+            Arrays.sort(row);
+            for (k = 0; k < row.length; k++) {
+                outTargets[outOffsets[v] + k] = (int) (row[k] >>> 32);
+                outWeights[outOffsets[v] + k] = (int) row[k];
+            }
+        }
+        byte[] graphName = _graph.getName().getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer buffer = ByteBuffer.allocate(4 * (4 + n + n + 1 + m + m) + 4 + graphName.length + namesSize);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(m);
+        buffer.asIntBuffer().put(weights).put(outOffsets).put(outTargets).put(outWeights);
+        buffer.position(buffer.position() + 4 * (n + n + 1 + m + m));
+        buffer.putInt(graphName.length).put(graphName);
+        for (byte[] name : names) {
+            buffer.putInt(name.length).put(name);
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(Paths.get(_filepath), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,594 @@
+package raspberry.scheduler.io;
+
+import raspberry.scheduler.graph.IGraph;
+import raspberry.scheduler.io.exceptions.InvalidFormatException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.Function;
+
+/**
+ * Streaming parser for the subset of the DOT language used for task graphs.
+ * The input is read through a fixed size buffer and tokenized by hand, so the file is
+ * never held in memory and no intermediate graph model is built.
+ *
+ * <p> Supported statements are node statements, edge statements (including chains such as
+ * {@code a -> b -> c}), {@code graph}/{@code node}/{@code edge} default attribute statements
+ * and {@code ID = ID} graph attributes. Node and edge weights are read from the
+ * {@code Weight} attribute, every other attribute is ignored. Comments ({@code //},
+ * {@code /* *}{@code /} and {@code #} to the end of the line) and quoted ids are handled.
+ * Subgraphs and HTML ids are not part of the subset and are reported as errors.
+ *
+ * <p> Edges are kept until the end of the file, so a node may be declared after the
+ * edges that use it. Nodes are numbered as they are first seen and edges are kept in int
+ * arrays. An edge given more than once keeps its last weight, repeated edges are found while
+ * parsing through a table keyed by both ends.
+ * @author Young
+ */
+class DotParser {
+    private static final String WEIGHT = "Weight";
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int NO_WEIGHT = -1;
+    private static final long EMPTY = -1;
+
+    // token types
+    private static final int EOF = 0;
+    private static final int ID = 1;
+    private static final int LBRACE = 2;
+    private static final int RBRACE = 3;
+    private static final int LBRACKET = 4;
+    private static final int RBRACKET = 5;
+    private static final int EQUALS = 6;
+    private static final int SEMICOLON = 7;
+    private static final int COMMA = 8;
+    private static final int EDGE_OP = 9;
+
+    private final ReadableByteChannel _channel;
+    private final ByteBuffer _buffer;
+    private boolean _endOfInput;
+    private int _line = 1;
+
+    // current token
+    private int _token;
+    private String _text;
+    private String _lastId;
+    private int _tokenLine;
+    private byte[] _chars = new byte[64];
+
+    // graph content collected while parsing
+    private final HashMap<String, String> _names = new HashMap<String, String>();
+    private final HashMap<String, Integer> _nodeIds = new HashMap<String, Integer>();
+    private final ArrayList<String> _nodeNames = new ArrayList<String>();
+    private int[] _nodeWeights = new int[16];
+    private int[] _chain = new int[16];     // node ids of the edge chain being parsed
+    private int[] _edgeParents = new int[16];
+    private int[] _edgeChildren = new int[16];
+    private int[] _edgeWeights = new int[16];
+    private int _numEdges;
+    // open addressing table from both ends of an edge to its index, EMPTY slots are free
+    private long[] _edgeKeys = newEdgeKeys(64);
+    private int[] _edgeIndices = new int[64];
+    private String _defaultNodeWeight;
+    private String _defaultEdgeWeight;
+
+    /**
+     * Class constructor
+     * @param channel channel to read the DOT text from
+     */
+    DotParser(ReadableByteChannel channel) {
+        _channel = channel;
+        _buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        _buffer.flip();
+    }
+
+    /**
+     * Parses the whole input and builds the graph.
+     * @param graphFactory creates the empty graph given the name of the graph
+     * @return the graph
+     * @throws IOException if the channel cannot be read
+     * @throws InvalidFormatException if the input is not a valid task graph
+     */
+    IGraph parse(Function<String, IGraph> graphFactory) throws IOException {
+        advance();
+        if (_token == ID && _text.equalsIgnoreCase("strict")) {
+            advance();
+        }
+        if (_token != ID || !_text.equalsIgnoreCase("digraph")) {
+            throw error("expected 'digraph'");
+        }
+        advance();
+        String name = "";
+        if (_token == ID) {
+            name = _text;
+            advance();
+        }
+        expect(LBRACE, "'{'");
+        while (_token != RBRACE) {
+            if (_token == EOF) {
+                throw error("expected '}'");
+            }
+            statement();
+            if (_token == SEMICOLON) {
+                advance();
+            }
+        }
+        advance();
+        if (_token != EOF) {
+            throw error("unexpected content after the end of the graph");
+        }
+        return build(graphFactory.apply(name));
+    }
+
+    /**
+     * Parses one statement, the current token is its first token.
+     */
+    private void statement() throws IOException {
+        if (_token != ID) {
+            throw error("expected a node, an edge or an attribute statement");
+        }
+        String id = _text;
+        int line = _tokenLine;
+        advance();
+
+        if (_token == EQUALS) {
+            // graph attribute, ID = ID
+            advance();
+            expect(ID, "a value");
+            return;
+        }
+        if (_token == LBRACE || id.equalsIgnoreCase("subgraph")) {
+            throw error("subgraphs are not supported");
+        }
+        if (id.equalsIgnoreCase("graph") || id.equalsIgnoreCase("node") || id.equalsIgnoreCase("edge")) {
+            String weight = attributes();
+            if (weight != null && id.equalsIgnoreCase("node")) {
+                _defaultNodeWeight = weight;
+            } else if (weight != null && id.equalsIgnoreCase("edge")) {
+                _defaultEdgeWeight = weight;
+            }
+            return;
+        }
+        if (_token != EDGE_OP) {
+            String weight = attributes();
+            if (weight == null) {
+                weight = _defaultNodeWeight;
+            }
+            if (weight != null) {
+                _nodeWeights[getNodeId(id)] = parseWeight(weight, "node " + id, line);
+            } else {
+                getNodeId(id);
+            }
+            return;
+        }
+
+        // edge chain, the attributes apply to every edge of the chain
+        String first = id;
+        String second = null;
+        int length = 0;
+        _chain[length++] = declare(id, line);
+        while (_token == EDGE_OP) {
+            advance();
+            expect(ID, "a node id");
+            if (second == null) {
+                second = _lastId;
+            }
+            if (length == _chain.length) {
+                _chain = Arrays.copyOf(_chain, length * 2);
+            }
+            _chain[length++] = declare(_lastId, line);
+        }
+        String weight = attributes();
+        if (weight == null) {
+            weight = _defaultEdgeWeight;
+        }
+        if (weight == null) {
+            throw new InvalidFormatException(String.format(
+                    "Line %d: edge %s -> %s has no %s", line, first, second, WEIGHT));
+        }
+        int edgeWeight = parseWeight(weight, "edge " + first + " -> " + second, line);
+        for (int i = 0; i + 1 < length; i++) {
+            addEdge(_chain[i], _chain[i + 1], edgeWeight);
+        }
+    }
+
+    /**
+     * Returns the number of a node, numbering it without a weight if it is new.
+     */
+    private int getNodeId(String id) {
+        Integer node = _nodeIds.get(id);
+        if (node != null) {
+            return node;
+        }
+        int n = _nodeNames.size();
+        _nodeIds.put(id, n);
+        _nodeNames.add(id);
+        if (n == _nodeWeights.length) {
+            _nodeWeights = Arrays.copyOf(_nodeWeights, n * 2);
+        }
+        _nodeWeights[n] = NO_WEIGHT;
+        return n;
+    }
+
+    /**
+     * Declares a node seen in an edge statement, a new node takes the default node weight
+     * in effect at that point, if any.
+     * @return number of the node
+     */
+    private int declare(String id, int line) {
+        int count = _nodeNames.size();
+        int n = getNodeId(id);
+        if (n == count && _defaultNodeWeight != null) {
+            _nodeWeights[n] = parseWeight(_defaultNodeWeight, "node " + id, line);
+        }
+        return n;
+    }
+
+    /**
+     * Parses zero or more attribute lists and returns the value of the weight attribute.
+     * @return the weight as text, null if the lists do not set it
+     */
+    private String attributes() throws IOException {
+        String weight = null;
+        while (_token == LBRACKET) {
+            advance();
+            while (_token != RBRACKET) {
+                expect(ID, "an attribute name");
+                String key = _lastId;
+                String value = null;
+                if (_token == EQUALS) {
+                    advance();
+                    expect(ID, "an attribute value");
+                    value = _lastId;
+                }
+                if (WEIGHT.equals(key)) {
+                    weight = value;
+                }
+                if (_token == COMMA || _token == SEMICOLON) {
+                    advance();
+                }
+            }
+            advance();
+        }
+        return weight;
+    }
+
+    /**
+     * Adds every collected node and edge to the graph.
+     */
+    private IGraph build(IGraph graph) {
+        for (int n = 0; n < _nodeNames.size(); n++) {
+            if (_nodeWeights[n] == NO_WEIGHT) {
+                throw new InvalidFormatException(String.format("Node %s has no %s", _nodeNames.get(n), WEIGHT));
+            }
+            graph.addNode(_nodeNames.get(n), _nodeWeights[n]);
+        }
+        for (int e = 0; e < _numEdges; e++) {
+            graph.addEdge(_nodeNames.get(_edgeParents[e]), _nodeNames.get(_edgeChildren[e]), _edgeWeights[e]);
+        }
+        return graph;
+    }
+
+    /**
+     * Adds an edge, or sets the weight of the edge if it was given before.
+     */
+    private void addEdge(int parent, int child, int weight) {
+        long key = ((long) parent << 32) | child;
+        int slot = findEdgeSlot(_edgeKeys, key);
+        if (_edgeKeys[slot] == key) {
+            _edgeWeights[_edgeIndices[slot]] = weight;
+            return;
+        }
+        if (_numEdges == _edgeWeights.length) {
+            _edgeParents = Arrays.copyOf(_edgeParents, _numEdges * 2);
+            _edgeChildren = Arrays.copyOf(_edgeChildren, _numEdges * 2);
+            _edgeWeights = Arrays.copyOf(_edgeWeights, _numEdges * 2);
+        }
+        _edgeParents[_numEdges] = parent;
+        _edgeChildren[_numEdges] = child;
+        _edgeWeights[_numEdges] = weight;
+        _edgeKeys[slot] = key;
+        _edgeIndices[slot] = _numEdges;
+        _numEdges++;
+        if (_numEdges * 2 > _edgeKeys.length) {
+            growEdgeTable();
+        }
+    }
+
+    /**
+     * Doubles the edge table, it is kept at most half full.
+     */
+    private void growEdgeTable() {
+        long[] keys = newEdgeKeys(_edgeKeys.length * 2);
+        int[] indices = new int[keys.length];
+        for (int slot = 0; slot < _edgeKeys.length; slot++) {
+            if (_edgeKeys[slot] != EMPTY) {
+                int target = findEdgeSlot(keys, _edgeKeys[slot]);
+                keys[target] = _edgeKeys[slot];
+                indices[target] = _edgeIndices[slot];
+            }
+        }
+        _edgeKeys = keys;
+        _edgeIndices = indices;
+    }
+
+    /**
+     * Linear probing from the hash of the key.
+     * @return slot holding the key, or the free slot where it belongs
+     */
+    private static int findEdgeSlot(long[] keys, long key) {
+        int mask = keys.length - 1;
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static long[] newEdgeKeys(int capacity) {
+        long[] keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        return keys;
+    }
+
+    private int parseWeight(String value, String description, int line) {
+        try {
+            int weight = Integer.parseInt(value);
+            if (weight < 0) {
+                throw new InvalidFormatException(String.format(
+                        "Line %d: %s has a negative %s '%s'", line, description, WEIGHT, value));
+            }
+            return weight;
+        } catch (NumberFormatException e) {
+            throw new InvalidFormatException(String.format(
+                    "Line %d: %s has an invalid %s '%s'", line, description, WEIGHT, value));
+        }
+    }
+
+    /**
+     * Checks the current token type and moves to the next token.
+     * The text of an id token is kept in {@code _lastId}.
+     */
+    private void expect(int token, String description) throws IOException {
+        if (_token != token) {
+            throw error("expected " + description);
+        }
+        _lastId = _text;
+        advance();
+    }
+
+    private InvalidFormatException error(String message) {
+        String found = _token == EOF ? "end of file" : "'" + _text + "'";
+        return new InvalidFormatException(String.format("Line %d: %s but found %s", _tokenLine, message, found));
+    }
+
+    // ------------------------------------------------------------------ tokenizer
+
+    /**
+     * Reads the next token into {@code _token} and {@code _text}.
+     */
+    private void advance() throws IOException {
+        int c = skipWhitespaceAndComments();
+        _tokenLine = _line;
+        switch (c) {
+            case -1:
+                _token = EOF;
+                _text = null;
+                return;
+            case '{':
+                single(LBRACE, "{");
+                return;
+            case '}':
+                single(RBRACE, "}");
+                return;
+            case '[':
+                single(LBRACKET, "[");
+                return;
+            case ']':
+                single(RBRACKET, "]");
+                return;
+            case '=':
+                single(EQUALS, "=");
+                return;
+            case ';':
+                single(SEMICOLON, ";");
+                return;
+            case ',':
+                single(COMMA, ",");
+                return;
+            case '"':
+                read();
+                quoted();
+                return;
+            case '<':
+                throw new InvalidFormatException(String.format("Line %d: HTML ids are not supported", _line));
+            default:
+                break;
+        }
+        if (c == '-') {
+            read();
+            int next = peek();
+            if (next == '>' || next == '-') {
+                read();
+                _token = EDGE_OP;
+                _text = next == '>' ? "->" : "--";
+                return;
+            }
+            unquoted('-');
+            return;
+        }
+        if (isIdChar(c)) {
+            unquoted(-1);
+            return;
+        }
+        read();
+        throw new InvalidFormatException(String.format("Line %d: unexpected character '%c'", _line, (char) c));
+    }
+
+    private void single(int token, String text) throws IOException {
+        read();
+        _token = token;
+        _text = text;
+    }
+
+    /**
+     * Reads an unquoted id, alphanumeric characters, underscores, dots and non ascii bytes.
+     * @param first character already consumed, -1 if none
+     */
+    private void unquoted(int first) throws IOException {
+        int length = 0;
+        if (first >= 0) {
+            _chars[length++] = (byte) first;
+        }
+        while (isIdChar(peek())) {
+            length = append(length, read());
+        }
+        token(length);
+    }
+
+    /**
+     * Reads a quoted id, the opening quote has been consumed.
+     */
+    private void quoted() throws IOException {
+        int length = 0;
+        int start = _line;
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw new InvalidFormatException(String.format("Line %d: unterminated quoted id", start));
+            }
+            if (c == '"') {
+                break;
+            }
+            if (c == '\\') {
+                int next = read();
+                if (next == '\n') {
+                    continue;
+                }
+                if (next != '"') {
+                    length = append(length, c);
+                }
+                c = next;
+            }
+            length = append(length, c);
+        }
+        token(length);
+    }
+
+    private void token(int length) {
+        String text = new String(_chars, 0, length, StandardCharsets.UTF_8);
+        String interned = _names.get(text);
+        if (interned == null) {
+            _names.put(text, text);
+            interned = text;
+        }
+        _token = ID;
+        _text = interned;
+    }
+
+    private int append(int length, int c) {
+        if (length == _chars.length) {
+            _chars = Arrays.copyOf(_chars, length * 2);
+        }
+        _chars[length] = (byte) c;
+        return length + 1;
+    }
+
+    private static boolean isIdChar(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '_' || c == '.' || c >= 0x80;
+    }
+
+    /**
+     * Skips blanks and comments.
+     * @return the first character of the next token without consuming it, -1 at the end
+     */
+    private int skipWhitespaceAndComments() throws IOException {
+        while (true) {
+            int c = peek();
+            if (c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '\f') {
+                read();
+            } else if (c == '#') {
+                skipLine();
+            } else if (c == '/') {
+                read();
+                int next = peek();
+                if (next == '/') {
+                    skipLine();
+                } else if (next == '*') {
+                    read();
+                    skipBlockComment();
+                } else {
+                    throw new InvalidFormatException(String.format("Line %d: unexpected character '/'", _line));
+                }
+            } else {
+                return c;
+            }
+        }
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        do {
+            c = peek();
+            if (c != '\n' && c != -1) {
+                read();
+            }
+        } while (c != '\n' && c != -1);
+    }
+
+    private void skipBlockComment() throws IOException {
+        int start = _line;
+        int previous = 0;
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw new InvalidFormatException(String.format("Line %d: unterminated comment", start));
+            }
+            if (previous == '*' && c == '/') {
+                return;
+            }
+            previous = c;
+        }
+    }
+
+    private int peek() throws IOException {
+        if (!_buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return _buffer.get(_buffer.position()) & 0xFF;
+    }
+
+    private int read() throws IOException {
+        if (!_buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        int c = _buffer.get() & 0xFF;
+        if (c == '\n') {
+            _line++;
+        }
+        return c;
+    }
+
+    private boolean fill() throws IOException {
+        if (_endOfInput) {
+            return false;
+        }
+        _buffer.clear();
+        int read;
+        do {
+            read = _channel.read(_buffer);
+        } while (read == 0);
+        _buffer.flip();
+        if (read < 0) {
+            _endOfInput = true;
+            return false;
+        }
+        return true;
+    }
+}
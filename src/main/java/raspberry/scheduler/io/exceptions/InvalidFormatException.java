@@ -1,13 +1,12 @@
 package raspberry.scheduler.io.exceptions;
 
 /**
- *
- * @deprecated
+ * Thrown when an input graph file does not follow the expected format.
+ * The message gives the line of the problem where it is known.
+ * Unchecked, so that readers keep their existing signatures.
  */
-public class InvalidFormatException extends Exception {
+public class InvalidFormatException extends RuntimeException {
     public InvalidFormatException(String errorMessage) {
         super(errorMessage);
     }
 }
-
-
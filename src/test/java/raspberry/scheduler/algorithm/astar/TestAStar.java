@@ -2,6 +2,7 @@ package raspberry.scheduler.algorithm.astar;
 
 import org.junit.Test;
 import raspberry.scheduler.algorithm.common.OutputChecker;
+import raspberry.scheduler.algorithm.common.MemoryBudget;
 import raspberry.scheduler.algorithm.common.OutputSchedule;
 import raspberry.scheduler.graph.IGraph;
 import raspberry.scheduler.graph.exceptions.EdgeDoesNotExistException;
@@ -10,6 +11,7 @@ import raspberry.scheduler.io.GraphReader;
 import java.io.FileNotFoundException;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 /**
@@ -192,6 +194,72 @@ public class TestAStar {
         assertEquals(227, output.getFinishTime());
     }
 
+    /**
+     * The search carries on depth first once the open and closed lists reach a small memory budget
+     * Name: 16_466.dot
+     * Expected total Time for schedule: 624
+     * @throws FileNotFoundException file does not exist
+     */
+    @Test
+    public void testNodes16_2ProcessorSmallMemoryBudget() throws FileNotFoundException, EdgeDoesNotExistException {
+        IGraph graph = new GraphReader(INPUT_PATH + "16_466.dot").read();
+        AStar astar = new AStar(graph, 2, Integer.MAX_VALUE);
+        astar.setMemoryBudget(new MemoryBudget(64 * 1024));
+        OutputSchedule output = astar.findPath();
+        assertEquals(624, output.getFinishTime());
+        if (!OutputChecker.isValid(graph, output)) {
+            fail("Schedule is not valid");
+        }
+    }
+
+    /**
+     * The lazy heuristic finds the optimal schedule, with the heap and the indexed open list,
+     * and puts back schedules whose full heuristic is larger
+     * Name: 16_466.dot
+     * Expected total Time for schedule: 624
+     * @throws EdgeDoesNotExistException edge does not exist
+     * @throws FileNotFoundException file does not exist
+     */
+    @Test
+    public void testNodes16_2ProcessorLazyHeuristic() throws FileNotFoundException, EdgeDoesNotExistException {
+        IGraph graph = new GraphReader(INPUT_PATH + "16_466.dot").read();
+        for (OpenList openList : new OpenList[] {new HeapOpenList(), new IndexedOpenList()}) {
+            AStar astar = new AStar(graph, 2, Integer.MAX_VALUE);
+            astar.setOpenList(openList);
+            astar.setLazyHeuristic(true);
+            OutputSchedule output = astar.findPath();
+            assertEquals(624, output.getFinishTime());
+            assertTrue(astar.getNumLazyReinserts() > 0);
+            if (!OutputChecker.isValid(graph, output)) {
+                fail("Schedule is not valid");
+            }
+        }
+    }
+
+    /**
+     * Partial expansion finds the optimal schedule, with the heap and the indexed open list,
+     * and puts back schedules whose children were left out
+     * Name: 16_466.dot
+     * Expected total Time for schedule: 624
+     * @throws EdgeDoesNotExistException edge does not exist
+     * @throws FileNotFoundException file does not exist
+     */
+    @Test
+    public void testNodes16_2ProcessorPartialExpansion() throws FileNotFoundException, EdgeDoesNotExistException {
+        IGraph graph = new GraphReader(INPUT_PATH + "16_466.dot").read();
+        for (OpenList openList : new OpenList[] {new HeapOpenList(), new IndexedOpenList()}) {
+            AStar astar = new AStar(graph, 2, Integer.MAX_VALUE);
+            astar.setOpenList(openList);
+            astar.setPartialExpansion(true);
+            OutputSchedule output = astar.findPath();
+            assertEquals(624, output.getFinishTime());
+            assertTrue(astar.getNumPartialRequeues() > 0);
+            if (!OutputChecker.isValid(graph, output)) {
+                fail("Schedule is not valid");
+            }
+        }
+    }
+
     /**
      * Helper method to read the file and run a star
      * with specified number of processor.
@@ -0,0 +1,161 @@
+package raspberry.scheduler.algorithm.astar;
+
+import org.junit.Before;
+import org.junit.Test;
+import raspberry.scheduler.algorithm.common.OutputChecker;
+import raspberry.scheduler.algorithm.common.OutputSchedule;
+import raspberry.scheduler.algorithm.common.ScheduleContext;
+import raspberry.scheduler.algorithm.common.ScheduledTask;
+import raspberry.scheduler.graph.IGraph;
+import raspberry.scheduler.graph.adjacencylist.Graph;
+import raspberry.scheduler.graph.exceptions.EdgeDoesNotExistException;
+import raspberry.scheduler.io.GraphReader;
+
+import java.io.FileNotFoundException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class tests the bucket open list, its tie breaking and A* searching with it.
+ * @author Takahiro
+ */
+public class TestBucketOpenList {
+    // input path of the resource folder
+    private String INPUT_PATH = "src/test/resources/input/";
+
+    private ScheduleAStar _root;    // f 10, depth 1, finish time 2
+    private ScheduleAStar _deep;    // f 10, depth 2, finish time 5
+    private ScheduleAStar _wide;    // f 10, depth 2, finish time 4
+    private ScheduleAStar _best;    // f 7
+
+    @Before
+    public void GraphTestSetUp() {
+        Graph graph = new Graph("testGraph");
+        graph.addNode("a", 2);
+        graph.addNode("b", 3);
+        graph.addNode("c", 4);
+        ScheduleContext context = new ScheduleContext(graph, 2);
+        _root = new ScheduleAStar(new ScheduledTask(1, graph.getNode("a"), 0), context);
+        _root.addHeuristic(8);
+        _deep = new ScheduleAStar(_root, new ScheduledTask(1, graph.getNode("b"), 2));
+        _deep.addHeuristic(5);
+        _wide = new ScheduleAStar(_root, new ScheduledTask(2, graph.getNode("c"), 0));
+        _wide.addHeuristic(6);
+        _best = new ScheduleAStar(new ScheduledTask(1, graph.getNode("b"), 0), context);
+        _best.addHeuristic(4);
+    }
+
+    /**
+     * Add the schedules, the smallest f value last
+     */
+    private OpenList fill(BucketOpenList.TieBreak tieBreak) {
+        OpenList openList = new BucketOpenList(tieBreak);
+        openList.add(_root);
+        openList.add(_deep);
+        openList.add(_wide);
+        openList.add(_best);
+        return openList;
+    }
+
+    /**
+     * Whatever the tie breaking, the smallest f value comes first, then the ties in order.
+     */
+    @Test
+    public void testTieBreak() {
+        ScheduleAStar[][] orders = {
+                {_root, _deep, _wide},
+                {_wide, _deep, _root},
+                {_wide, _deep, _root},
+                {_deep, _wide, _root}};
+        BucketOpenList.TieBreak[] tieBreaks = {BucketOpenList.TieBreak.FIFO, BucketOpenList.TieBreak.LIFO,
+                BucketOpenList.TieBreak.DEPTH, BucketOpenList.TieBreak.H};
+        for (int i = 0; i < tieBreaks.length; i++) {
+            OpenList openList = fill(tieBreaks[i]);
+            assertEquals(4, openList.size());
+            assertSame(_best, openList.poll());
+            for (ScheduleAStar schedule : orders[i]) {
+                assertSame(schedule, openList.poll());
+            }
+            assertTrue(openList.isEmpty());
+            assertNull(openList.poll());
+        }
+    }
+
+    /**
+     * A smaller f value added after polling comes out next, and clearing empties the list.
+     */
+    @Test
+    public void testSmallerFAfterPoll() {
+        OpenList openList = new BucketOpenList(BucketOpenList.TieBreak.DEPTH);
+        openList.add(_root);
+        openList.add(_deep);
+        assertSame(_deep, openList.poll());
+        openList.add(_best);
+        assertSame(_best, openList.poll());
+        assertSame(_root, openList.poll());
+
+        openList = fill(BucketOpenList.TieBreak.LIFO);
+        openList.clear();
+        assertTrue(openList.isEmpty());
+        openList.add(_wide);
+        assertSame(_wide, openList.poll());
+    }
+
+    /**
+     * f values and keys past the array limit keep their order without growing the arrays to them
+     */
+    @Test
+    public void testLargeValues() {
+        int large = BucketOpenList.DIRECT_LIMIT * 16;
+        Graph graph = new Graph("largeGraph");
+        graph.addNode("a", 2);
+        graph.addNode("large", large);
+        ScheduleContext context = new ScheduleContext(graph, 2);
+        // all of f large + 5, finish times large, large + 5 and 2
+        ScheduleAStar early = new ScheduleAStar(new ScheduledTask(1, graph.getNode("large"), 0), context);
+        early.addHeuristic(5);
+        ScheduleAStar late = new ScheduleAStar(new ScheduledTask(1, graph.getNode("a"), large + 3), context);
+        late.addHeuristic(0);
+        ScheduleAStar small = new ScheduleAStar(new ScheduledTask(1, graph.getNode("a"), 0), context);
+        small.addHeuristic(large + 3);
+
+        OpenList openList = new BucketOpenList(BucketOpenList.TieBreak.H);
+        openList.add(early);
+        openList.add(small);
+        openList.add(late);
+        openList.add(_root);
+        assertEquals(4, openList.size());
+        assertSame(_root, openList.poll());
+        assertSame(late, openList.poll());
+        openList.add(_best);
+        assertSame(_best, openList.poll());
+        assertSame(early, openList.poll());
+        assertSame(small, openList.poll());
+        assertTrue(openList.isEmpty());
+        assertNull(openList.poll());
+    }
+
+    /**
+     * A* and weighted A* find the same schedules with the bucket open list
+     * Name: 16_466.dot
+     * Expected total Time for schedule: 466
+     * @throws FileNotFoundException file does not exist
+     */
+    @Test
+    public void testNodes16_5Processor() throws FileNotFoundException, EdgeDoesNotExistException {
+        IGraph graph = new GraphReader(INPUT_PATH + "16_466.dot").read();
+        WeightedAStar wA = new WeightedAStar(graph, 5);
+        wA.setOpenList(new BucketOpenList(BucketOpenList.TieBreak.DEPTH));
+        OutputSchedule outputBound = wA.findPath();
+        assertTrue(OutputChecker.isValid(graph, outputBound));
+
+        AStar astar = new AStar(graph, 5, outputBound.getFinishTime());
+        astar.setOpenList(new BucketOpenList(BucketOpenList.TieBreak.DEPTH));
+        OutputSchedule output = astar.findPath();
+        assertEquals(466, output.getFinishTime());
+        assertTrue(OutputChecker.isValid(graph, output));
+    }
+}
@@ -0,0 +1,192 @@
+package raspberry.scheduler.algorithm.astar;
+
+import org.junit.Test;
+import raspberry.scheduler.algorithm.common.MemoryBudget;
+import raspberry.scheduler.algorithm.common.OutputChecker;
+import raspberry.scheduler.algorithm.common.OutputSchedule;
+import raspberry.scheduler.graph.IGraph;
+import raspberry.scheduler.graph.exceptions.EdgeDoesNotExistException;
+import raspberry.scheduler.io.GraphReader;
+
+import java.io.FileNotFoundException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * This class tests the hash distributed parallel A*: optimal schedules, schedules sent between
+ * workers, termination without a solution and failing workers.
+ * @author Takahiro
+ */
+public class TestHashDistributedAStar {
+    // input path of the resource folder
+    private String INPUT_PATH = "src/test/resources/input/";
+
+    /**
+     * Test performance of A* algorithm and correctness of output
+     * Name: Nodes_7_OutTree.dot
+     * Expected total Time for schedule: 28
+     * @throws FileNotFoundException file does not exist
+     */
+    @Test(timeout = 60000)
+    public void testNodes7OutTree2Processor() throws FileNotFoundException, EdgeDoesNotExistException {
+        OutputSchedule output = readAndFindPath("Nodes_7_OutTree.dot", 2);
+        assertEquals(28, output.getFinishTime());
+    }
+
+    /**
+     * Test performance of A* algorithm and correctness of output
+     * Name: Nodes_10_Random.dot
+     * Expected total Time for schedule: 50
+     * @throws FileNotFoundException file does not exist
+     */
+    @Test(timeout = 60000)
+    public void testNodes10Random4Processor() throws FileNotFoundException, EdgeDoesNotExistException {
+        OutputSchedule output = readAndFindPath("Nodes_10_Random.dot", 4);
+        assertEquals(50, output.getFinishTime());
+    }
+
+    /**
+     * Test performance of A* algorithm and correctness of output
+     * Name: Nodes_11_OutTree.dot
+     * Expected total Time for schedule: 227
+     * @throws FileNotFoundException file does not exist
+     */
+    @Test(timeout = 60000)
+    public void testNodes11OutTree4Processor() throws FileNotFoundException, EdgeDoesNotExistException {
+        OutputSchedule output = readAndFindPath("Nodes_11_OutTree.dot", 4);
+        assertEquals(227, output.getFinishTime());
+    }
+
+    /**
+     * Every worker has an indexed open list, which is also its closed list
+     * Name: 16_466.dot
+     * Expected total Time for schedule: 624
+     * @throws FileNotFoundException file does not exist
+     */
+    @Test(timeout = 120000)
+    public void testNodes16_2ProcessorIndexedOpenList() throws FileNotFoundException, EdgeDoesNotExistException {
+        IGraph graph = new GraphReader(INPUT_PATH + "16_466.dot").read();
+        HashDistributedAStar astar = new HashDistributedAStar(graph, 2, 4);
+        astar.setOpenList(new IndexedOpenList());
+        OutputSchedule output = astar.findPath();
+        assertEquals(624, output.getFinishTime());
+        if (!OutputChecker.isValid(graph, output)) {
+            fail("Schedule is not valid");
+        }
+    }
+
+    /**
+     * The workers stop and the search carries on depth first once they reach a small memory budget
+     * Name: 16_466.dot
+     * Expected total Time for schedule: 624
+     * @throws FileNotFoundException file does not exist
+     */
+    @Test(timeout = 120000)
+    public void testNodes16_2ProcessorSmallMemoryBudget() throws FileNotFoundException, EdgeDoesNotExistException {
+        IGraph graph = new GraphReader(INPUT_PATH + "16_466.dot").read();
+        HashDistributedAStar astar = new HashDistributedAStar(graph, 2, 4);
+        astar.setMemoryBudget(new MemoryBudget(64 * 1024));
+        OutputSchedule output = astar.findPath();
+        assertEquals(624, output.getFinishTime());
+        if (!OutputChecker.isValid(graph, output)) {
+            fail("Schedule is not valid");
+        }
+    }
+
+    /**
+     * Many more workers than schedules: most batches cross between workers, several workers
+     * expand schedules and the idle ones still see the end of the search
+     * Name: Nodes_7_OutTree.dot
+     * Expected total Time for schedule: 28
+     * @throws FileNotFoundException file does not exist
+     */
+    @Test(timeout = 60000)
+    public void testNodes7OutTree2ProcessorManyWorkers() throws FileNotFoundException, EdgeDoesNotExistException {
+        IGraph graph = new GraphReader(INPUT_PATH + "Nodes_7_OutTree.dot").read();
+        HashDistributedAStar astar = new HashDistributedAStar(graph, 2, 16);
+        OutputSchedule output = astar.findPath();
+        assertEquals(28, output.getFinishTime());
+        if (!OutputChecker.isValid(graph, output)) {
+            fail("Schedule is not valid");
+        }
+        int numExpanding = 0;
+        for (int numExpanded : astar.getNumExpanded()) {
+            if (numExpanded > 0) {
+                numExpanding++;
+            }
+        }
+        assertTrue(numExpanding > 1);
+    }
+
+    /**
+     * Every schedule is pruned by an upper bound below the optimal schedule, the workers run out
+     * of work and the search ends without a schedule
+     * Name: Nodes_10_Random.dot
+     * Expected total Time for schedule: 50
+     * @throws FileNotFoundException file does not exist
+     */
+    @Test(timeout = 60000)
+    public void testNodes10Random2ProcessorNoSolutionUnderBound() throws FileNotFoundException, EdgeDoesNotExistException {
+        IGraph graph = new GraphReader(INPUT_PATH + "Nodes_10_Random.dot").read();
+        assertNull(new HashDistributedAStar(graph, 2, 49, 16).findPath());
+    }
+
+    /**
+     * A worker that throws stops the others and its exception comes out of the search
+     * Name: Nodes_10_Random.dot
+     * @throws FileNotFoundException file does not exist
+     */
+    @Test(timeout = 60000)
+    public void testNodes10Random2ProcessorFailingWorker() throws FileNotFoundException, EdgeDoesNotExistException {
+        IGraph graph = new GraphReader(INPUT_PATH + "Nodes_10_Random.dot").read();
+        HashDistributedAStar astar = new HashDistributedAStar(graph, 2, 4);
+        astar.setOpenList(new FailingOpenList());
+        try {
+            astar.findPath();
+            fail("Worker failure is not reported");
+        } catch (IllegalStateException e) {
+            assertEquals("Worker failed", e.getMessage());
+        }
+    }
+
+    /**
+     * Open list of the first worker, the open lists it creates for the other workers fail
+     */
+    private static class FailingOpenList extends HeapOpenList {
+        @Override
+        public OpenList create() {
+            return new HeapOpenList() {
+                @Override
+                public ScheduleAStar poll() {
+                    throw new IllegalStateException("Worker failed");
+                }
+            };
+        }
+    }
+
+    /**
+     * Helper method to read the file and run hash distributed a star on 4 workers
+     * with specified number of processor.
+     * Do validity check upon finish
+     *
+     * @param filename filename of the dot file of dependency graph
+     * @param numProcessors number of resource available to allocate to task
+     * @return output schedule
+     * @throws FileNotFoundException if file does not exist
+     * @throws EdgeDoesNotExistException if get edges yield error
+     */
+    private OutputSchedule readAndFindPath(String filename, int numProcessors) throws
+            FileNotFoundException, EdgeDoesNotExistException {
+        IGraph graph = new GraphReader(INPUT_PATH + filename).read();
+        OutputSchedule output = new HashDistributedAStar(graph, numProcessors, 4).findPath();
+
+        // check if output violate any dependency
+        if (!OutputChecker.isValid(graph, output)) {
+            fail("Schedule is not valid");
+        }
+        return output;
+    }
+}
@@ -0,0 +1,98 @@
+package raspberry.scheduler.algorithm.astar;
+
+import org.junit.Before;
+import org.junit.Test;
+import raspberry.scheduler.algorithm.common.OutputChecker;
+import raspberry.scheduler.algorithm.common.OutputSchedule;
+import raspberry.scheduler.algorithm.common.ScheduleContext;
+import raspberry.scheduler.algorithm.common.ScheduledTask;
+import raspberry.scheduler.graph.IGraph;
+import raspberry.scheduler.graph.adjacencylist.Graph;
+import raspberry.scheduler.graph.exceptions.EdgeDoesNotExistException;
+import raspberry.scheduler.io.GraphReader;
+
+import java.io.FileNotFoundException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class tests the indexed open list: duplicates, decrease key and reopening.
+ * @author Takahiro
+ */
+public class TestIndexedOpenList {
+    // input path of the resource folder
+    private String INPUT_PATH = "src/test/resources/input/";
+
+    private Graph _testGraph;
+    private ScheduleContext _context;
+
+    @Before
+    public void GraphTestSetUp() {
+        _testGraph = new Graph("testGraph");
+        _testGraph.addNode("a", 2);
+        _testGraph.addNode("b", 3);
+        _context = new ScheduleContext(_testGraph, 2);
+    }
+
+    /**
+     * Schedule of a single task with a given f value
+     */
+    private ScheduleAStar schedule(String task, int pid, int f) {
+        ScheduleAStar schedule = new ScheduleAStar(new ScheduledTask(pid, _testGraph.getNode(task), 0), _context);
+        schedule.addHeuristic(f - schedule.getFinishTime());
+        return schedule;
+    }
+
+    /**
+     * A duplicate with a smaller f value replaces the open or closed entry, any other duplicate is dropped.
+     */
+    @Test
+    public void testDuplicates() {
+        IndexedOpenList openList = new IndexedOpenList();
+        openList.add(schedule("a", 1, 10));
+        ScheduleAStar b = schedule("b", 1, 9);
+        openList.add(b);
+        // the same state on the other processor
+        ScheduleAStar better = schedule("a", 2, 7);
+        openList.add(better);
+        assertEquals(2, openList.size());
+        assertEquals(1, openList.getNumDecreased());
+
+        assertSame(better, openList.poll());
+        assertEquals(1, openList.getNumClosed());
+        openList.add(schedule("a", 1, 10));
+        assertEquals(1, openList.getNumDuplicates());
+        assertEquals(1, openList.size());
+
+        ScheduleAStar best = schedule("a", 1, 4);
+        openList.add(best);
+        assertEquals(1, openList.getNumReopened());
+        assertEquals(0, openList.getNumClosed());
+        assertSame(best, openList.poll());
+        assertSame(b, openList.poll());
+        assertTrue(openList.isEmpty());
+        assertEquals(2, openList.getNumClosed());
+        assertTrue(openList.detectsDuplicates());
+    }
+
+    /**
+     * A* finds the optimal schedule with the indexed open list as its closed list
+     * Name: 16_466.dot
+     * Expected total Time for schedule: 466
+     * @throws FileNotFoundException file does not exist
+     */
+    @Test
+    public void testNodes16_5Processor() throws FileNotFoundException, EdgeDoesNotExistException {
+        IGraph graph = new GraphReader(INPUT_PATH + "16_466.dot").read();
+        int upperBound = new WeightedAStar(graph, 5).findPath().getFinishTime();
+        AStar astar = new AStar(graph, 5, upperBound);
+        IndexedOpenList openList = new IndexedOpenList();
+        astar.setOpenList(openList);
+        OutputSchedule output = astar.findPath();
+        assertEquals(466, output.getFinishTime());
+        assertTrue(OutputChecker.isValid(graph, output));
+        assertTrue(openList.getNumClosed() > 0);
+    }
+}
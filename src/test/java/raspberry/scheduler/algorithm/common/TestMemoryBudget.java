@@ -0,0 +1,70 @@
+package raspberry.scheduler.algorithm.common;
+
+import org.junit.Test;
+import raspberry.scheduler.algorithm.bnb.InPlaceBNB;
+import raspberry.scheduler.graph.adjacencylist.Graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class tests the memory budget and the estimates of the stored schedules.
+ * @author Takahiro
+ */
+public class TestMemoryBudget {
+
+    /**
+     * Budgets are given in megabytes and shared between searches.
+     */
+    @Test
+    public void testBudget() {
+        MemoryBudget budget = MemoryBudget.ofMegabytes(4);
+        assertEquals(4 * MemoryBudget.BYTES_PER_MB, budget.getBytes());
+        assertFalse(budget.isExceeded(budget.getBytes()));
+        assertTrue(budget.isExceeded(budget.getBytes() + 1));
+        assertEquals(MemoryBudget.BYTES_PER_MB, budget.split(4).getBytes());
+        assertEquals(1024, budget.getMaxEntries(4096));
+        assertEquals(1, new MemoryBudget(10).getMaxEntries(100));
+        assertTrue(MemoryBudget.getDefault().getBytes() < Runtime.getRuntime().maxMemory());
+    }
+
+    /**
+     * A budget must hold something.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyBudget() {
+        MemoryBudget.ofMegabytes(0);
+    }
+
+    /**
+     * Objects are rounded up to 8 bytes and grow with the graph.
+     */
+    @Test
+    public void testEstimates() {
+        assertEquals(16, MemoryBudget.intArray(0));
+        assertEquals(24, MemoryBudget.intArray(1));
+        assertEquals(56, MemoryBudget.longArray(5));
+        long small = MemoryBudget.scheduleBytes(10, 2);
+        assertEquals(0, small % 8);
+        assertTrue(small > MemoryBudget.stateBytes(10, 2));
+        assertTrue(MemoryBudget.scheduleBytes(20, 2) > small);
+        assertTrue(MemoryBudget.scheduleBytes(10, 4) > small);
+    }
+
+    /**
+     * A search starts empty and falls back to its default budget.
+     */
+    @Test
+    public void testSearchEstimate() {
+        Graph graph = new Graph("testGraph");
+        graph.addNode("a", 2);
+        graph.addNode("b", 3);
+        graph.addEdge("a", "b", 1);
+        InPlaceBNB bnb = new InPlaceBNB(graph, 2, Integer.MAX_VALUE);
+        assertEquals(0, bnb.getEstimatedMemory());
+        assertEquals(MemoryBudget.getDefault().getBytes(), bnb.getMemoryBudget().getBytes());
+        bnb.findPath();
+        assertTrue(bnb.getEstimatedMemory() > 0);
+    }
+}
@@ -5,12 +5,9 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import raspberry.scheduler.algorithm.bnb.ScheduleB;
-import raspberry.scheduler.graph.INode;
 import raspberry.scheduler.graph.adjacencylist.Graph;
 import raspberry.scheduler.graph.exceptions.EdgeDoesNotExistException;
 
-import java.util.Hashtable;
-
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -59,22 +56,19 @@ public class TestOutputChecker {
         ScheduledTask taskf1 = new ScheduledTask(2, testGraph1.getNode("f"), 6);
         ScheduledTask taskg1 = new ScheduledTask(2, testGraph1.getNode("g"), 10);
 
-        // Add an indegree table for BnB schedule typing (empty, just for convention)
-        Hashtable<INode, Integer> inDegreeTable1 = new Hashtable<INode, Integer>();
-
         // Append the tasks to the test output schedule.
 
         // Set the head of the schedule linked list as taska1.
 
-        ScheduleB testSchedule1 = new ScheduleB( taska1, inDegreeTable1);
+        ScheduleB testSchedule1 = new ScheduleB(taska1);
 
         // Add the rest of the tasks to the linked list.
-        testSchedule1 = new ScheduleB(testSchedule1, taskb1, inDegreeTable1);
-        testSchedule1 = new ScheduleB(testSchedule1, taskc1, inDegreeTable1);
-        testSchedule1 = new ScheduleB(testSchedule1, taskd1, inDegreeTable1);
-        testSchedule1 = new ScheduleB(testSchedule1, taske1, inDegreeTable1);
-        testSchedule1 = new ScheduleB(testSchedule1, taskf1, inDegreeTable1);
-        testSchedule1 = new ScheduleB(testSchedule1, taskg1, inDegreeTable1);
+        testSchedule1 = new ScheduleB(testSchedule1, taskb1);
+        testSchedule1 = new ScheduleB(testSchedule1, taskc1);
+        testSchedule1 = new ScheduleB(testSchedule1, taskd1);
+        testSchedule1 = new ScheduleB(testSchedule1, taske1);
+        testSchedule1 = new ScheduleB(testSchedule1, taskf1);
+        testSchedule1 = new ScheduleB(testSchedule1, taskg1);
 
 
         // Make outputSchedule.
@@ -127,21 +121,18 @@ public class TestOutputChecker {
         ScheduledTask taskg1 = new ScheduledTask(2, testGraph1.getNode("g"), 0);
         ScheduledTask taskg2 = new ScheduledTask(2, testGraph1.getNode("g"), 10);
 
-        // Add an indegree table for BnB schedule typing (empty, just for convention)
-        Hashtable<INode, Integer> inDegreeTable1 = new Hashtable<INode, Integer>();
-
         // Append the tasks to the test output schedule.
 
         // Set the head of the schedule linked list as taska1.
-        ScheduleB testSchedule1 = new ScheduleB( taska1, inDegreeTable1);
+        ScheduleB testSchedule1 = new ScheduleB(taska1);
         // Add the rest of the tasks to the linked list.
-        testSchedule1 = new ScheduleB(testSchedule1, taskb1, inDegreeTable1);
-        testSchedule1 = new ScheduleB(testSchedule1, taskc1, inDegreeTable1);
-        testSchedule1 = new ScheduleB(testSchedule1, taskd1, inDegreeTable1);
-        testSchedule1 = new ScheduleB(testSchedule1, taske1, inDegreeTable1);
-        testSchedule1 = new ScheduleB(testSchedule1, taskf1, inDegreeTable1);
-        testSchedule1 = new ScheduleB(testSchedule1, taskg1, inDegreeTable1);
-        testSchedule1 = new ScheduleB(testSchedule1, taskg2, inDegreeTable1);
+        testSchedule1 = new ScheduleB(testSchedule1, taskb1);
+        testSchedule1 = new ScheduleB(testSchedule1, taskc1);
+        testSchedule1 = new ScheduleB(testSchedule1, taskd1);
+        testSchedule1 = new ScheduleB(testSchedule1, taske1);
+        testSchedule1 = new ScheduleB(testSchedule1, taskf1);
+        testSchedule1 = new ScheduleB(testSchedule1, taskg1);
+        testSchedule1 = new ScheduleB(testSchedule1, taskg2);
 
         // Make outputSchedule.
         OutputSchedule outputSchedule1 = new Solution(testSchedule1, 2);
@@ -196,20 +187,17 @@ public class TestOutputChecker {
         ScheduledTask taskf1 = new ScheduledTask(2, testGraph1.getNode("f"), 2);
         ScheduledTask taskg1 = new ScheduledTask(2, testGraph1.getNode("g"), 0);
 
-        // Add an indegree table for BnB schedule typing (empty, just for convention)
-        Hashtable<INode, Integer> inDegreeTable1 = new Hashtable<INode, Integer>();
-
         // Append the tasks to the test output schedule.
 
         // Set the head of the schedule linked list as taska1.
-        ScheduleB testSchedule1 = new ScheduleB( taska1, inDegreeTable1);
+        ScheduleB testSchedule1 = new ScheduleB(taska1);
         // Add the rest of the tasks to the linked list.
-        testSchedule1 = new ScheduleB(testSchedule1, taskb1, inDegreeTable1);
-        testSchedule1 = new ScheduleB(testSchedule1, taskc1, inDegreeTable1);
-        testSchedule1 = new ScheduleB(testSchedule1, taskd1, inDegreeTable1);
-        testSchedule1 = new ScheduleB(testSchedule1, taske1, inDegreeTable1);
-        testSchedule1 = new ScheduleB(testSchedule1, taskf1, inDegreeTable1);
-        testSchedule1 = new ScheduleB(testSchedule1, taskg1, inDegreeTable1);
+        testSchedule1 = new ScheduleB(testSchedule1, taskb1);
+        testSchedule1 = new ScheduleB(testSchedule1, taskc1);
+        testSchedule1 = new ScheduleB(testSchedule1, taskd1);
+        testSchedule1 = new ScheduleB(testSchedule1, taske1);
+        testSchedule1 = new ScheduleB(testSchedule1, taskf1);
+        testSchedule1 = new ScheduleB(testSchedule1, taskg1);
 
         // Make outputSchedule.
         OutputSchedule outputSchedule1 = new Solution(testSchedule1, 2);
@@ -257,22 +245,19 @@ public class TestOutputChecker {
             ScheduledTask taskg1 = new ScheduledTask(2, testGraph1.getNode("g"), 10);
             ScheduledTask taskh1 = new ScheduledTask(2, testGraph1.getNode("h"), 12);
 
-            // Add an indegree table for BnB schedule typing (empty, just for convention)
-            Hashtable<INode, Integer> inDegreeTable1 = new Hashtable<INode, Integer>();
-
             // Append the tasks to the test output schedule.
 
             // Set the head of the schedule linked list as taska1.
-            ScheduleB testSchedule1 = new ScheduleB( taska1, inDegreeTable1);
+            ScheduleB testSchedule1 = new ScheduleB(taska1);
 
             // Add the rest of the tasks to the linked list.
-            testSchedule1 = new ScheduleB(testSchedule1, taskb1, inDegreeTable1);
-            testSchedule1 = new ScheduleB(testSchedule1, taskc1, inDegreeTable1);
-            testSchedule1 = new ScheduleB(testSchedule1, taskd1, inDegreeTable1);
-            testSchedule1 = new ScheduleB(testSchedule1, taske1, inDegreeTable1);
-            testSchedule1 = new ScheduleB(testSchedule1, taskf1, inDegreeTable1);
-            testSchedule1 = new ScheduleB(testSchedule1, taskg1, inDegreeTable1);
-            testSchedule1 = new ScheduleB(testSchedule1, taskh1, inDegreeTable1);
+            testSchedule1 = new ScheduleB(testSchedule1, taskb1);
+            testSchedule1 = new ScheduleB(testSchedule1, taskc1);
+            testSchedule1 = new ScheduleB(testSchedule1, taskd1);
+            testSchedule1 = new ScheduleB(testSchedule1, taske1);
+            testSchedule1 = new ScheduleB(testSchedule1, taskf1);
+            testSchedule1 = new ScheduleB(testSchedule1, taskg1);
+            testSchedule1 = new ScheduleB(testSchedule1, taskh1);
 
             // Make outputSchedule.
             OutputSchedule outputSchedule1 = new Solution(testSchedule1, 2);
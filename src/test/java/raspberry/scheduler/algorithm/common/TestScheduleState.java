@@ -0,0 +1,223 @@
+package raspberry.scheduler.algorithm.common;
+
+import org.junit.Before;
+import org.junit.Test;
+import raspberry.scheduler.graph.adjacencylist.Graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class tests the compact state of a partial schedule.
+ * @author Takahiro
+ */
+public class TestScheduleState {
+
+    private Graph _testGraph;
+    private ScheduleContext _context;
+
+    @Before
+    public void GraphTestSetUp() {
+        _testGraph = new Graph("testGraph");
+        _testGraph.addNode("a", 2);
+        _testGraph.addNode("b", 3);
+        _testGraph.addNode("c", 4);
+        _testGraph.addEdge("a", "b", 1);
+        _testGraph.addEdge("a", "c", 2);
+        _context = new ScheduleContext(_testGraph, 2);
+    }
+
+    /**
+     * Scheduling a task gives a new state and leaves the parent unchanged.
+     */
+    @Test
+    public void testSchedule() {
+        ScheduleState empty = new ScheduleState(_context);
+        ScheduleState first = empty.schedule(new ScheduledTask(1, _testGraph.getNode("a"), 0));
+        ScheduleState second = first.schedule(new ScheduledTask(2, _testGraph.getNode("c"), 4));
+
+        int a = _testGraph.getIndex(_testGraph.getNode("a"));
+        int c = _testGraph.getIndex(_testGraph.getNode("c"));
+        assertEquals(0, empty.getSize());
+        assertFalse(empty.isScheduled(a));
+        assertEquals(ScheduleState.UNSCHEDULED, empty.getLastTask(1));
+
+        assertEquals(1, first.getSize());
+        assertFalse(first.isScheduled(c));
+        assertEquals(2, first.getProcessorFinishTime(1));
+        assertEquals(0, first.getProcessorFinishTime(2));
+
+        assertEquals(2, second.getSize());
+        assertTrue(second.isScheduled(c));
+        assertEquals(4, second.getStartTime(c));
+        assertEquals(8, second.getFinishTime(c));
+        assertEquals(2, second.getProcessor(c));
+        assertEquals(c, second.getLastTask(2));
+        assertEquals(a, second.getLastTask(1));
+    }
+
+    /**
+     * A task is ready once all its parents are scheduled.
+     */
+    @Test
+    public void testReadyTasks() {
+        int a = _testGraph.getIndex(_testGraph.getNode("a"));
+        int b = _testGraph.getIndex(_testGraph.getNode("b"));
+        int c = _testGraph.getIndex(_testGraph.getNode("c"));
+        ScheduleState state = new ScheduleState(_context);
+        assertEquals(1, state.getNumReady());
+        assertEquals(a, state.getReadyTask(0));
+        assertEquals(9, state.getRemainingWork());
+
+        state = state.schedule(new ScheduledTask(1, _testGraph.getNode("a"), 0));
+        assertEquals(2, state.getNumReady());
+        assertEquals(7, state.getRemainingWork());
+
+        state = state.schedule(new ScheduledTask(1, _testGraph.getNode("c"), 2));
+        assertEquals(1, state.getNumReady());
+        assertEquals(b, state.getReadyTask(0));
+        assertTrue(state.isScheduled(c));
+        assertEquals(3, state.getRemainingWork());
+    }
+
+    /**
+     * Earliest start times read from the incoming edges only.
+     */
+    @Test
+    public void testEarliestStartTime() {
+        ScheduleState state = new ScheduleState(_context)
+                .schedule(new ScheduledTask(1, _testGraph.getNode("a"), 0));
+        int b = _testGraph.getIndex(_testGraph.getNode("b"));
+        int c = _testGraph.getIndex(_testGraph.getNode("c"));
+        assertEquals(2, _context.getEarliestStartTime(state, 1, b));
+        assertEquals(3, _context.getEarliestStartTime(state, 2, b));
+        assertEquals(4, _context.getEarliestStartTime(state, 2, c));
+
+        state = state.schedule(new ScheduledTask(1, _testGraph.getNode("b"), 2));
+        assertEquals(5, _context.getEarliestStartTime(state, 1, c));
+        assertEquals(4, _context.getEarliestStartTime(state, 2, c));
+    }
+
+    /**
+     * The same tasks at the same start times on other processors have the same start times.
+     */
+    @Test
+    public void testSameStartTimes() {
+        ScheduleState empty = new ScheduleState(_context);
+        ScheduleState one = empty.schedule(new ScheduledTask(1, _testGraph.getNode("a"), 0))
+                .schedule(new ScheduledTask(1, _testGraph.getNode("b"), 2));
+        ScheduleState two = empty.schedule(new ScheduledTask(2, _testGraph.getNode("a"), 0))
+                .schedule(new ScheduledTask(2, _testGraph.getNode("b"), 2));
+        ScheduleState other = empty.schedule(new ScheduledTask(1, _testGraph.getNode("a"), 0))
+                .schedule(new ScheduledTask(2, _testGraph.getNode("b"), 3));
+
+        assertTrue(one.hasSameStartTimes(two));
+        assertEquals(one.getHash(), two.getHash());
+        assertFalse(one.hasSameStartTimes(other));
+        assertNotEquals(one.getHash(), other.getHash());
+    }
+
+    /**
+     * Duplicates have the same start times and the same grouping onto processors,
+     * whatever the processors are numbered.
+     */
+    @Test
+    public void testDuplicate() {
+        ScheduleState empty = new ScheduleState(_context);
+        ScheduleState one = empty.schedule(new ScheduledTask(1, _testGraph.getNode("a"), 0))
+                .schedule(new ScheduledTask(1, _testGraph.getNode("b"), 2))
+                .schedule(new ScheduledTask(2, _testGraph.getNode("c"), 4));
+        ScheduleState renumbered = empty.schedule(new ScheduledTask(2, _testGraph.getNode("a"), 0))
+                .schedule(new ScheduledTask(2, _testGraph.getNode("b"), 2))
+                .schedule(new ScheduledTask(1, _testGraph.getNode("c"), 4));
+        ScheduleState regrouped = empty.schedule(new ScheduledTask(1, _testGraph.getNode("a"), 0))
+                .schedule(new ScheduledTask(2, _testGraph.getNode("b"), 2))
+                .schedule(new ScheduledTask(1, _testGraph.getNode("c"), 4));
+
+        assertTrue(one.isDuplicate(renumbered));
+        assertTrue(one.hasSameStartTimes(regrouped));
+        assertFalse(one.isDuplicate(regrouped));
+    }
+
+    /**
+     * Processors are labelled by the first task on them, so any permutation of the processors
+     * gives the same labels, hash and signature.
+     */
+    @Test
+    public void testCanonicalProcessors() {
+        _context = new ScheduleContext(_testGraph, 3);
+        ScheduleState empty = new ScheduleState(_context);
+        ScheduleState one = empty.schedule(new ScheduledTask(1, _testGraph.getNode("a"), 0))
+                .schedule(new ScheduledTask(2, _testGraph.getNode("b"), 3))
+                .schedule(new ScheduledTask(3, _testGraph.getNode("c"), 4));
+        ScheduleState rotated = empty.schedule(new ScheduledTask(3, _testGraph.getNode("a"), 0))
+                .schedule(new ScheduledTask(1, _testGraph.getNode("b"), 3))
+                .schedule(new ScheduledTask(2, _testGraph.getNode("c"), 4));
+
+        assertEquals(1, rotated.getCanonicalProcessor(3));
+        assertEquals(2, rotated.getCanonicalProcessor(1));
+        assertEquals(3, rotated.getCanonicalProcessor(2));
+        assertEquals(ScheduleState.UNSCHEDULED, empty.getCanonicalProcessor(1));
+        assertEquals(one.getHash(), rotated.getHash());
+        assertTrue(one.isDuplicate(rotated));
+    }
+
+    /**
+     * A state changed in place matches the immutable state of the same tasks, and undoing
+     * a task gives back the state before it.
+     */
+    @Test
+    public void testPlaceAndUndo() {
+        int a = _testGraph.getIndex(_testGraph.getNode("a"));
+        int b = _testGraph.getIndex(_testGraph.getNode("b"));
+        int c = _testGraph.getIndex(_testGraph.getNode("c"));
+        ScheduleState state = new ScheduleState(_context)
+                .schedule(new ScheduledTask(1, _testGraph.getNode("a"), 0))
+                .schedule(new ScheduledTask(2, _testGraph.getNode("c"), 4));
+        MutableScheduleState mutable = new MutableScheduleState(_context);
+        mutable.place(a, 1, 0);
+        assertEquals(2, mutable.getNumReady());
+        mutable.place(c, 2, _context.getEarliestStartTime(mutable, 2, c));
+
+        assertEquals(state.getHash(), mutable.getHash());
+        assertEquals(8, mutable.getOverallFinishTime());
+        assertEquals(2, mutable.getMaxPid());
+        assertEquals(1, mutable.getNumReady());
+        assertEquals(b, mutable.getReadyTask(0));
+        assertEquals(c, mutable.getLastPlacedTask());
+        assertEquals(ScheduleState.UNSCHEDULED, mutable.getPreviousTask(c));
+
+        mutable.undo();
+        assertFalse(mutable.isScheduled(c));
+        assertEquals(0, mutable.getProcessorFinishTime(2));
+        assertEquals(2, mutable.getNumReady());
+        assertEquals(2, mutable.getOverallFinishTime());
+        assertEquals(1, mutable.getMaxPid());
+        mutable.place(b, 1, 2);
+        assertEquals(a, mutable.getPreviousTask(b));
+        mutable.undo();
+        mutable.undo();
+        assertEquals(0, mutable.getHash());
+        assertEquals(1, mutable.getNumReady());
+        assertEquals(a, mutable.getReadyTask(0));
+        assertEquals(9, mutable.getRemainingWork());
+    }
+
+    /**
+     * The hash only depends on the placed tasks, not on the order they were placed in.
+     */
+    @Test
+    public void testHashIsOrderIndependent() {
+        ScheduleState first = new ScheduleState(_context)
+                .schedule(new ScheduledTask(1, _testGraph.getNode("a"), 0));
+        ScheduleState bc = first.schedule(new ScheduledTask(1, _testGraph.getNode("b"), 2))
+                .schedule(new ScheduledTask(2, _testGraph.getNode("c"), 4));
+        ScheduleState cb = first.schedule(new ScheduledTask(2, _testGraph.getNode("c"), 4))
+                .schedule(new ScheduledTask(1, _testGraph.getNode("b"), 2));
+        assertEquals(bc.getHash(), cb.getHash());
+        assertTrue(bc.hasSameStartTimes(cb));
+        assertNotEquals(first.getHash(), bc.getHash());
+    }
+}
@@ -0,0 +1,89 @@
+package raspberry.scheduler.algorithm.common;
+
+import org.junit.Before;
+import org.junit.Test;
+import raspberry.scheduler.algorithm.bnb.ScheduleB;
+import raspberry.scheduler.graph.INode;
+import raspberry.scheduler.graph.adjacencylist.Graph;
+import raspberry.scheduler.graph.exceptions.EdgeDoesNotExistException;
+
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class tests that a solution read from the schedule state matches one built from the path.
+ * @author Takahiro
+ */
+public class TestSolution {
+
+    private Graph _testGraph;
+    private ScheduledTask[] _tasks;
+
+    @Before
+    public void GraphTestSetUp() {
+        _testGraph = new Graph("testGraph");
+        _testGraph.addNode("a", 2);
+        _testGraph.addNode("b", 3);
+        _testGraph.addNode("c", 4);
+        _testGraph.addNode("d", 1);
+        _testGraph.addEdge("a", "b", 1);
+        _testGraph.addEdge("a", "c", 2);
+        _testGraph.addEdge("b", "d", 1);
+        _testGraph.addEdge("c", "d", 1);
+        _tasks = new ScheduledTask[]{
+                new ScheduledTask(1, _testGraph.getNode("a"), 0),
+                new ScheduledTask(2, _testGraph.getNode("c"), 4),
+                new ScheduledTask(1, _testGraph.getNode("b"), 2),
+                new ScheduledTask(2, _testGraph.getNode("d"), 8)};
+    }
+
+    private ScheduleB build(ScheduleB root) {
+        ScheduleB schedule = root;
+        for (int i = 1; i < _tasks.length; i++) {
+            schedule = new ScheduleB(schedule, _tasks[i]);
+        }
+        return schedule;
+    }
+
+    /**
+     * Both solutions give the same start times, processors, finish time and tasks per processor.
+     */
+    @Test
+    public void testStateMatchesPath() throws EdgeDoesNotExistException {
+        ScheduleB withState = build(new ScheduleB(_tasks[0], new ScheduleContext(_testGraph, 2)));
+        ScheduleB withoutState = build(new ScheduleB(_tasks[0]));
+        Solution fromState = new Solution(withState, 2);
+        Solution fromPath = new Solution(withoutState, 2);
+
+        assertEquals(fromPath.getNumTasks(), fromState.getNumTasks());
+        assertEquals(9, fromState.getFinishTime());
+        assertEquals(fromPath.getFinishTime(), fromState.getFinishTime());
+        for (INode node : _testGraph.getAllNodes()) {
+            assertEquals(fromPath.getStartTime(node), fromState.getStartTime(node));
+            assertEquals(fromPath.getProcessorNum(node), fromState.getProcessorNum(node));
+        }
+        for (int pid = 1; pid <= 2; pid++) {
+            List<INode> nodes = fromState.getNodes(pid);
+            assertEquals(new HashSet<INode>(fromPath.getNodes(pid)), new HashSet<INode>(nodes));
+            assertEquals(2, nodes.size());
+        }
+        assertTrue(fromState.getNodes(3).isEmpty());
+        assertTrue(OutputChecker.isValid(_testGraph, fromState));
+    }
+
+    /**
+     * A partial schedule only lists its scheduled tasks.
+     */
+    @Test
+    public void testPartialSchedule() {
+        ScheduleB schedule = new ScheduleB(new ScheduleB(_tasks[0], new ScheduleContext(_testGraph, 2)), _tasks[1]);
+        Solution solution = new Solution(schedule, 2);
+        assertEquals(2, solution.getNumTasks());
+        assertEquals(8, solution.getFinishTime());
+        assertEquals(1, solution.getNodes(1).size());
+        assertEquals(_testGraph.getNode("c"), solution.getNodes(2).get(0));
+    }
+}
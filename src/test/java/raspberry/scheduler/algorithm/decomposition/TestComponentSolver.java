@@ -0,0 +1,116 @@
+package raspberry.scheduler.algorithm.decomposition;
+
+import org.junit.Test;
+import raspberry.scheduler.algorithm.bnb.BNB;
+import raspberry.scheduler.algorithm.common.OutputChecker;
+import raspberry.scheduler.algorithm.common.OutputSchedule;
+import raspberry.scheduler.graph.IEdge;
+import raspberry.scheduler.graph.IGraph;
+import raspberry.scheduler.graph.INode;
+import raspberry.scheduler.graph.adjacencylist.Graph;
+import raspberry.scheduler.graph.exceptions.EdgeDoesNotExistException;
+import raspberry.scheduler.io.GraphReader;
+
+import java.io.FileNotFoundException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class tests solving the components of a graph separately against solving the
+ * whole graph.
+ * @author Takahiro
+ */
+public class TestComponentSolver {
+    private String INPUT_PATH = "src/test/resources/input/";
+
+    /**
+     * Copy the tasks of the input files into one graph, one component per file.
+     */
+    private IGraph union(String... files) throws FileNotFoundException {
+        IGraph graph = new Graph("union");
+        for (int i = 0; i < files.length; i++) {
+            IGraph part = new GraphReader(INPUT_PATH + files[i]).read();
+            for (INode node : part.getAllNodes()) {
+                graph.addNode(i + "_" + node.getName(), node.getValue());
+            }
+            for (INode node : part.getAllNodes()) {
+                for (IEdge edge : part.getOutgoingEdges(node)) {
+                    graph.addEdge(i + "_" + node.getName(), i + "_" + edge.getChild().getName(), edge.getWeight());
+                }
+            }
+        }
+        return graph;
+    }
+
+    private void checkOptimal(IGraph graph, int numProcessors, int numCores) throws EdgeDoesNotExistException {
+        OutputSchedule expected = new BNB(graph, numProcessors, Integer.MAX_VALUE).findPath();
+        ComponentSolver solver = new ComponentSolver(graph, numProcessors, numCores);
+        solver.setJointSearch(true);
+        OutputSchedule output = solver.findPath();
+        assertEquals(expected.getFinishTime(), output.getFinishTime());
+        assertEquals(graph.getNumNodes(), output.getNumTasks());
+        assertTrue(OutputChecker.isValid(graph, output));
+    }
+
+    /**
+     * Two components on enough processors to give each its own.
+     */
+    @Test
+    public void testPartition() throws FileNotFoundException, EdgeDoesNotExistException {
+        checkOptimal(union("Nodes_7_OutTree.dot", "example.dot"), 4, 2);
+    }
+
+    /**
+     * More components than processors.
+     */
+    @Test
+    public void testPacking() throws FileNotFoundException, EdgeDoesNotExistException {
+        IGraph graph = new Graph("independent");
+        int[] weights = {3, 3, 2, 2, 2};
+        for (int i = 0; i < weights.length; i++) {
+            graph.addNode(Integer.toString(i), weights[i]);
+        }
+        OutputSchedule output = new ComponentSolver(graph, 2, 1).findPath();
+        assertEquals(6, output.getFinishTime());
+        assertTrue(OutputChecker.isValid(graph, output));
+
+        IGraph chains = new Graph("chains");
+        for (int i = 0; i < 4; i++) {
+            chains.addNode("a" + i, 2);
+            chains.addNode("b" + i, 3);
+            chains.addEdge("a" + i, "b" + i, 1);
+        }
+        checkOptimal(chains, 2, 1);
+    }
+
+    /**
+     * The combined schedule does not reach the lower bound, the whole graph is searched.
+     */
+    @Test
+    public void testJointSearch() throws FileNotFoundException, EdgeDoesNotExistException {
+        checkOptimal(union("example.dot", "example.dot"), 3, 2);
+    }
+
+    /**
+     * Without the joint search the combined schedule is returned, valid and no shorter than
+     * the optimal schedule.
+     */
+    @Test
+    public void testBoundedResult() throws FileNotFoundException, EdgeDoesNotExistException {
+        IGraph graph = union("example.dot", "example.dot");
+        OutputSchedule expected = new BNB(graph, 3, Integer.MAX_VALUE).findPath();
+        OutputSchedule output = new ComponentSolver(graph, 3, 2).findPath();
+        assertTrue(output.getFinishTime() >= expected.getFinishTime());
+        assertEquals(graph.getNumNodes(), output.getNumTasks());
+        assertTrue(OutputChecker.isValid(graph, output));
+    }
+
+    /**
+     * A single component is solved as a whole.
+     */
+    @Test
+    public void testSingleComponent() throws FileNotFoundException, EdgeDoesNotExistException {
+        checkOptimal(union("Nodes_9_SeriesParallel.dot"), 2, 1);
+    }
+}
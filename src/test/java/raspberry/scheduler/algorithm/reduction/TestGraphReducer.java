@@ -0,0 +1,116 @@
+package raspberry.scheduler.algorithm.reduction;
+
+import org.junit.Test;
+import raspberry.scheduler.algorithm.bnb.BNB;
+import raspberry.scheduler.algorithm.common.OutputChecker;
+import raspberry.scheduler.algorithm.common.OutputSchedule;
+import raspberry.scheduler.graph.IGraph;
+import raspberry.scheduler.graph.adjacencylist.Graph;
+import raspberry.scheduler.graph.exceptions.EdgeDoesNotExistException;
+import raspberry.scheduler.io.GraphReader;
+
+import java.io.FileNotFoundException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class tests the graph reduction and that schedules of the reduced graph
+ * map back to valid schedules of the same length.
+ * @author Neville
+ */
+public class TestGraphReducer {
+    private String INPUT_PATH = "src/test/resources/input/";
+
+    /**
+     * An edge is dropped only if the other path is at least as long as its cost.
+     */
+    @Test
+    public void testTransitiveEdge() {
+        IGraph graph = new Graph("transitive");
+        graph.addNode("a", 2);
+        graph.addNode("b", 3);
+        graph.addNode("c", 1);
+        graph.addNode("d", 1);
+        graph.addEdge("a", "b", 5);
+        graph.addEdge("b", "c", 5);
+        graph.addEdge("a", "c", 3);
+        graph.addEdge("b", "d", 1);
+        graph.addEdge("a", "d", 4);
+
+        GraphReducer reducer = new GraphReducer(graph);
+        IGraph reduced = reducer.reduce();
+        assertEquals(1, reducer.getNumRemovedEdges());
+        assertEquals(IGraph.NO_EDGE, reduced.getCommunicationCost(reduced.getNode("a"), reduced.getNode("c")));
+        assertEquals(4, reduced.getCommunicationCost(reduced.getNode("a"), reduced.getNode("d")));
+    }
+
+    /**
+     * Zero weight entry and exit tasks are folded until none is left, and they are
+     * scheduled next to their anchor.
+     */
+    @Test
+    public void testZeroWeightTasks() throws EdgeDoesNotExistException {
+        IGraph graph = new Graph("zero");
+        graph.addNode("s1", 0);
+        graph.addNode("s2", 0);
+        graph.addNode("a", 4);
+        graph.addNode("b", 3);
+        graph.addNode("t", 0);
+        graph.addNode("lone", 0);
+        graph.addEdge("s1", "s2", 7);
+        graph.addEdge("s2", "a", 7);
+        graph.addEdge("s2", "b", 7);
+        graph.addEdge("a", "t", 9);
+
+        GraphReducer reducer = new GraphReducer(graph);
+        IGraph reduced = reducer.reduce();
+        assertEquals(3, reduced.getNumNodes());
+        assertEquals(3, reducer.getNumFoldedTasks());
+        assertNotNull(reduced.getNode("s2"));
+
+        OutputSchedule output = reducer.expand(new BNB(reduced, 2, Integer.MAX_VALUE).findPath());
+        assertEquals(7, output.getFinishTime());
+        assertEquals(6, output.getNumTasks());
+        assertTrue(OutputChecker.isValid(graph, output));
+        assertEquals(output.getProcessorNum(graph.getNode("a")), output.getProcessorNum(graph.getNode("t")));
+    }
+
+    /**
+     * A graph made only of zero weight tasks keeps one task.
+     */
+    @Test
+    public void testNeverEmpty() throws EdgeDoesNotExistException {
+        IGraph graph = new Graph("empty");
+        graph.addNode("a", 0);
+        graph.addNode("b", 0);
+        graph.addNode("c", 0);
+        graph.addEdge("a", "b", 1);
+        graph.addEdge("b", "c", 1);
+
+        GraphReducer reducer = new GraphReducer(graph);
+        assertEquals(1, reducer.reduce().getNumNodes());
+        OutputSchedule output = reducer.expand(new BNB(reducer.reduce(), 2, Integer.MAX_VALUE).findPath());
+        assertEquals(0, output.getFinishTime());
+        assertTrue(OutputChecker.isValid(graph, output));
+    }
+
+    /**
+     * The reduced graphs of the input files have the same optimal schedule length.
+     */
+    @Test
+    public void testSameOptimum() throws FileNotFoundException, EdgeDoesNotExistException {
+        String[] files = {"Nodes_7_OutTree.dot", "Nodes_8_Random.dot", "Nodes_9_SeriesParallel.dot",
+                "Nodes_10_Random.dot", "Nodes_11_OutTree.dot", "example.dot"};
+        for (String file : files) {
+            IGraph graph = new GraphReader(INPUT_PATH + file).read();
+            GraphReducer reducer = new GraphReducer(graph);
+            OutputSchedule expected = new BNB(graph, 2, Integer.MAX_VALUE).findPath();
+            OutputSchedule output = reducer.expand(new BNB(reducer.reduce(), 2, Integer.MAX_VALUE).findPath());
+            assertEquals(file, expected.getFinishTime(), output.getFinishTime());
+            assertEquals(file, graph.getNumNodes(), output.getNumTasks());
+            assertTrue(file, OutputChecker.isValid(graph, output));
+        }
+    }
+}
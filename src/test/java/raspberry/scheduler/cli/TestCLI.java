@@ -165,6 +165,35 @@ public class TestCLI {
         }
     }
 
+    /**
+     * test the memory budget is set in megabytes, and is not set by default
+     */
+    @Test
+    public void testMemoryBudget() throws ParserException {
+        String[] testArgs = {"input.dot", "4", "-m", "512", "-p", "2"};
+        CLIConfig testConfig = _parser.parser(testArgs);
+        assertEquals(512, testConfig.getMemoryBudget());
+        assertEquals(2, testConfig.getNumCores());
+        assertEquals(CLIConfig.NO_MEMORY_BUDGET, _parser.parser(new String[]{"input.dot", "4"}).getMemoryBudget());
+    }
+
+    /**
+     * This test will have the option selected for setting the memory budget - but no valid budget is given
+     * thus it should throw an exception.
+     */
+    @Test
+    public void testInvalidMemoryBudget() {
+        String[][] invalidArgs = {{"input.dot", "4", "-m", "0"}, {"input.dot", "4", "-m", "lots"}, {"input.dot", "4", "-m"}};
+        for (String[] testArgs : invalidArgs) {
+            try {
+                _parser.parser(testArgs);
+                fail();
+            } catch (ParserException e) {
+                //Should throw exception
+            }
+        }
+    }
+
     /**
      * test that when invalid arguments are given an exception is thrown - i.e. expected int for num process but gives a string instead
      */
@@ -208,4 +237,40 @@ public class TestCLI {
             //Should throw exception
         }
     }
+
+    /**
+     * Test the convert command with the default output file.
+     */
+    @Test
+    public void testConvert() throws ParserException {
+        String[] testArgs = {"convert", "input.dot"};
+        CLIConfig testConfig = _parser.parser(testArgs);
+        assertEquals(true, testConfig.getConvert());
+        assertEquals("input.dot", testConfig.getDotFile());
+        assertEquals("input.tgb", testConfig.getOutputFile());
+    }
+
+    /**
+     * Test the convert command with an output file.
+     */
+    @Test
+    public void testConvertOutput() throws ParserException {
+        String[] testArgs = {"convert", "input.dot", "-o", "graph"};
+        CLIConfig testConfig = _parser.parser(testArgs);
+        assertEquals("graph.tgb", testConfig.getOutputFile());
+    }
+
+    /**
+     * Test the convert command without an input file. Should throw an exception.
+     */
+    @Test
+    public void testConvertNoInput() {
+        try {
+            String[] testArgs = {"convert"};
+            _parser.parser(testArgs);
+            fail();
+        } catch (ParserException e) {
+            //Should throw exception
+        }
+    }
 }
@@ -124,5 +124,25 @@ public class TestAdjacencyListGraph {
         assertEquals(criticalCount, _testGraph.getCriticalPathWeightTable());
     }
 
+    /**
+     * Test that the critical path weight table is not exponential on reconvergent paths.
+     * The graph is 60 layers of 2 nodes, every node pointing to both nodes in the next layer.
+     */
+    @Test (timeout = 5000)
+    public void TestGetCriticalPathWeightTableReconvergent() {
+        Graph graph = new Graph("layered");
+        for (int layer = 0; layer < 60; layer++) {
+            graph.addNode("a" + layer, 1);
+            graph.addNode("b" + layer, 2);
+            if (layer > 0) {
+                for (String parent : new String[]{"a", "b"}) {
+                    graph.addEdge(parent + (layer - 1), "a" + layer, 1);
+                    graph.addEdge(parent + (layer - 1), "b" + layer, 1);
+                }
+            }
+        }
+        assertEquals(Integer.valueOf(59 * 2), graph.getCriticalPathWeightTable().get(graph.getNode("a0")));
+        assertEquals(Integer.valueOf(0), graph.getCriticalPathWeightTable().get(graph.getNode("a59")));
+    }
 
 }
@@ -0,0 +1,145 @@
+package raspberry.scheduler.graph;
+
+import org.junit.Before;
+import org.junit.Test;
+import raspberry.scheduler.algorithm.bnb.BNB;
+import raspberry.scheduler.algorithm.common.OutputChecker;
+import raspberry.scheduler.algorithm.common.OutputSchedule;
+import raspberry.scheduler.graph.csr.CSRGraph;
+import raspberry.scheduler.graph.exceptions.EdgeDoesNotExistException;
+import raspberry.scheduler.io.GraphReader;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Hashtable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class tests the compressed sparse row graph.
+ * @author Neville
+ */
+public class TestCSRGraph {
+    private String INPUT_PATH = "src/test/resources/input/";
+    private CSRGraph _testGraph;
+
+    /**
+     * Set up the same test graph as the adjacency list test.
+     */
+    @Before
+    public void GraphTestSetUp() {
+        _testGraph = new CSRGraph("testGraph");
+        _testGraph.addNode("1", 12);
+        _testGraph.addNode("2", 11);
+        _testGraph.addNode("3", 10);
+        _testGraph.addNode("4", 9);
+        _testGraph.addNode("5", 8);
+        _testGraph.addNode("6", 7);
+
+        _testGraph.addEdge("1","2",1);
+        _testGraph.addEdge("1","3",2);
+        _testGraph.addEdge("2","4",3);
+        _testGraph.addEdge("3","5",4);
+        _testGraph.addEdge("3","6",5);
+        _testGraph.addEdge("2","6",6);
+    }
+
+    /**
+     * Test that ids are dense and in topological order, and that getNodeByIndex inverts getIndex.
+     */
+    @Test
+    public void testIndexIsTopological() {
+        assertEquals(6, _testGraph.getNumNodes());
+        assertEquals(6, _testGraph.getNumEdges());
+        for (int i = 0; i < _testGraph.getNumNodes(); i++) {
+            INode node = _testGraph.getNodeByIndex(i);
+            assertEquals(i, _testGraph.getIndex(node));
+            for (IEdge edge : _testGraph.getOutgoingEdges(node)) {
+                assertTrue(_testGraph.getIndex(edge.getChild()) > i);
+            }
+        }
+        assertEquals(0, _testGraph.getIndex(_testGraph.getNode("1")));
+    }
+
+    /**
+     * Test edge weights and the primitive accessors.
+     */
+    @Test
+    public void testEdgeWeights() throws EdgeDoesNotExistException {
+        assertEquals(6, _testGraph.getEdgeWeight(_testGraph.getNode("2"), _testGraph.getNode("6")));
+        assertEquals(4, _testGraph.getEdgeWeight(_testGraph.getNode("3"), _testGraph.getNode("5")));
+
+        int six = _testGraph.getIndex(_testGraph.getNode("6"));
+        assertEquals(2, _testGraph.getInDegree(six));
+        int weights = 0;
+        for (int k = 0; k < _testGraph.getInDegree(six); k++) {
+            weights += _testGraph.getParentEdgeWeight(six, k);
+            INode parent = _testGraph.getNodeByIndex(_testGraph.getParent(six, k));
+            assertEquals(_testGraph.getParentEdgeWeight(six, k), _testGraph.getEdgeWeight(parent, _testGraph.getNode("6")));
+        }
+        assertEquals(11, weights);
+    }
+
+    /**
+     * Test the getEdgeWeight method's EdgeDoesNotExistException
+     */
+    @Test (expected = EdgeDoesNotExistException.class)
+    public void testGetEdgeWeightException() throws EdgeDoesNotExistException {
+        _testGraph.getEdgeWeight(_testGraph.getNode("1"), _testGraph.getNode("6"));
+    }
+
+    /**
+     * Test the edge list views.
+     */
+    @Test
+    public void testEdgeViews() {
+        assertEquals(null, _testGraph.getOutgoingEdges("10"));
+        assertEquals(2, _testGraph.getOutgoingEdges("1").size());
+        assertEquals(0, _testGraph.getOutgoingEdges("5").size());
+        for (IEdge edge : _testGraph.getIngoingEdges("6")) {
+            assertSame(_testGraph.getNode("6"), edge.getChild());
+        }
+        ArrayList<INode> roots = new ArrayList<INode>();
+        roots.add(_testGraph.getNode("1"));
+        assertEquals(roots, _testGraph.getNodesWithNoInDegree());
+    }
+
+    /**
+     * Test the getCriticalPathWeightTable and getInDegreeCountOfAllNodes methods.
+     */
+    @Test
+    public void testTables() {
+        Hashtable<INode, Integer> criticalCount = new Hashtable<INode, Integer>();
+        criticalCount.put(_testGraph.getNode("6"), 0);
+        criticalCount.put(_testGraph.getNode("5"), 0);
+        criticalCount.put(_testGraph.getNode("4"), 0);
+        criticalCount.put(_testGraph.getNode("3"), 8);
+        criticalCount.put(_testGraph.getNode("2"), 9);
+        criticalCount.put(_testGraph.getNode("1"), 20);
+        assertEquals(criticalCount, _testGraph.getCriticalPathWeightTable());
+        assertEquals(Integer.valueOf(2), _testGraph.getInDegreeCountOfAllNodes().get(_testGraph.getNode("6")));
+    }
+
+    /**
+     * Test that the graph is read only once it has been compacted.
+     */
+    @Test (expected = IllegalStateException.class)
+    public void testReadOnlyAfterCompaction() {
+        _testGraph.getAllNodes();
+        _testGraph.addNode("7", 1);
+    }
+
+    /**
+     * Test that a compressed graph read from file gives the same optimal schedule.
+     */
+    @Test
+    public void testSolveCompressedGraph() throws FileNotFoundException, EdgeDoesNotExistException {
+        IGraph graph = new GraphReader(INPUT_PATH + "Nodes_10_Random.dot", true).read();
+        assertTrue(graph instanceof CSRGraph);
+        OutputSchedule output = new BNB(graph, 2, Integer.MAX_VALUE).findPath();
+        assertTrue(OutputChecker.isValid(graph, output));
+        assertEquals(50, output.getFinishTime());
+    }
+}
@@ -0,0 +1,83 @@
+package raspberry.scheduler.graph;
+
+import org.junit.Test;
+import raspberry.scheduler.graph.adjacencylist.Graph;
+import raspberry.scheduler.graph.csr.CSRGraph;
+import raspberry.scheduler.graph.util.CommunicationCostIndex;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class tests the communication cost index in both of its representations.
+ * @author Neville
+ */
+public class TestCommunicationCostIndex {
+
+    /**
+     * Build a graph where node i points to i+1 and i+2, with cost i.
+     * @param graph empty graph to fill
+     * @param numNodes number of nodes
+     * @return the graph
+     */
+    private IGraph buildLadder(IGraph graph, int numNodes) {
+        for (int i = 0; i < numNodes; i++) {
+            graph.addNode(Integer.toString(i), 1);
+        }
+        for (int i = 0; i < numNodes; i++) {
+            for (int j = i + 1; j <= i + 2 && j < numNodes; j++) {
+                graph.addEdge(Integer.toString(i), Integer.toString(j), i);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Small graphs use the dense matrix.
+     */
+    @Test
+    public void testDense() {
+        IGraph graph = buildLadder(new Graph("dense"), 50);
+        CommunicationCostIndex index = new CommunicationCostIndex(graph);
+        assertTrue(index.isDense());
+        checkCosts(graph, 50);
+    }
+
+    /**
+     * Large graphs use the open addressing map.
+     */
+    @Test
+    public void testSparse() {
+        int numNodes = 1100;
+        IGraph graph = buildLadder(new CSRGraph("sparse"), numNodes);
+        CommunicationCostIndex index = new CommunicationCostIndex(graph);
+        assertFalse(index.isDense());
+        checkCosts(graph, numNodes);
+    }
+
+    /**
+     * Adding an edge after a lookup is reflected in the next lookup.
+     */
+    @Test
+    public void testRebuiltAfterChange() {
+        IGraph graph = buildLadder(new Graph("change"), 5);
+        assertEquals(IGraph.NO_EDGE, graph.getCommunicationCost(graph.getNode("0"), graph.getNode("4")));
+        graph.addEdge("0", "4", 7);
+        assertEquals(7, graph.getCommunicationCost(graph.getNode("0"), graph.getNode("4")));
+    }
+
+    private void checkCosts(IGraph graph, int numNodes) {
+        for (int i = 0; i < numNodes; i++) {
+            INode parent = graph.getNode(Integer.toString(i));
+            for (int j = 0; j < numNodes; j += 7) {
+                INode child = graph.getNode(Integer.toString(j));
+                int expected = (j == i + 1 || j == i + 2) ? i : IGraph.NO_EDGE;
+                assertEquals(expected, graph.getCommunicationCost(parent, child));
+            }
+            if (i + 1 < numNodes) {
+                assertEquals(i, graph.getCommunicationCost(parent, graph.getNode(Integer.toString(i + 1))));
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package raspberry.scheduler.graph;
+
+import org.junit.Test;
+import raspberry.scheduler.algorithm.Algorithm;
+import raspberry.scheduler.algorithm.bnb.BNB;
+import raspberry.scheduler.graph.adjacencylist.Graph;
+import raspberry.scheduler.graph.util.GraphWidth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class tests the width of a graph and the processor count derived from it.
+ * @author Neville
+ */
+public class TestGraphWidth {
+
+    private IGraph buildFork(int numChildren, int cost) {
+        IGraph graph = new Graph("fork");
+        graph.addNode("root", 2);
+        for (int i = 0; i < numChildren; i++) {
+            graph.addNode("c" + i, i + 1);
+            graph.addEdge("root", "c" + i, cost);
+        }
+        return graph;
+    }
+
+    /**
+     * A chain has width 1 and a fork the number of its children.
+     */
+    @Test
+    public void testChainAndFork() {
+        IGraph chain = new Graph("chain");
+        for (int i = 0; i < 5; i++) {
+            chain.addNode(Integer.toString(i), 1);
+            if (i > 0) {
+                chain.addEdge(Integer.toString(i - 1), Integer.toString(i), 1);
+            }
+        }
+        assertEquals(1, new GraphWidth(chain).getWidth());
+
+        GraphWidth width = new GraphWidth(buildFork(4, 1));
+        assertEquals(4, width.getWidth());
+        assertTrue(width.isExact());
+    }
+
+    /**
+     * Two entries joining into one task that forks into two exits need three paths,
+     * but only two chains once the transitive closure is used.
+     */
+    @Test
+    public void testClosure() {
+        IGraph graph = new Graph("butterfly");
+        graph.addNode("a", 1);
+        graph.addNode("b", 1);
+        graph.addNode("x", 1);
+        graph.addNode("c", 1);
+        graph.addNode("d", 1);
+        graph.addEdge("a", "x", 1);
+        graph.addEdge("b", "x", 1);
+        graph.addEdge("x", "c", 1);
+        graph.addEdge("x", "d", 1);
+        assertEquals(2, new GraphWidth(graph).getWidth());
+    }
+
+    /**
+     * The processor count is clamped to the width only without communication costs.
+     */
+    @Test
+    public void testProcessorBound() {
+        assertEquals(4, Algorithm.getProcessorBound(buildFork(4, 0), 8));
+        assertEquals(5, Algorithm.getProcessorBound(buildFork(4, 3), 8));
+        assertEquals(2, Algorithm.getProcessorBound(buildFork(4, 0), 2));
+
+        IGraph graph = buildFork(4, 0);
+        assertEquals(new BNB(graph, 4, Integer.MAX_VALUE).findPath().getFinishTime(),
+                new BNB(graph, 16, Integer.MAX_VALUE).findPath().getFinishTime());
+    }
+}
@@ -0,0 +1,89 @@
+package raspberry.scheduler.graph;
+
+import org.junit.Before;
+import org.junit.Test;
+import raspberry.scheduler.algorithm.astar.AStar;
+import raspberry.scheduler.algorithm.bnb.BNB;
+import raspberry.scheduler.algorithm.bnb.BNBParallel;
+import raspberry.scheduler.algorithm.common.OutputChecker;
+import raspberry.scheduler.algorithm.common.OutputSchedule;
+import raspberry.scheduler.graph.adjacencylist.Graph;
+import raspberry.scheduler.graph.exceptions.EdgeDoesNotExistException;
+import raspberry.scheduler.graph.util.IdenticalTaskTable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class tests the classes of identical tasks and the search with them.
+ * @author Neville
+ */
+public class TestIdenticalTaskTable {
+
+    private Graph _testGraph;
+
+    /**
+     * Fork join where x1 to x4 are identical, y has a different incoming cost.
+     */
+    @Before
+    public void GraphTestSetUp() {
+        _testGraph = new Graph("testGraph");
+        _testGraph.addNode("s", 2);
+        _testGraph.addNode("x1", 3);
+        _testGraph.addNode("x2", 3);
+        _testGraph.addNode("x3", 3);
+        _testGraph.addNode("x4", 3);
+        _testGraph.addNode("t", 2);
+        for (int i = 1; i <= 4; i++) {
+            _testGraph.addEdge("s", "x" + i, 1);
+            _testGraph.addEdge("x" + i, "t", 1);
+        }
+    }
+
+    private int index(String name) {
+        return _testGraph.getIndex(_testGraph.getNode(name));
+    }
+
+    /**
+     * Identical tasks are chained in topological order.
+     */
+    @Test
+    public void testClasses() {
+        _testGraph.addNode("y", 3);
+        _testGraph.addEdge("s", "y", 2);
+        _testGraph.addEdge("y", "t", 1);
+
+        IdenticalTaskTable table = _testGraph.getIdenticalTaskTable();
+        assertEquals(4, table.getNumClasses());
+        assertEquals(IdenticalTaskTable.NONE, table.getPrevious(index("s")));
+        assertEquals(IdenticalTaskTable.NONE, table.getPrevious(index("y")));
+
+        int classSize = 0;
+        for (int i = 1; i <= 4; i++) {
+            int previous = table.getPrevious(index("x" + i));
+            if (previous == IdenticalTaskTable.NONE) {
+                continue;
+            }
+            assertTrue(previous < index("x" + i));
+            assertEquals(3, _testGraph.getNodeByIndex(previous).getValue());
+            classSize++;
+        }
+        assertEquals(3, classSize);
+    }
+
+    /**
+     * Searching only one order of the identical tasks still finds the optimal schedule.
+     */
+    @Test
+    public void testOptimalSchedule() throws EdgeDoesNotExistException {
+        OutputSchedule[] outputs = {
+                new AStar(_testGraph, 2, Integer.MAX_VALUE).findPath(),
+                new BNB(_testGraph, 2, Integer.MAX_VALUE).findPath(),
+                new BNBParallel(_testGraph, 2, Integer.MAX_VALUE, 2).findPath()
+        };
+        for (OutputSchedule output : outputs) {
+            assertEquals(11, output.getFinishTime());
+            assertTrue(OutputChecker.isValid(_testGraph, output));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package raspberry.scheduler.graph;
+
+import org.junit.Before;
+import org.junit.Test;
+import raspberry.scheduler.graph.adjacencylist.Graph;
+import raspberry.scheduler.graph.csr.CSRGraph;
+import raspberry.scheduler.graph.util.RankTable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * This class tests the static ranks computed for a graph.
+ * @author Neville
+ */
+public class TestRankTable {
+
+    private Graph _testGraph;
+
+    /**
+     * Set up the same test graph as the adjacency list test.
+     */
+    @Before
+    public void GraphTestSetUp() {
+        _testGraph = new Graph("testGraph");
+        fill(_testGraph);
+    }
+
+    private void fill(IGraph graph) {
+        graph.addNode("1", 12);
+        graph.addNode("2", 11);
+        graph.addNode("3", 10);
+        graph.addNode("4", 9);
+        graph.addNode("5", 8);
+        graph.addNode("6", 7);
+
+        graph.addEdge("1","2",1);
+        graph.addEdge("1","3",2);
+        graph.addEdge("2","4",3);
+        graph.addEdge("3","5",4);
+        graph.addEdge("3","6",5);
+        graph.addEdge("2","6",6);
+    }
+
+    private int index(IGraph graph, String name) {
+        return graph.getIndex(graph.getNode(name));
+    }
+
+    /**
+     * Test every rank of the graph against values computed by hand.
+     */
+    @Test
+    public void testRanks() {
+        checkRanks(_testGraph);
+    }
+
+    /**
+     * The compressed graph gives the same ranks.
+     */
+    @Test
+    public void testRanksCompressed() {
+        CSRGraph graph = new CSRGraph("testGraph");
+        fill(graph);
+        checkRanks(graph);
+    }
+
+    /**
+     * The table is computed once and reused.
+     */
+    @Test
+    public void testCached() {
+        assertSame(_testGraph.getRankTable(), _testGraph.getRankTable());
+    }
+
+    private void checkRanks(IGraph graph) {
+        RankTable ranks = graph.getRankTable();
+        int[] top = {0, 13, 14, 27, 28, 30};
+        int[] bottom = {37, 24, 22, 9, 8, 7};
+        int[] level = {32, 20, 18, 9, 8, 7};
+        for (int i = 0; i < 6; i++) {
+            int v = index(graph, Integer.toString(i + 1));
+            assertEquals(top[i], ranks.getTopLevel(v));
+            assertEquals(bottom[i], ranks.getBottomLevel(v));
+            assertEquals(level[i], ranks.getStaticLevel(v));
+            assertEquals(37 - bottom[i], ranks.getAlap(v));
+        }
+        assertEquals(37, ranks.getCriticalPathLength());
+        assertEquals(32, ranks.getStaticCriticalPathLength());
+        assertEquals(Integer.valueOf(20), graph.getCriticalPathWeightTable().get(graph.getNode("1")));
+    }
+}
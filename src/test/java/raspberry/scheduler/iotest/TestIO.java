@@ -1,16 +1,38 @@
 package raspberry.scheduler.iotest;
 
+import org.junit.Rule;
 import org.junit.Test;
 
+import org.junit.rules.TemporaryFolder;
+import raspberry.scheduler.graph.IEdge;
+import raspberry.scheduler.graph.IGraph;
+import raspberry.scheduler.graph.INode;
+import raspberry.scheduler.graph.csr.CSRGraph;
+import raspberry.scheduler.graph.exceptions.EdgeDoesNotExistException;
+import raspberry.scheduler.io.BinaryWriter;
 import raspberry.scheduler.io.GraphReader;
+import raspberry.scheduler.io.exceptions.InvalidFormatException;
 
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * This class tests the input dot file for the reader.
  */
 public class TestIO {
 
+    @Rule
+    public TemporaryFolder _folder = new TemporaryFolder();
+
     /**
      * test normal input
      * @throws FileNotFoundException
@@ -21,4 +43,174 @@ public class TestIO {
         graphReader.read();
     }
 
+    /**
+     * test the content read from a file in the usual format
+     */
+    @Test
+    public void testInputContent() throws FileNotFoundException, EdgeDoesNotExistException {
+        IGraph graph = new GraphReader("src/test/resources/input/Nodes_7_OutTree.dot").read();
+        assertEquals("OutTree-Balanced-MaxBf-3_Nodes_7_CCR_2.0_WeightType_Random", graph.getName());
+        assertEquals(7, graph.getNumNodes());
+        assertEquals(5, graph.getNode("0").getValue());
+        assertEquals(21, graph.getEdgeWeight(graph.getNode("1"), graph.getNode("6")));
+    }
+
+    /**
+     * test the parts of the DOT language outside the usual format:
+     * comments, quoted ids, edge chains, default attributes, other attributes
+     * and nodes declared after the edges that use them.
+     */
+    @Test
+    public void testInputSyntax() throws IOException, EdgeDoesNotExistException {
+        File file = write("/* generated */\n"
+                + "strict digraph \"quoted name\" {\n"
+                + "  rankdir=LR; // layout only\n"
+                + "  node [shape=box, Weight=3]\n"
+                + "  edge [Weight=1]\n"
+                + "# preprocessor style comment\n"
+                + "  \"a b\" -> c -> d\n"
+                + "  c -> e [Weight=4, label=\"x -> y\"];\n"
+                + "  d [Weight=5];\n"
+                + "  e\t [Weight=7];\n"
+                + "}\n");
+        IGraph graph = new GraphReader(file.getPath()).read();
+        assertEquals("quoted name", graph.getName());
+        assertEquals(4, graph.getNumNodes());
+        assertEquals(3, graph.getNode("a b").getValue());
+        assertEquals(5, graph.getNode("d").getValue());
+        assertEquals(7, graph.getNode("e").getValue());
+        assertEquals(1, graph.getEdgeWeight(graph.getNode("a b"), graph.getNode("c")));
+        assertEquals(1, graph.getEdgeWeight(graph.getNode("c"), graph.getNode("d")));
+        assertEquals(4, graph.getEdgeWeight(graph.getNode("c"), graph.getNode("e")));
+    }
+
+    /**
+     * test an edge given twice, it is added once with its last weight
+     */
+    @Test
+    public void testDuplicateEdge() throws IOException, EdgeDoesNotExistException {
+        File file = write("digraph g {\n a [Weight=1];\n b [Weight=2];\n"
+                + " a -> b [Weight=3];\n a -> b [Weight=5];\n}\n");
+        IGraph graph = new GraphReader(file.getPath()).read();
+        assertEquals(1, graph.getOutgoingEdges(graph.getNode("a")).size());
+        assertEquals(1, graph.getIngoingEdges(graph.getNode("b")).size());
+        assertEquals(5, graph.getEdgeWeight(graph.getNode("a"), graph.getNode("b")));
+
+        IGraph compressed = new GraphReader(file.getPath(), true).read();
+        assertEquals(1, compressed.getOutgoingEdges(compressed.getNode("a")).size());
+        assertEquals(5, compressed.getEdgeWeight(compressed.getNode("a"), compressed.getNode("b")));
+    }
+
+    /**
+     * test an invalid header, the error should give the line
+     */
+    @Test
+    public void testIncorrectInput() throws FileNotFoundException {
+        try {
+            new GraphReader("src/test/resources/input/incorrectexample.dot").read();
+            fail("Expected InvalidFormatException");
+        } catch (InvalidFormatException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Line 1:"));
+        }
+    }
+
+    /**
+     * test a node without weight
+     */
+    @Test (expected = InvalidFormatException.class)
+    public void testMissingWeight() throws IOException {
+        new GraphReader(write("digraph g {\n a [Weight=1];\n a -> b [Weight=2];\n}\n").getPath()).read();
+    }
+
+    /**
+     * test a weight that is not a number
+     */
+    @Test (expected = InvalidFormatException.class)
+    public void testInvalidWeight() throws IOException {
+        new GraphReader(write("digraph g {\n a [Weight=x];\n}\n").getPath()).read();
+    }
+
+    /**
+     * test missing file
+     */
+    @Test (expected = FileNotFoundException.class)
+    public void testMissingFile() throws FileNotFoundException {
+        new GraphReader("src/test/resources/input/doesnotexist.dot").read();
+    }
+
+    /**
+     * test that a graph written in the binary format reads back the same, and that the
+     * reader detects the format
+     */
+    @Test
+    public void testBinaryRoundTrip() throws IOException, EdgeDoesNotExistException {
+        IGraph graph = new GraphReader("src/test/resources/input/Nodes_9_SeriesParallel.dot").read();
+        File file = _folder.newFile("graph" + BinaryWriter.EXTENSION);
+        new BinaryWriter(file.getPath(), graph).write();
+
+        IGraph binary = new GraphReader(file.getPath()).read();
+        assertTrue(binary instanceof CSRGraph);
+        assertEquals(graph.getName(), binary.getName());
+        assertEquals(graph.getNumNodes(), binary.getNumNodes());
+        for (INode node : graph.getAllNodes()) {
+            INode copy = binary.getNode(node.getName());
+            assertEquals(node.getValue(), copy.getValue());
+            assertEquals(graph.getOutgoingEdges(node).size(), binary.getOutgoingEdges(copy).size());
+            for (IEdge edge : graph.getOutgoingEdges(node)) {
+                assertEquals(edge.getWeight(),
+                        binary.getEdgeWeight(copy, binary.getNode(edge.getChild().getName())));
+            }
+        }
+    }
+
+    /**
+     * test a truncated binary file
+     */
+    @Test (expected = InvalidFormatException.class)
+    public void testTruncatedBinary() throws IOException {
+        IGraph graph = new GraphReader("src/test/resources/input/Nodes_9_SeriesParallel.dot").read();
+        File file = _folder.newFile();
+        new BinaryWriter(file.getPath(), graph).write();
+        byte[] content = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(content, content.length / 2));
+        new GraphReader(file.getPath()).read();
+    }
+
+    /**
+     * test binary headers whose sizes are corrupt, the reader must not try to allocate them
+     */
+    @Test
+    public void testCorruptBinaryHeader() throws IOException {
+        IGraph graph = new GraphReader("src/test/resources/input/Nodes_9_SeriesParallel.dot").read();
+        File file = _folder.newFile();
+        new BinaryWriter(file.getPath(), graph).write();
+        byte[] content = Files.readAllBytes(file.toPath());
+
+        // 2^29 nodes and edges, 4 * (2n + 1 + 2m) wraps around in int
+        ByteBuffer header = ByteBuffer.wrap(content.clone());
+        header.putInt(8, 1 << 29).putInt(12, 1 << 29);
+        assertTruncated(file, header.array());
+
+        // length of the graph name larger than the file
+        int nameOffset = 16 + 4 * (2 * graph.getNumNodes() + 1 + 2 * ByteBuffer.wrap(content).getInt(12));
+        ByteBuffer name = ByteBuffer.wrap(content.clone());
+        name.putInt(nameOffset, Integer.MAX_VALUE);
+        assertTruncated(file, name.array());
+    }
+
+    private void assertTruncated(File file, byte[] content) throws IOException {
+        Files.write(file.toPath(), content);
+        try {
+            new GraphReader(file.getPath()).read();
+            fail("Expected InvalidFormatException");
+        } catch (InvalidFormatException e) {
+            assertEquals("Binary task graph is truncated", e.getMessage());
+        }
+    }
+
+    private File write(String content) throws IOException {
+        File file = _folder.newFile();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
 }